@@ -1,7 +1,12 @@
 import view.LoginPanel;
+import view.EdtWatchdog;
 import view.MainPanel;
 import dao.DatabaseConnection;
+import metrics.HeapFootprint;
+import metrics.MetricsRegistry;
+import observer.RemoteChangeFeed;
 import state.ApplicationStateContext;
+import util.StartupTimer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,10 +19,13 @@ import java.sql.SQLException;
 public class StudentInfoApp {
 
     public static void main(String[] args) {
+        StartupTimer.start();
+
         // Initialize database connection
         try {
             DatabaseConnection.getInstance();
             System.out.println("Database connection established successfully.");
+            StartupTimer.mark("database opened");
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(null, 
                 "Failed to connect to database: " + e.getMessage() + 
@@ -27,10 +35,21 @@ public class StudentInfoApp {
             System.exit(1);
         }
 
+        // Pick up changes made by other instances sharing the database file
+        try {
+            RemoteChangeFeed.getInstance().start();
+        } catch (SQLException e) {
+            System.err.println("Change feed unavailable: " + e.getMessage());
+        }
+        StartupTimer.mark("change feed started");
+
         // State Pattern: Initialize application state context (starts in LoginState)
         ApplicationStateContext.getInstance();
         System.out.println("Application state initialized.");
 
+        // Time every event the EDT dispatches and report the ones that freeze the UI
+        EdtWatchdog.install();
+
         // Run GUI on Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
@@ -39,6 +58,7 @@ public class StudentInfoApp {
             } catch (Exception e) {
                 e.printStackTrace();
             }
+            StartupTimer.mark("look and feel");
 
             // Create main frame
             JFrame frame = new JFrame("Student Info Manager Application");
@@ -49,7 +69,7 @@ public class StudentInfoApp {
             // Create base panel with CardLayout for view switching
             JPanel cardPanel = new JPanel(new CardLayout());
 
-            // Create panels
+            // Create panels (MainPanel builds its tabs after login)
             LoginPanel loginPanel = new LoginPanel();
             MainPanel mainPanel = new MainPanel();
 
@@ -64,9 +84,11 @@ public class StudentInfoApp {
             // Show login panel initially
             CardLayout cardLayout = (CardLayout) cardPanel.getLayout();
             cardLayout.show(cardPanel, "Login");
+            StartupTimer.mark("login screen shown");
 
             // Add shutdown hook to close database connection
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                RemoteChangeFeed.getInstance().stop();
                 try {
                     DatabaseConnection.getInstance().closeConnection();
                     System.out.println("Database connection closed.");
@@ -75,5 +97,11 @@ public class StudentInfoApp {
                 }
             }));
         });
+
+        // Publish operation metrics over JMX (dump with studentapp:type=Metrics)
+        MetricsRegistry.getInstance().registerMBeans();
+
+        // Record estimated heap per subsystem every few minutes (studentapp:type=HeapFootprint)
+        HeapFootprint.getInstance().start();
     }
 }
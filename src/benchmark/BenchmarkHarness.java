@@ -0,0 +1,327 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal benchmark harness in the style of JMH's average-time mode.
+ * Runs an operation in timed iterations - warmup iterations first, whose
+ * results are discarded - and records the average time per operation of
+ * each measured iteration. Results print as a table and can be written as
+ * JMH-compatible JSON, so tools that read JMH output can read these too.
+ *
+ * Everything runs in one JVM on the calling thread. There is no forking and
+ * no automatic dead-code protection: operations that only compute something
+ * (a sort, a validation) should pass their result to consume(), so the JIT
+ * cannot drop the work.
+ */
+public class BenchmarkHarness {
+
+    public static final double CONFIDENCE = 0.999;
+
+    /**
+     * One invocation of the code being measured.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    // Written by consume(); volatile so the writes cannot be optimized away
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * Measures an operation and keeps the result.
+     * Each iteration runs the operation at least once, so slow operations
+     * still produce one sample per iteration.
+     *
+     * @param benchmark Fully qualified benchmark name (e.g. benchmark.DaoBenchmark.studentFindById)
+     * @param params Parameters of this run, e.g. store and rows
+     */
+    public Result run(String benchmark, Map<String, String> params, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(operation);
+        }
+        double[] scores = new double[measurementIterations];
+        long operations = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] iteration = runIteration(operation);
+            operations += iteration[1];
+            scores[i] = iteration[0] / 1000.0 / iteration[1];
+        }
+        Result result = new Result(benchmark, params, scores, operations);
+        results.add(result);
+        System.out.println(result.toTableRow());
+        return result;
+    }
+
+    /**
+     * @return Elapsed nanoseconds and operation count
+     */
+    private long[] runIteration(Operation operation) throws Exception {
+        long deadline = iterationMillis * 1_000_000L;
+        long start = System.nanoTime();
+        long elapsed;
+        long count = 0;
+        do {
+            operation.run();
+            count++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        return new long[] {elapsed, count};
+    }
+
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Keeps a computed value alive, in the way JMH's Blackhole does.
+     */
+    public static void consume(Object value) {
+        sink = value;
+    }
+
+    /**
+     * Writes a Markdown report: the JVM and machine the results came from,
+     * then comparisonReport(baseline).
+     */
+    public void writeReport(Path file, String title, String baseline) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        String nl = System.lineSeparator();
+        sb.append("# ").append(title).append(nl).append(nl);
+        sb.append("- Date: ").append(LocalDateTime.now().withNano(0)).append(nl);
+        sb.append("- JVM: ").append(System.getProperty("java.vm.name")).append(' ')
+                .append(System.getProperty("java.version")).append(nl);
+        sb.append("- CPUs: ").append(Runtime.getRuntime().availableProcessors()).append(nl);
+        sb.append(String.format("- Iterations: %d warmup, %d measured, %d ms each%n",
+                warmupIterations, measurementIterations, iterationMillis));
+        sb.append(nl).append("Average time per operation; the ratio is to ").append(baseline)
+                .append(" with the same parameters.").append(nl).append(nl);
+        sb.append(comparisonReport(baseline));
+        Files.writeString(file, sb, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Markdown table comparing the benchmarks run with the same parameters:
+     * one row per parameter set, one column per benchmark, each cell the
+     * score and its ratio to the baseline benchmark (below 1.00x is faster).
+     *
+     * @param baseline Short name of the benchmark to compare against, e.g. current
+     */
+    public String comparisonReport(String baseline) {
+        List<String> names = new ArrayList<>();
+        Map<Map<String, String>, Map<String, Result>> rows = new LinkedHashMap<>();
+        for (Result result : results) {
+            String name = result.getShortName();
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+            rows.computeIfAbsent(result.getParams(), key -> new LinkedHashMap<>()).put(name, result);
+        }
+
+        StringBuilder sb = new StringBuilder("| Params |");
+        StringBuilder rule = new StringBuilder("|--------|");
+        for (String name : names) {
+            sb.append(' ').append(name).append(" |");
+            rule.append("-------:|");
+        }
+        sb.append(System.lineSeparator()).append(rule).append(System.lineSeparator());
+        for (Map.Entry<Map<String, String>, Map<String, Result>> row : rows.entrySet()) {
+            Result base = row.getValue().get(baseline);
+            sb.append("| ").append(row.getKey()).append(" |");
+            for (String name : names) {
+                Result result = row.getValue().get(name);
+                if (result == null) {
+                    sb.append(" |");
+                } else if (base == null) {
+                    sb.append(String.format(Locale.ROOT, " %.3f us |", result.getScore()));
+                } else {
+                    sb.append(String.format(Locale.ROOT, " %.3f us (%.2fx) |", result.getScore(),
+                            result.getScore() / base.getScore()));
+                }
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Header line matching Result.toTableRow().
+     */
+    public static String tableHeader() {
+        return String.format("%-48s %-28s %12s %12s %10s", "Benchmark", "Params", "Score", "Error", "Units");
+    }
+
+    /**
+     * Writes all results as a JMH-style JSON array.
+     */
+    public void writeJson(Path file) throws IOException {
+        writeJson(file, results, warmupIterations, measurementIterations, iterationMillis);
+    }
+
+    /**
+     * Writes results measured elsewhere (e.g. by LoadHarness) in the same JSON format.
+     */
+    public static void writeJson(Path file, List<Result> results, int warmupIterations, int measurementIterations,
+            long iterationMillis) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i).appendJson(json, warmupIterations, measurementIterations, iterationMillis);
+            json.append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Measured scores of one benchmark run: by default average time
+     * ("avgt") in microseconds per operation.
+     */
+    public static class Result {
+        private final String benchmark;
+        private final Map<String, String> params;
+        private final double[] scores;
+        private final long operations;
+        private final String mode;
+        private final String unit;
+
+        public Result(String benchmark, Map<String, String> params, double[] scores, long operations) {
+            this(benchmark, params, scores, operations, "avgt", "us/op");
+        }
+
+        /**
+         * @param mode JMH mode: avgt (lower is better) or thrpt (higher is better)
+         * @param unit Unit of the scores, e.g. us/op or ops/s
+         */
+        public Result(String benchmark, Map<String, String> params, double[] scores, long operations, String mode,
+                String unit) {
+            this.benchmark = benchmark;
+            this.params = new LinkedHashMap<>(params);
+            this.scores = scores.clone();
+            this.operations = operations;
+            this.mode = mode;
+            this.unit = unit;
+        }
+
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public Map<String, String> getParams() {
+            return Collections.unmodifiableMap(params);
+        }
+
+        public double[] getScores() {
+            return scores.clone();
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public double getScore() {
+            return Statistics.mean(scores);
+        }
+
+        /**
+         * Half-width of the 99.9% confidence interval, NaN with a single iteration.
+         */
+        public double getScoreError() {
+            return Statistics.confidenceError(scores, CONFIDENCE);
+        }
+
+        /**
+         * Benchmark name without the class, e.g. studentFindById.
+         */
+        public String getShortName() {
+            return benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        }
+
+        public String toTableRow() {
+            return String.format(Locale.ROOT, "%-48s %-28s %12.3f %12s %10s", getShortName(), params,
+                    getScore(), Double.isNaN(getScoreError()) ? "" : String.format(Locale.ROOT, "+- %.3f", getScoreError()),
+                    unit);
+        }
+
+        void appendJson(StringBuilder json, int warmupIterations, int measurementIterations, long iterationMillis) {
+            double error = getScoreError();
+            json.append("  {\n");
+            json.append("    \"benchmark\": ").append(quote(benchmark)).append(",\n");
+            json.append("    \"mode\": ").append(quote(mode)).append(",\n");
+            json.append("    \"threads\": 1,\n");
+            json.append("    \"forks\": 1,\n");
+            json.append("    \"warmupIterations\": ").append(warmupIterations).append(",\n");
+            json.append("    \"warmupTime\": \"").append(iterationMillis).append(" ms\",\n");
+            json.append("    \"measurementIterations\": ").append(measurementIterations).append(",\n");
+            json.append("    \"measurementTime\": \"").append(iterationMillis).append(" ms\",\n");
+            json.append("    \"params\": {");
+            int p = 0;
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                json.append(p++ > 0 ? ", " : " ").append(quote(param.getKey())).append(": ")
+                        .append(quote(param.getValue()));
+            }
+            json.append(params.isEmpty() ? "},\n" : " },\n");
+            json.append("    \"primaryMetric\": {\n");
+            json.append("      \"score\": ").append(number(getScore())).append(",\n");
+            json.append("      \"scoreError\": ").append(number(error)).append(",\n");
+            json.append("      \"scoreConfidence\": [").append(number(getScore() - error)).append(", ")
+                    .append(number(getScore() + error)).append("],\n");
+            json.append("      \"scoreUnit\": ").append(quote(unit)).append(",\n");
+            json.append("      \"rawData\": [[");
+            for (int i = 0; i < scores.length; i++) {
+                json.append(i > 0 ? ", " : "").append(number(scores[i]));
+            }
+            json.append("]]\n");
+            json.append("    },\n");
+            json.append("    \"secondaryMetrics\": {}\n");
+            json.append("  }");
+        }
+
+        private static String number(double value) {
+            return Double.isNaN(value) || Double.isInfinite(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", value);
+        }
+
+        private static String quote(String value) {
+            StringBuilder sb = new StringBuilder("\"");
+            for (char c : value.toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
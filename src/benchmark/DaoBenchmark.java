@@ -0,0 +1,172 @@
+package benchmark;
+
+import dao.AttendanceDAO;
+import dao.DatabaseConnection;
+import dao.PaymentDAO;
+import dao.StudentDAO;
+import facade.StudentManagementFacade;
+import util.StudentIdGenerator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmarks for the DAO and facade hot paths against SQLite.
+ * Each dataset is a fresh database - a temporary file or an in-memory
+ * database - holding the given number of students, attendance records and
+ * payments, written by DatasetGenerator. On each dataset it measures:
+ * StudentDAO.findById, readAll and searchByName;
+ * AttendanceDAO.calculateAttendanceRate and markAttendance;
+ * PaymentDAO.calculateTotalPaid;
+ * StudentManagementFacade.getCompleteStudentInfo.
+ *
+ * The database is switched through DatabaseConnection's URL property, so the
+ * code under test is the same code the application runs. Lookups pick
+ * students with a fixed random seed, so runs are comparable.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.DaoBenchmark [options]
+ *   --stores file,memory       databases to test (default: both)
+ *   --rows 1000,100000,1000000 rows per table (default: all three)
+ *   --warmup 3 --iterations 5  warmup and measured iterations per benchmark
+ *   --time 1000                milliseconds per iteration
+ *   --json results.json        also write JMH-style JSON results
+ */
+public class DaoBenchmark {
+
+    private static final String NAME_PREFIX = DaoBenchmark.class.getName() + ".";
+    private static final long RANDOM_SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        List<String> stores = List.of("file", "memory");
+        List<Integer> rowCounts = List.of(1_000, 100_000, 1_000_000);
+        int warmup = 3;
+        int iterations = 5;
+        long timeMillis = 1000;
+        Path json = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--stores" -> stores = List.of(value.split(","));
+                case "--rows" -> rowCounts = parseInts(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--iterations" -> iterations = Integer.parseInt(value);
+                case "--time" -> timeMillis = Long.parseLong(value);
+                case "--json" -> json = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, timeMillis);
+        System.out.println(BenchmarkHarness.tableHeader());
+        for (String store : stores) {
+            for (int rows : rowCounts) {
+                runDataset(harness, store, rows);
+            }
+        }
+        if (json != null) {
+            harness.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    private static void runDataset(BenchmarkHarness harness, String store, int rows) throws Exception {
+        Path file = null;
+        String url;
+        if ("memory".equals(store)) {
+            // Shared cache, so seed() can reach the same in-memory database on its own connection
+            url = "jdbc:sqlite:file:student-app-bench-" + rows + "?mode=memory&cache=shared";
+        } else if ("file".equals(store)) {
+            file = Files.createTempFile("student-app-bench", ".db");
+            url = "jdbc:sqlite:" + file;
+        } else {
+            throw new IllegalArgumentException("Unknown store: " + store);
+        }
+
+        openDatabase(url);
+        try {
+            long start = System.nanoTime();
+            seed(rows);
+            System.out.printf("# %s database, %,d rows per table, seeded in %.1f s%n",
+                    store, rows, (System.nanoTime() - start) / 1e9);
+
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("store", store);
+            params.put("rows", String.valueOf(rows));
+
+            StudentDAO studentDAO = new StudentDAO();
+            AttendanceDAO attendanceDAO = new AttendanceDAO();
+            PaymentDAO paymentDAO = new PaymentDAO();
+            StudentManagementFacade facade = StudentManagementFacade.getInstance();
+            SplittableRandom random = new SplittableRandom(RANDOM_SEED);
+
+            harness.run(NAME_PREFIX + "studentFindById", params,
+                    () -> studentDAO.findById(randomStudentId(random, rows)));
+            harness.run(NAME_PREFIX + "studentReadAll", params, studentDAO::readAll);
+            harness.run(NAME_PREFIX + "studentSearchByName", params,
+                    () -> studentDAO.searchByName(DatasetGenerator.randomName(random)));
+            harness.run(NAME_PREFIX + "attendanceRate", params,
+                    () -> attendanceDAO.calculateAttendanceRate(randomStudentId(random, rows)));
+            harness.run(NAME_PREFIX + "paymentTotalPaid", params,
+                    () -> paymentDAO.calculateTotalPaid(randomStudentId(random, rows)));
+            harness.run(NAME_PREFIX + "facadeCompleteStudentInfo", params,
+                    () -> facade.getCompleteStudentInfo(randomStudentId(random, rows)));
+            // Last, because it grows the attendance table
+            LocalDate day = LocalDate.of(2030, 1, 1);
+            harness.run(NAME_PREFIX + "attendanceMark", params,
+                    () -> attendanceDAO.markAttendance(randomStudentId(random, rows), day.toString(), "PRESENT"));
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Points DatabaseConnection at a new database and opens it (creating the schema).
+     * The previous dataset's connection is already closed, so getInstance() reconnects.
+     */
+    private static void openDatabase(String url) throws SQLException {
+        System.setProperty(DatabaseConnection.DB_URL_PROPERTY, url);
+        DatabaseConnection.getInstance();
+    }
+
+    private static String randomStudentId(SplittableRandom random, int rows) {
+        return StudentIdGenerator.formatId(1 + random.nextInt(rows));
+    }
+
+    /**
+     * Fills the database with rows students, each with one attendance record
+     * and one payment. Writes through a separate bulk connection, like
+     * DatasetGenerator.main, so the seed rows skip the change log.
+     */
+    private static void seed(int rows) throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(RANDOM_SEED);
+        generator.setStudents(rows);
+        generator.setAttendanceDaysPerStudent(1);
+        generator.setPaymentsPerStudent(1);
+        generator.setFirstStudentNumber(1);
+        try (Connection bulk = DatasetGenerator.openBulkConnection(DatabaseConnection.getDatabaseUrl())) {
+            generator.generate(bulk);
+        }
+    }
+
+    private static List<Integer> parseInts(String csv) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : csv.split(",")) {
+            values.add(Integer.parseInt(part.trim()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,436 @@
+package benchmark;
+
+import dao.DatabaseConnection;
+import model.Student;
+import util.StudentIdGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Headless generator for realistic test databases.
+ * Creates students with IDs in StudentIdGenerator's format, a run of school
+ * days of attendance per student and a number of payments per student, and
+ * writes them with batched inserts in large transactions. When the tables
+ * start out empty, their secondary indexes are dropped for the load and
+ * rebuilt afterwards: one sorted build is much cheaper than updating them
+ * row by row.
+ *
+ * Distributions: names from common first and last names; ages mostly 18-25;
+ * courses weighted towards the popular ones; about 85% ENROLLED, 9%
+ * SUSPENDED and 6% GRADUATED. Each student has their own attendance
+ * likelihood (mostly 80-98%), and attendance covers the most recent weekdays.
+ * Payments are mostly tuition installments with some smaller fees.
+ *
+ * The same seed and options always produce the same rows, so benchmark
+ * datasets can be rebuilt exactly.
+ *
+ * When run from main() against a file, rows are written on a separate
+ * connection without the change-capture triggers DatabaseConnection
+ * installs. Other running instances are not notified of the new rows.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.DatasetGenerator [options]
+ *   --students 10000   number of students
+ *   --days 60          attendance days per student
+ *   --payments 4       payments per student
+ *   --seed 42          random seed
+ *   --db path.db       database file (default: the application database)
+ */
+public class DatasetGenerator {
+
+    private static final int DEFAULT_BATCH_SIZE = 50_000;
+    private static final LocalDate LAST_SCHOOL_DAY = LocalDate.of(2024, 12, 20);
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Wei", "Aisha", "Carlos", "Priya", "Yuki", "Omar", "Sofia", "Mateo", "Fatima", "Liam",
+        "Noah", "Emma", "Olivia", "Ava", "Lucas", "Mia", "Amara", "Kenji", "Leila", "Diego"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Chen", "Wang", "Kim", "Nguyen", "Patel", "Singh", "Khan", "Ali", "Tanaka",
+        "Silva", "Santos", "Okafor", "Mensah", "Novak", "Kowalski", "Ivanova", "Rossi", "Muller", "Dubois"
+    };
+    private static final String[] COURSES = {
+        "Computer Science", "Business Administration", "Nursing", "Psychology", "Mechanical Engineering",
+        "Biology", "Economics", "Graphic Design", "Mathematics", "Physics"
+    };
+    // Relative popularity of COURSES
+    private static final int[] COURSE_WEIGHTS = {22, 18, 14, 12, 9, 8, 7, 5, 3, 2};
+
+    // Attendance and payments; student fields come from their own sequence
+    private final SplittableRandom random;
+    private final SplittableRandom studentRandom;
+    private int students = 1000;
+    private int attendanceDaysPerStudent = 60;
+    private int paymentsPerStudent = 4;
+    private long firstStudentNumber = 1;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public DatasetGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.studentRandom = random.split();
+    }
+
+    public void setStudents(int students) {
+        this.students = students;
+    }
+
+    public void setAttendanceDaysPerStudent(int attendanceDaysPerStudent) {
+        this.attendanceDaysPerStudent = attendanceDaysPerStudent;
+    }
+
+    public void setPaymentsPerStudent(int paymentsPerStudent) {
+        this.paymentsPerStudent = paymentsPerStudent;
+    }
+
+    /**
+     * Sets the number of the first generated student ID (1 gives STU001).
+     */
+    public void setFirstStudentNumber(long firstStudentNumber) {
+        this.firstStudentNumber = firstStudentNumber;
+    }
+
+    /**
+     * Sets how many rows are written per transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the dataset through the given connection, whose schema must already exist.
+     * Leaves the connection in auto-commit mode.
+     *
+     * @return Counts of the rows written and the time taken
+     */
+    public Summary generate(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        LocalDate[] schoolDays = lastWeekdays(attendanceDaysPerStudent);
+        String[] schoolDayStrings = new String[schoolDays.length];
+        for (int d = 0; d < schoolDays.length; d++) {
+            schoolDayStrings[d] = schoolDays[d].toString();
+        }
+        long rows = 0;
+        long pending = 0;
+
+        List<String> deferredIndexes = tablesEmpty(connection) ? dropSecondaryIndexes(connection) : List.of();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement student = connection.prepareStatement(
+                     "INSERT INTO students (student_id, name, age, course, email, enrollment_status) "
+                             + "VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement attendance = connection.prepareStatement(
+                     "INSERT INTO attendance (student_id, date, status) VALUES (?, ?, ?)");
+             PreparedStatement payment = connection.prepareStatement(
+                     "INSERT INTO payments (student_id, amount, date, description) VALUES (?, ?, ?, ?)")) {
+
+            for (int i = 0; i < students; i++) {
+                Student row = nextStudent(firstStudentNumber + i);
+                String studentId = row.getStudentId();
+
+                student.setString(1, studentId);
+                student.setString(2, row.getName());
+                student.setInt(3, row.getAge());
+                student.setString(4, row.getCourse());
+                student.setString(5, row.getEmail());
+                student.setString(6, row.getEnrollmentStatus());
+                student.addBatch();
+
+                double attendanceLikelihood = Math.min(0.99, Math.max(0.40, 0.89 + random.nextDouble(-1, 1) * 0.09
+                        - (random.nextInt(10) == 0 ? 0.25 : 0)));
+                for (String day : schoolDayStrings) {
+                    attendance.setString(1, studentId);
+                    attendance.setString(2, day);
+                    attendance.setString(3, random.nextDouble() < attendanceLikelihood ? "PRESENT" : "ABSENT");
+                    attendance.addBatch();
+                }
+
+                LocalDate firstDay = schoolDays.length > 0 ? schoolDays[0] : LAST_SCHOOL_DAY.minusMonths(4);
+                for (int p = 0; p < paymentsPerStudent; p++) {
+                    payment.setString(1, studentId);
+                    addPaymentDetails(payment, firstDay, p);
+                    payment.addBatch();
+                }
+
+                int studentRows = 1 + schoolDays.length + paymentsPerStudent;
+                rows += studentRows;
+                pending += studentRows;
+                if (pending >= batchSize || i == students - 1) {
+                    student.executeBatch();
+                    attendance.executeBatch();
+                    payment.executeBatch();
+                    connection.commit();
+                    pending = 0;
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            // Also after a failure, so the schema is left as it was
+            try (Statement stmt = connection.createStatement()) {
+                for (String createIndex : deferredIndexes) {
+                    stmt.execute(createIndex);
+                }
+            }
+        }
+
+        return new Summary(students, (long) students * schoolDays.length, (long) students * paymentsPerStudent,
+                rows, System.nanoTime() - start);
+    }
+
+    private static boolean tablesEmpty(Connection connection) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM students) OR EXISTS (SELECT 1 FROM attendance)"
+                + " OR EXISTS (SELECT 1 FROM payments)";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() && !rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Drops the indexes created on the generated tables (not the automatic
+     * ones behind primary keys and UNIQUE constraints).
+     *
+     * @return The CREATE INDEX statements that restore them
+     */
+    private static List<String> dropSecondaryIndexes(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        String sql = "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL"
+                + " AND tbl_name IN ('students', 'attendance', 'payments')";
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    names.add(rs.getString("name"));
+                    statements.add(rs.getString("sql"));
+                }
+            }
+            for (String name : names) {
+                stmt.execute("DROP INDEX \"" + name + "\"");
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Creates the students generate() would write, in memory only, for
+     * benchmarks of code that works on student lists. Student fields are drawn
+     * from their own random sequence, apart from attendance and payments, so
+     * a fresh generator with the same seed and options gives the same
+     * students either way.
+     */
+    public List<Student> generateStudents() {
+        List<Student> list = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            list.add(nextStudent(firstStudentNumber + i));
+        }
+        return list;
+    }
+
+    private Student nextStudent(long number) {
+        String firstName = FIRST_NAMES[studentRandom.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[studentRandom.nextInt(LAST_NAMES.length)];
+        int age = randomAge();
+        String course = randomCourse();
+        String email = (firstName + "." + lastName + number).toLowerCase() + "@example.edu";
+        return new Student(firstName + " " + lastName, age, StudentIdGenerator.formatId(number), course, email,
+                randomStatus());
+    }
+
+    /**
+     * A name as the generator would produce it, for searches in benchmarks.
+     */
+    static String randomName(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private int randomAge() {
+        // Most students 18-25, a tail of mature students
+        if (studentRandom.nextInt(10) == 0) {
+            return 26 + studentRandom.nextInt(30);
+        }
+        return 18 + studentRandom.nextInt(8);
+    }
+
+    private String randomCourse() {
+        int total = 0;
+        for (int weight : COURSE_WEIGHTS) {
+            total += weight;
+        }
+        int pick = studentRandom.nextInt(total);
+        for (int i = 0; i < COURSES.length; i++) {
+            pick -= COURSE_WEIGHTS[i];
+            if (pick < 0) {
+                return COURSES[i];
+            }
+        }
+        return COURSES[0];
+    }
+
+    private String randomStatus() {
+        int pick = studentRandom.nextInt(100);
+        if (pick < 85) {
+            return "ENROLLED";
+        }
+        return pick < 94 ? "SUSPENDED" : "GRADUATED";
+    }
+
+    /**
+     * Fills amount, date and description: tuition installments about a month
+     * apart, with one in five payments a small fee instead.
+     */
+    private void addPaymentDetails(PreparedStatement payment, LocalDate firstDay, int index) throws SQLException {
+        LocalDate date = firstDay.plusDays(index * 30L + random.nextInt(7));
+        if (random.nextInt(5) == 0) {
+            String[] fees = {"Lab fee", "Library fee", "Exam fee", "Activity fee"};
+            payment.setDouble(2, 25 + random.nextInt(8) * 12.5);
+            payment.setString(3, date.toString());
+            payment.setString(4, fees[random.nextInt(fees.length)]);
+        } else {
+            payment.setDouble(2, 250 * (1 + random.nextInt(4)));
+            payment.setString(3, date.toString());
+            payment.setString(4, "Tuition installment " + (index + 1));
+        }
+    }
+
+    /**
+     * The last count weekdays up to LAST_SCHOOL_DAY, oldest first.
+     */
+    private static LocalDate[] lastWeekdays(int count) {
+        LocalDate[] days = new LocalDate[count];
+        LocalDate day = LAST_SCHOOL_DAY;
+        for (int i = count - 1; i >= 0; i--) {
+            while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                day = day.minusDays(1);
+            }
+            days[i] = day;
+            day = day.minusDays(1);
+        }
+        return days;
+    }
+
+    /**
+     * Rows written by one generate() call.
+     */
+    public static class Summary {
+        private final long students;
+        private final long attendanceRecords;
+        private final long payments;
+        private final long rows;
+        private final long elapsedNanos;
+
+        public Summary(long students, long attendanceRecords, long payments, long rows, long elapsedNanos) {
+            this.students = students;
+            this.attendanceRecords = attendanceRecords;
+            this.payments = payments;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getStudents() {
+            return students;
+        }
+
+        public long getAttendanceRecords() {
+            return attendanceRecords;
+        }
+
+        public long getPayments() {
+            return payments;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return rows / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d students, %,d attendance records, %,d payments (%,d rows) in %.2f s, %,.0f rows/s",
+                    students, attendanceRecords, payments, rows, elapsedNanos / 1e9, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Opens a plain connection for generate(), tuned for bulk loading. It is
+     * not the application's connection, which carries the change-capture
+     * triggers and statement timing and would log and time every row.
+     * The schema must already exist (open DatabaseConnection first).
+     */
+    static Connection openBulkConnection(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            // Bulk load only: a power loss mid-run can lose the last transactions
+            stmt.execute("PRAGMA synchronous = OFF");
+            stmt.execute("PRAGMA journal_mode = MEMORY");
+            stmt.execute("PRAGMA cache_size = -262144");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = 10_000;
+        int days = 60;
+        int payments = 4;
+        long seed = 42;
+        String dbFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--students" -> students = Integer.parseInt(value);
+                case "--days" -> days = Integer.parseInt(value);
+                case "--payments" -> payments = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--db" -> dbFile = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+        if (dbFile != null) {
+            System.setProperty(DatabaseConnection.DB_URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        }
+
+        // Creates or migrates the schema, then reserves the new students' IDs
+        // up front, so no other instance can hand them out while we insert
+        DatabaseConnection.getInstance();
+        long firstNumber = StudentIdGenerator.reserveNumbers(students);
+
+        DatasetGenerator generator = new DatasetGenerator(seed);
+        generator.setStudents(students);
+        generator.setAttendanceDaysPerStudent(days);
+        generator.setPaymentsPerStudent(payments);
+        generator.setFirstStudentNumber(firstNumber);
+
+        Summary summary;
+        try (Connection bulk = openBulkConnection(DatabaseConnection.getDatabaseUrl())) {
+            summary = generator.generate(bulk);
+        }
+        DatabaseConnection.getInstance().closeConnection();
+        System.out.println("Generated " + summary);
+    }
+}
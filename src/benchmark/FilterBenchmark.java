@@ -0,0 +1,135 @@
+package benchmark;
+
+import model.Student;
+import view.SearchFilter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the search-box filtering of the student table: the
+ * SearchFilter StudentManagementPanel uses, over the same fields, from the
+ * request to the result arriving on the Event Dispatch Thread. For every
+ * list size it measures:
+ *   keystroke  typing student names one character at a time, so most
+ *              requests narrow the previous matches
+ *   newQuery   alternating between unrelated names, so every request
+ *              searches all records
+ *   clear      the empty query, which returns every record
+ *
+ * Requests use filterNow(), so the debounce delay is not measured. Students
+ * come from DatasetGenerator. Runs headless; no database is needed.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.FilterBenchmark [options]
+ *   --sizes 1000,10000,100000   list sizes (default: all three)
+ *   --warmup 3 --iterations 5   warmup and measured iterations per benchmark
+ *   --time 1000                 milliseconds per iteration
+ *   --json results.json         also write JMH-style JSON results
+ */
+public class FilterBenchmark {
+
+    private static final String NAME_PREFIX = FilterBenchmark.class.getName() + ".";
+    private static final long RANDOM_SEED = 42;
+    private static final int QUERY_NAMES = 50;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        List<Integer> sizes = List.of(1_000, 10_000, 100_000);
+        int warmup = 3;
+        int iterations = 5;
+        long timeMillis = 1000;
+        Path json = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--sizes" -> {
+                    List<Integer> values = new ArrayList<>();
+                    for (String part : value.split(",")) {
+                        values.add(Integer.parseInt(part.trim()));
+                    }
+                    sizes = values;
+                }
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--iterations" -> iterations = Integer.parseInt(value);
+                case "--time" -> timeMillis = Long.parseLong(value);
+                case "--json" -> json = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, timeMillis);
+        System.out.println(BenchmarkHarness.tableHeader());
+        for (int size : sizes) {
+            runSize(harness, size);
+        }
+        if (json != null) {
+            harness.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+        System.exit(0);
+    }
+
+    private static void runSize(BenchmarkHarness harness, int size) throws Exception {
+        DatasetGenerator generator = new DatasetGenerator(RANDOM_SEED);
+        generator.setStudents(size);
+        List<Student> students = generator.generateStudents();
+
+        SearchFilter<Student> filter = new SearchFilter<>(student -> new String[] {
+            student.getStudentId(), student.getName(), student.getCourse(),
+            student.getEmail(), student.getEnrollmentStatus()
+        });
+        filter.setRecords(students);
+        // Runs after the records are indexed on the same worker thread
+        if (filterAndWait(filter, "") != students.size()) {
+            throw new IllegalStateException("The empty query did not return every student");
+        }
+
+        Random random = new Random(RANDOM_SEED);
+        List<String> keystrokes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < QUERY_NAMES; i++) {
+            String name = students.get(random.nextInt(students.size())).getName();
+            names.add(name);
+            for (int length = 1; length <= name.length(); length++) {
+                keystrokes.add(name.substring(0, length));
+            }
+        }
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("size", String.valueOf(size));
+        int[] next = new int[1];
+        harness.run(NAME_PREFIX + "keystroke", params,
+                () -> filterAndWait(filter, keystrokes.get(next[0]++ % keystrokes.size())));
+        harness.run(NAME_PREFIX + "newQuery", params,
+                () -> filterAndWait(filter, names.get(next[0]++ % names.size())));
+        harness.run(NAME_PREFIX + "clear", params, () -> filterAndWait(filter, ""));
+        filter.shutdown();
+    }
+
+    /**
+     * Requests a filter and waits until the result is delivered on the EDT.
+     *
+     * @return Number of matching students
+     */
+    private static int filterAndWait(SearchFilter<Student> filter, String query) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        int[] matches = new int[1];
+        filter.filterNow(query, null, result -> {
+            matches[0] = result.size();
+            done.countDown();
+        });
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("No filter result for \"" + query + "\"");
+        }
+        return matches[0];
+    }
+}
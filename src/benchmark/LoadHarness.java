@@ -0,0 +1,500 @@
+package benchmark;
+
+import dao.DatabaseConnection;
+import facade.StudentManagementFacade;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Student;
+import util.StudentIdGenerator;
+import util.StudentLockManager;
+import util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Concurrent load test for StudentManagementFacade.
+ * Where TestDriver runs each facade operation once, this drives the facade
+ * from many threads at once (virtual threads on Java 21+) with a weighted mix
+ * of operations, and reports throughput, latency percentiles and errors per
+ * operation. Running it with a growing number of threads shows where the data
+ * layer stops scaling.
+ *
+ * Operations: lookup (getCompleteStudentInfo), attendance (markAttendance),
+ * payment (addPayment) and status (updateEnrollmentStatus), each on a random
+ * student. Status changes only make valid transitions: they switch a student
+ * between ENROLLED and SUSPENDED, so students never get stuck as GRADUATED
+ * and graduated students are left alone.
+ *
+ * The harness writes to the database. With --db it works on a copy of the
+ * given file unless --allow-writes is also passed.
+ *
+ * With --rate, operations are started on a fixed schedule shared by all
+ * threads, and latency is measured from the scheduled start, so time spent
+ * waiting for a free thread counts against the data layer (no coordinated
+ * omission). Without --rate, each thread starts its next operation as soon as
+ * the last one finishes.
+ *
+ * Application output on System.out is suppressed while a stage runs.
+ *
+ * With --json, each stage is also written in BenchmarkHarness's JSON format
+ * for ResultStore: one average-time result per operation and one throughput
+ * result, each with one sample per second of the measurement.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.LoadHarness [options]
+ *   --threads 1,8,32,128   concurrent threads, one stage per value (default: 1,8,32,128)
+ *   --rate 0               target operations per second across all threads; 0 = unlimited
+ *   --mix lookup=70,attendance=15,payment=10,status=5   relative operation weights
+ *   --duration 10 --warmup 3   seconds measured and seconds discarded per stage
+ *   --students 10000       students in the generated database
+ *   --db path.db           use a copy of an existing database instead of generating one
+ *   --allow-writes         with --db, write to the given file itself instead of a copy
+ *   --metrics              print the MetricsRegistry dump (facade calls, DAO latencies) after each stage
+ *   --json results.json    also write the results of all stages as JSON
+ */
+public class LoadHarness {
+
+    private static final long RANDOM_SEED = 42;
+    private static final String NAME_PREFIX = LoadHarness.class.getName() + ".";
+    private static final Map<String, String> NEXT_STATUS = Map.of("ENROLLED", "SUSPENDED", "SUSPENDED", "ENROLLED");
+
+    /**
+     * One kind of facade call in the mix.
+     */
+    @FunctionalInterface
+    private interface LoadOperation {
+        void run(LoadHarness harness, String studentId, SplittableRandom random) throws Exception;
+    }
+
+    private static final Map<String, LoadOperation> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        OPERATIONS.put("lookup", (harness, studentId, random) -> harness.facade.getCompleteStudentInfo(studentId));
+        OPERATIONS.put("attendance", (harness, studentId, random) -> harness.facade.markAttendance(studentId,
+                LocalDate.of(2030, 1, 1).plusDays(random.nextInt(365)).toString(),
+                random.nextInt(10) < 9 ? "PRESENT" : "ABSENT"));
+        OPERATIONS.put("payment", (harness, studentId, random) -> harness.facade.addPayment(studentId,
+                25 + random.nextInt(40) * 25, LocalDate.of(2030, 1, 1).toString(), "Load test"));
+        OPERATIONS.put("status", LoadHarness::switchStatus);
+    }
+
+    private final StudentManagementFacade facade = StudentManagementFacade.getInstance();
+    private final List<String> studentIds;
+    // Students the status operation may change (not graduated), and their current status
+    private final List<String> statusStudentIds = new ArrayList<>();
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+    private final String[] mixNames;
+    private final int[] cumulativeWeights;
+
+    public LoadHarness(List<Student> students, Map<String, Integer> mix) {
+        if (students.isEmpty()) {
+            throw new IllegalArgumentException("The database has no students");
+        }
+        this.studentIds = new ArrayList<>(students.size());
+        for (Student student : students) {
+            studentIds.add(student.getStudentId());
+            String status = student.getEnrollmentStatus() != null ? student.getEnrollmentStatus() : "ENROLLED";
+            if (NEXT_STATUS.containsKey(status)) {
+                statusStudentIds.add(student.getStudentId());
+                statuses.put(student.getStudentId(), status);
+            }
+        }
+        if (mix.getOrDefault("status", 0) > 0 && statusStudentIds.isEmpty()) {
+            throw new IllegalArgumentException("The database has no enrolled or suspended students");
+        }
+        this.mixNames = new String[mix.size()];
+        this.cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!OPERATIONS.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown operation: " + entry.getKey());
+            }
+            total += entry.getValue();
+            mixNames[i] = entry.getKey();
+            cumulativeWeights[i++] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix has no weight");
+        }
+    }
+
+    /**
+     * Runs one stage: warmup, then measurement, with the given number of threads.
+     *
+     * @param targetRate Operations per second across all threads, or 0 for as fast as possible
+     */
+    public StageResult runStage(int threads, double targetRate, long warmupMillis, long durationMillis)
+            throws InterruptedException {
+        StageResult result = new StageResult(threads, targetRate, durationMillis, mixNames);
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long end = measureStart + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long intervalNanos = targetRate > 0 ? (long) (1e9 / targetRate) : 0;
+        AtomicLong nextTicket = new AtomicLong();
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("load");
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(RANDOM_SEED + t);
+            executor.execute(() -> runWorker(result, random, nextTicket, start, measureStart, end, intervalNanos));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(durationMillis + warmupMillis + 60_000, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Load test workers did not finish");
+        }
+        return result;
+    }
+
+    private void runWorker(StageResult result, SplittableRandom random, AtomicLong nextTicket,
+                           long start, long measureStart, long end, long intervalNanos) {
+        while (true) {
+            long scheduled;
+            if (intervalNanos > 0) {
+                scheduled = start + nextTicket.getAndIncrement() * intervalNanos;
+                if (scheduled >= end) {
+                    return;
+                }
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                scheduled = System.nanoTime();
+                if (scheduled >= end) {
+                    return;
+                }
+            }
+
+            String name = pickOperation(random);
+            List<String> candidates = "status".equals(name) ? statusStudentIds : studentIds;
+            String studentId = candidates.get(random.nextInt(candidates.size()));
+            Exception failure = null;
+            try {
+                OPERATIONS.get(name).run(this, studentId, random);
+            } catch (Exception e) {
+                failure = e;
+            }
+            long finished = System.nanoTime();
+            if (scheduled >= measureStart) {
+                result.record(name, finished - scheduled, failure,
+                        (int) TimeUnit.NANOSECONDS.toSeconds(scheduled - measureStart));
+            }
+        }
+    }
+
+    /**
+     * Moves a student from ENROLLED to SUSPENDED or back. Holds the student's
+     * lock (the facade takes it again, reentrantly) so concurrent switches of
+     * the same student apply in the order their new status was chosen.
+     */
+    private void switchStatus(String studentId, SplittableRandom random) throws Exception {
+        ReentrantLock lock = StudentLockManager.getInstance().lock(studentId);
+        try {
+            String next = NEXT_STATUS.get(statuses.get(studentId));
+            facade.updateEnrollmentStatus(studentId, next);
+            statuses.put(studentId, next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String pickOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return mixNames[i];
+            }
+        }
+        return mixNames[0];
+    }
+
+    /**
+     * Latencies and errors of one stage, per operation.
+     */
+    public static class StageResult {
+        private final int threads;
+        private final double targetRate;
+        private final long durationMillis;
+        private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        private final Map<String, Map<String, LongAdder>> errors = new LinkedHashMap<>();
+        // Per operation, total latency and count for each second of the measurement
+        private final Map<String, AtomicLongArray> secondNanos = new LinkedHashMap<>();
+        private final Map<String, AtomicLongArray> secondCounts = new LinkedHashMap<>();
+
+        StageResult(int threads, double targetRate, long durationMillis, String[] operations) {
+            this.threads = threads;
+            this.targetRate = targetRate;
+            this.durationMillis = durationMillis;
+            int seconds = (int) Math.max(1, (durationMillis + 999) / 1000);
+            for (String operation : operations) {
+                latencies.put(operation, new LatencyHistogram());
+                errors.put(operation, new ConcurrentHashMap<>());
+                secondNanos.put(operation, new AtomicLongArray(seconds));
+                secondCounts.put(operation, new AtomicLongArray(seconds));
+            }
+        }
+
+        void record(String operation, long nanos, Exception failure, int second) {
+            latencies.get(operation).record(nanos);
+            AtomicLongArray counts = secondCounts.get(operation);
+            if (second < counts.length()) {
+                secondNanos.get(operation).addAndGet(second, nanos);
+                counts.incrementAndGet(second);
+            }
+            if (failure != null) {
+                errors.get(operation).computeIfAbsent(failure.getClass().getSimpleName(), k -> new LongAdder())
+                        .increment();
+            }
+        }
+
+        public long getOperations() {
+            long total = 0;
+            for (LatencyHistogram histogram : latencies.values()) {
+                total += histogram.getCount();
+            }
+            return total;
+        }
+
+        public long getErrors() {
+            long total = 0;
+            for (Map<String, LongAdder> byType : errors.values()) {
+                for (LongAdder count : byType.values()) {
+                    total += count.sum();
+                }
+            }
+            return total;
+        }
+
+        public double getThroughput() {
+            return getOperations() * 1000.0 / durationMillis;
+        }
+
+        public LatencyHistogram getLatency(String operation) {
+            return latencies.get(operation);
+        }
+
+        /**
+         * Converts this stage to benchmark results: the mean latency of each
+         * operation (us/op) and the total throughput (ops/s), with one sample
+         * per second so ResultStore can test changes for significance.
+         */
+        public List<BenchmarkHarness.Result> toResults(int students) {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("threads", String.valueOf(threads));
+            params.put("rate", targetRate > 0 ? String.format(Locale.ROOT, "%.0f", targetRate) : "0");
+            params.put("students", String.valueOf(students));
+
+            List<BenchmarkHarness.Result> results = new ArrayList<>();
+            int seconds = (int) Math.max(1, durationMillis / 1000);
+            double[] throughput = new double[seconds];
+            for (Map.Entry<String, AtomicLongArray> entry : secondCounts.entrySet()) {
+                AtomicLongArray counts = entry.getValue();
+                AtomicLongArray nanos = secondNanos.get(entry.getKey());
+                double[] means = new double[seconds];
+                int samples = 0;
+                for (int s = 0; s < seconds; s++) {
+                    long count = counts.get(s);
+                    throughput[s] += count;
+                    if (count > 0) {
+                        means[samples++] = nanos.get(s) / 1000.0 / count;
+                    }
+                }
+                if (samples > 0) {
+                    results.add(new BenchmarkHarness.Result(NAME_PREFIX + entry.getKey(), params,
+                            Arrays.copyOf(means, samples), latencies.get(entry.getKey()).getCount()));
+                }
+            }
+            results.add(new BenchmarkHarness.Result(NAME_PREFIX + "throughput", params, throughput,
+                    getOperations(), "thrpt", "ops/s"));
+            return results;
+        }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "== %d threads, target %s: %,.0f ops/s, %,d errors%n", threads,
+                    targetRate > 0 ? String.format(Locale.ROOT, "%,.0f ops/s", targetRate) : "unlimited",
+                    getThroughput(), getErrors()));
+            sb.append(String.format(Locale.ROOT, "%-12s %10s %10s %10s %10s %10s %10s %10s %8s%n",
+                    "Operation", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+            for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+                LatencyHistogram h = entry.getValue();
+                long errorCount = 0;
+                for (LongAdder count : errors.get(entry.getKey()).values()) {
+                    errorCount += count.sum();
+                }
+                sb.append(String.format(Locale.ROOT, "%-12s %10.1f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                        entry.getKey(), h.getCount() * 1000.0 / durationMillis, h.getMeanNanos() / 1e6,
+                        h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(95) / 1e6,
+                        h.getValueAtPercentile(99) / 1e6, h.getValueAtPercentile(99.9) / 1e6,
+                        h.getMaxNanos() / 1e6, errorCount));
+            }
+            for (Map.Entry<String, Map<String, LongAdder>> entry : errors.entrySet()) {
+                for (Map.Entry<String, LongAdder> error : entry.getValue().entrySet()) {
+                    sb.append(String.format("  %s: %,d x %s%n", entry.getKey(), error.getValue().sum(), error.getKey()));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> threadCounts = List.of(1, 8, 32, 128);
+        double rate = 0;
+        Map<String, Integer> mix = parseMix("lookup=70,attendance=15,payment=10,status=5");
+        long durationMillis = 10_000;
+        long warmupMillis = 3_000;
+        int students = 10_000;
+        String dbFile = null;
+        boolean allowWrites = false;
+        boolean printMetrics = false;
+        Path jsonFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--threads" -> {
+                    List<Integer> counts = new ArrayList<>();
+                    for (String part : value.split(",")) {
+                        counts.add(Integer.parseInt(part.trim()));
+                    }
+                    threadCounts = counts;
+                }
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--mix" -> mix = parseMix(value);
+                case "--duration" -> durationMillis = Long.parseLong(value) * 1000;
+                case "--warmup" -> warmupMillis = Long.parseLong(value) * 1000;
+                case "--students" -> students = Integer.parseInt(value);
+                case "--db" -> dbFile = value;
+                case "--json" -> jsonFile = Path.of(value);
+                case "--allow-writes" -> {
+                    allowWrites = true;
+                    i--;
+                }
+                case "--metrics" -> {
+                    printMetrics = true;
+                    i--;
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        // The database the stages write to, deleted afterwards unless it is the user's own file
+        Path scratch = null;
+        boolean generate = dbFile == null;
+        if (generate) {
+            scratch = Files.createTempFile("student-app-load", ".db");
+            dbFile = scratch.toString();
+        } else if (!allowWrites) {
+            scratch = copyDatabase(Path.of(dbFile));
+            System.out.println("# Working on a copy of " + dbFile + " (--allow-writes to use it directly)");
+            dbFile = scratch.toString();
+        }
+        System.setProperty(DatabaseConnection.DB_URL_PROPERTY, "jdbc:sqlite:" + dbFile);
+        try {
+            if (generate) {
+                DatasetGenerator generator = new DatasetGenerator(RANDOM_SEED);
+                generator.setStudents(students);
+                generator.setAttendanceDaysPerStudent(20);
+                generator.setPaymentsPerStudent(2);
+                // Schema first, then seed through a bulk connection that skips the change log
+                DatabaseConnection.getInstance();
+                generator.setFirstStudentNumber(StudentIdGenerator.reserveNumbers(students));
+                try (Connection bulk = DatasetGenerator.openBulkConnection(DatabaseConnection.getDatabaseUrl())) {
+                    System.out.println("# Generated " + generator.generate(bulk));
+                }
+            }
+
+            List<Student> allStudents = StudentManagementFacade.getInstance().getAllStudents();
+            LoadHarness harness = new LoadHarness(allStudents, mix);
+            System.out.printf("# %,d students, mix %s%n", allStudents.size(), mix);
+
+            List<BenchmarkHarness.Result> results = new ArrayList<>();
+            PrintStream out = System.out;
+            for (int threads : threadCounts) {
+                MetricsRegistry.getInstance().reset();
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                StageResult result;
+                try {
+                    result = harness.runStage(threads, rate, warmupMillis, durationMillis);
+                } finally {
+                    System.setOut(out);
+                }
+                System.out.println(result.report());
+                results.addAll(result.toResults(allStudents.size()));
+                if (printMetrics) {
+                    System.out.println(MetricsRegistry.getInstance().dump());
+                }
+            }
+            if (jsonFile != null) {
+                BenchmarkHarness.writeJson(jsonFile, results, (int) (warmupMillis / 1000),
+                        (int) (durationMillis / 1000), 1000);
+                System.out.println("# Results written to " + jsonFile.toAbsolutePath());
+            }
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+            if (scratch != null) {
+                Files.deleteIfExists(scratch);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Copies a database to a new temporary file with VACUUM INTO, which reads
+     * a consistent snapshot even if another process is writing to it.
+     */
+    private static Path copyDatabase(Path source) throws IOException, SQLException {
+        if (!Files.isRegularFile(source)) {
+            throw new IllegalArgumentException("No such database: " + source);
+        }
+        Path copy = Files.createTempFile("student-app-load", ".db");
+        // VACUUM INTO refuses to overwrite an existing file
+        Files.delete(copy);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + source);
+             PreparedStatement stmt = connection.prepareStatement("VACUUM INTO ?")) {
+            stmt.setString(1, copy.toString());
+            stmt.execute();
+        } catch (SQLException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+        return copy;
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=weight in --mix: " + part);
+            }
+            mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,149 @@
+package benchmark;
+
+import model.Student;
+import view.StudentRowRenderer;
+import view.StudentTableModel;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paint-time benchmark for the student table renderer.
+ * Scrolls a 50,000-row table from top to bottom one viewport at a time,
+ * painting each viewport into an off-screen image, and reports the time and
+ * heap allocation per frame. The old inline renderer (getValueAt + new Color
+ * per cell) is measured alongside the shared StudentRowRenderer.
+ *
+ * Runs headless; no database is needed.
+ * Usage: java -cp "out:lib/*" benchmark.RendererPaintBenchmark [rows]
+ */
+public class RendererPaintBenchmark {
+
+    private static final int DEFAULT_ROWS = 50_000;
+    private static final int ROW_HEIGHT = 25;
+    private static final int VIEW_WIDTH = 800;
+    private static final int VIEW_HEIGHT = 400;
+    private static final int WARMUP_PASSES = 2;
+    private static final String[] STATUSES = {"ENROLLED", "SUSPENDED", "GRADUATED"};
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+
+        StudentTableModel model = new StudentTableModel();
+        model.setRecords(createStudents(rows));
+
+        System.out.println("Renderer paint benchmark: " + rows + " rows, "
+                + VIEW_WIDTH + "x" + VIEW_HEIGHT + " viewport");
+        System.out.println(String.format("%-10s %8s %12s %14s %14s",
+                "renderer", "frames", "avg ms/frame", "max ms/frame", "bytes/frame"));
+
+        run("legacy", model, new LegacyStatusRenderer());
+        run("shared", model, new StudentRowRenderer(model));
+    }
+
+    private static void run(String name, StudentTableModel model, TableCellRenderer renderer) {
+        JTable table = new JTable(model);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setDefaultRenderer(Object.class, renderer);
+        table.setSize(VIEW_WIDTH, model.getRowCount() * ROW_HEIGHT);
+        table.doLayout();
+
+        BufferedImage image = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            scroll(table, image, null);
+        }
+
+        long[] frameNanos = new long[table.getHeight() / VIEW_HEIGHT + 1];
+        long bytesBefore = allocatedBytes();
+        int frames = scroll(table, image, frameNanos);
+        long bytes = allocatedBytes() - bytesBefore;
+
+        long total = 0;
+        long max = 0;
+        for (int i = 0; i < frames; i++) {
+            total += frameNanos[i];
+            max = Math.max(max, frameNanos[i]);
+        }
+        System.out.println(String.format("%-10s %8d %12.3f %14.3f %14s",
+                name, frames, total / 1e6 / frames, max / 1e6,
+                bytes < 0 ? "n/a" : String.valueOf(bytes / frames)));
+    }
+
+    /**
+     * Paints the table one viewport at a time, top to bottom.
+     *
+     * @return Number of frames painted
+     */
+    private static int scroll(JTable table, BufferedImage image, long[] frameNanos) {
+        int frames = 0;
+        for (int y = 0; y < table.getHeight(); y += VIEW_HEIGHT) {
+            Graphics2D g = image.createGraphics();
+            long start = System.nanoTime();
+            g.translate(0, -y);
+            g.setClip(0, y, VIEW_WIDTH, VIEW_HEIGHT);
+            table.paint(g);
+            long elapsed = System.nanoTime() - start;
+            g.dispose();
+            if (frameNanos != null) {
+                frameNanos[frames] = elapsed;
+            }
+            frames++;
+        }
+        return frames;
+    }
+
+    private static List<Student> createStudents(int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            students.add(new Student("Student " + i, 18 + i % 30, String.format("STU%03d", i),
+                    "Course " + (i % 12), "student" + i + "@example.com", STATUSES[i % STATUSES.length]));
+        }
+        return students;
+    }
+
+    /**
+     * Bytes allocated by this thread so far, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The renderer StudentManagementPanel used before RecordRowRenderer:
+     * reads the status cell and allocates a Color for every painted cell.
+     */
+    private static class LegacyStatusRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected) {
+                String status = (String) table.getValueAt(row, StudentTableModel.COL_STATUS);
+                if ("ENROLLED".equals(status)) {
+                    c.setBackground(new Color(220, 255, 220));
+                } else if ("SUSPENDED".equals(status)) {
+                    c.setBackground(new Color(255, 255, 200));
+                } else if ("GRADUATED".equals(status)) {
+                    c.setBackground(new Color(240, 240, 240));
+                } else {
+                    c.setBackground(Color.WHITE);
+                }
+            }
+            return c;
+        }
+    }
+}
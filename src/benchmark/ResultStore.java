@@ -0,0 +1,557 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps benchmark results from many commits in one local file and compares
+ * two commits. Results come from the JSON that DaoBenchmark, FilterBenchmark,
+ * LoadHarness and the other benchmarks write with --json (or from JMH).
+ *
+ * Each result is stored under its commit, benchmark name and parameters,
+ * with the dataset size taken from the rows, size or students parameter.
+ * Ingesting the same benchmark again for a commit replaces the old result.
+ * The store is a tab-separated text file, one result per line, including
+ * the raw per-iteration scores.
+ *
+ * The report compares every benchmark the two commits share. A change is a
+ * regression when the candidate is worse (slower for average time, lower
+ * for throughput), Welch's t-test on the raw scores gives p below --alpha,
+ * and the change is at least --min-change percent. Results are grouped into
+ * DAO, facade and UI filtering benchmarks. The report exits with status 1
+ * when it finds a regression, so a script can fail on it.
+ *
+ * Usage: java -cp out benchmark.ResultStore command [options]
+ *   ingest results.json [--commit sha] [--size n]
+ *                          add results; commit defaults to git's HEAD, size is
+ *                          used when the results have no size parameter
+ *   list                   commits in the store, with result counts
+ *   report --baseline sha --candidate sha [--size n] [--alpha 0.01]
+ *          [--min-change 5] [--out report.md]
+ *                          compare two commits (a unique prefix is enough)
+ *   --store file.tsv       the store (default: benchmark-results.tsv), for every command
+ */
+public class ResultStore {
+
+    public static final String DEFAULT_FILE = "benchmark-results.tsv";
+
+    private static final String HEADER = "# commit\ttime\tbenchmark\tparams\tsize\tmode\tunit\tscore\trawData";
+    private static final String[] SIZE_PARAMS = {"rows", "size", "students"};
+    private static final String[] GROUPS = {"DAO", "Facade", "UI filtering", "Other"};
+
+    private final Path file;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Loads the store, or starts an empty one if the file does not exist.
+     */
+    public ResultStore(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    entries.add(Entry.parse(line));
+                }
+            }
+        }
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Adds the results in a JMH-style JSON file, replacing results of the
+     * same benchmark and parameters already stored for the commit.
+     *
+     * @param defaultSize Dataset size for results without a size parameter, or null
+     * @return Number of results added
+     */
+    public int ingest(Path json, String commit, String defaultSize) throws IOException {
+        Object document = JsonReader.parse(Files.readString(json, StandardCharsets.UTF_8));
+        if (!(document instanceof List<?> list)) {
+            throw new IllegalArgumentException(json + " does not hold a JSON array of results");
+        }
+        String time = LocalDateTime.now().withNano(0).toString();
+        int added = 0;
+        for (Object item : list) {
+            Entry entry = Entry.fromJson(item, commit, time, defaultSize);
+            entries.removeIf(e -> e.commit.equals(commit) && e.getKey().equals(entry.getKey()));
+            entries.add(entry);
+            added++;
+        }
+        return added;
+    }
+
+    public void save() throws IOException {
+        StringBuilder sb = new StringBuilder(HEADER).append(System.lineSeparator());
+        for (Entry entry : entries) {
+            sb.append(entry.format()).append(System.lineSeparator());
+        }
+        Files.writeString(file, sb, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Commits in the order they were first ingested, with their number of results
+     */
+    public Map<String, Integer> commits() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            counts.merge(entry.commit, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the stored commit a name or unique prefix refers to.
+     */
+    public String resolveCommit(String prefix) {
+        String match = null;
+        for (String commit : commits().keySet()) {
+            if (commit.equals(prefix)) {
+                return commit;
+            }
+            if (commit.startsWith(prefix)) {
+                if (match != null) {
+                    throw new IllegalArgumentException("Commit prefix " + prefix + " matches " + match + " and " + commit);
+                }
+                match = commit;
+            }
+        }
+        if (match == null) {
+            throw new IllegalArgumentException("No results stored for commit " + prefix);
+        }
+        return match;
+    }
+
+    /**
+     * Compares the results two commits share.
+     *
+     * @param size Only compare this dataset size, or null for all
+     */
+    public Comparison compare(String baseline, String candidate, String size, double alpha, double minChangePercent) {
+        Map<String, Entry> before = new LinkedHashMap<>();
+        Map<String, Entry> after = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            if (size != null && !size.equals(entry.size)) {
+                continue;
+            }
+            if (entry.commit.equals(baseline)) {
+                before.put(entry.getKey(), entry);
+            } else if (entry.commit.equals(candidate)) {
+                after.put(entry.getKey(), entry);
+            }
+        }
+
+        Comparison comparison = new Comparison(baseline, candidate, alpha, minChangePercent);
+        // Sorted by benchmark name, so each group lists related benchmarks together
+        Map<String, Entry> sorted = new TreeMap<>(before);
+        for (Map.Entry<String, Entry> pair : sorted.entrySet()) {
+            Entry candidateEntry = after.get(pair.getKey());
+            if (candidateEntry == null) {
+                comparison.onlyInBaseline++;
+            } else {
+                comparison.rows.add(new Row(pair.getValue(), candidateEntry, alpha, minChangePercent));
+            }
+        }
+        for (String key : after.keySet()) {
+            if (!before.containsKey(key)) {
+                comparison.onlyInCandidate++;
+            }
+        }
+        return comparison;
+    }
+
+    /**
+     * The group a benchmark is reported in.
+     */
+    static String group(String benchmark) {
+        String name = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        if (benchmark.startsWith(DaoBenchmark.class.getName() + ".")) {
+            return name.startsWith("facade") ? "Facade" : "DAO";
+        }
+        if (benchmark.startsWith(LoadHarness.class.getName() + ".")) {
+            return "Facade";
+        }
+        if (benchmark.startsWith(FilterBenchmark.class.getName() + ".")) {
+            return "UI filtering";
+        }
+        return "Other";
+    }
+
+    /**
+     * One stored benchmark result.
+     */
+    public static class Entry {
+        private final String commit;
+        private final String time;
+        private final String benchmark;
+        private final String params;
+        private final String size;
+        private final String mode;
+        private final String unit;
+        private final double score;
+        private final double[] rawData;
+
+        Entry(String commit, String time, String benchmark, String params, String size, String mode, String unit,
+              double score, double[] rawData) {
+            this.commit = commit;
+            this.time = time;
+            this.benchmark = benchmark;
+            this.params = params;
+            this.size = size;
+            this.mode = mode;
+            this.unit = unit;
+            this.score = score;
+            this.rawData = rawData;
+        }
+
+        /**
+         * Reads one element of a JMH-style result array.
+         */
+        static Entry fromJson(Object item, String commit, String time, String defaultSize) {
+            if (!(item instanceof Map<?, ?> result)) {
+                throw new IllegalArgumentException("Expected a JSON object for each result");
+            }
+            String benchmark = String.valueOf(result.get("benchmark"));
+            Object mode = result.get("mode");
+
+            Map<String, String> params = new TreeMap<>();
+            if (result.get("params") instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> param : map.entrySet()) {
+                    params.put(String.valueOf(param.getKey()), String.valueOf(param.getValue()));
+                }
+            }
+            String size = defaultSize != null ? defaultSize : "-";
+            for (String name : SIZE_PARAMS) {
+                if (params.containsKey(name)) {
+                    size = params.get(name);
+                    break;
+                }
+            }
+
+            if (!(result.get("primaryMetric") instanceof Map<?, ?> metric)) {
+                throw new IllegalArgumentException("No primaryMetric for " + benchmark);
+            }
+            List<Double> raw = new ArrayList<>();
+            if (metric.get("rawData") instanceof List<?> forks) {
+                for (Object fork : forks) {
+                    if (fork instanceof List<?> scores) {
+                        for (Object score : scores) {
+                            raw.add(toDouble(score));
+                        }
+                    }
+                }
+            }
+            double[] rawData = new double[raw.size()];
+            for (int i = 0; i < rawData.length; i++) {
+                rawData[i] = raw.get(i);
+            }
+            double score = toDouble(metric.get("score"));
+
+            StringBuilder paramText = new StringBuilder();
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                paramText.append(paramText.length() > 0 ? "," : "").append(param.getKey()).append('=')
+                        .append(param.getValue());
+            }
+            return new Entry(commit, time, benchmark, paramText.length() > 0 ? paramText.toString() : "-",
+                    size, mode != null ? String.valueOf(mode) : "avgt", String.valueOf(metric.get("scoreUnit")),
+                    score, rawData);
+        }
+
+        static Entry parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 9) {
+                throw new IllegalArgumentException("Expected 9 tab-separated fields: " + line);
+            }
+            String[] parts = fields[8].isEmpty() ? new String[0] : fields[8].split(",");
+            double[] rawData = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                rawData[i] = Double.parseDouble(parts[i]);
+            }
+            return new Entry(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                    Double.parseDouble(fields[7]), rawData);
+        }
+
+        String format() {
+            StringBuilder raw = new StringBuilder();
+            for (int i = 0; i < rawData.length; i++) {
+                raw.append(i > 0 ? "," : "").append(rawData[i]);
+            }
+            return String.join("\t", commit, time, benchmark, params, size, mode, unit, String.valueOf(score),
+                    raw);
+        }
+
+        /**
+         * @return Benchmark, parameters and dataset size, which identify a result within a commit
+         */
+        String getKey() {
+            return benchmark + " " + params + " size=" + size;
+        }
+
+        public String getCommit() {
+            return commit;
+        }
+
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public String getParams() {
+            return params;
+        }
+
+        public String getSize() {
+            return size;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return Whether a higher score is better (throughput modes)
+         */
+        public boolean isHigherBetter() {
+            return mode.equals("thrpt") || unit.endsWith("/s");
+        }
+
+        private static double toDouble(Object value) {
+            if (value instanceof Double number) {
+                return number;
+            }
+            // Undefined scores are written as the string "NaN"
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * One benchmark compared between the two commits.
+     */
+    public static class Row {
+        private final Entry baseline;
+        private final Entry candidate;
+        private final double changePercent;
+        private final double pValue;
+        private final String verdict;
+
+        Row(Entry baseline, Entry candidate, double alpha, double minChangePercent) {
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.changePercent = (candidate.score - baseline.score) / baseline.score * 100;
+            this.pValue = Statistics.welchTTest(baseline.rawData, candidate.rawData);
+            boolean worse = baseline.isHigherBetter() ? changePercent < 0 : changePercent > 0;
+            boolean significant = pValue < alpha && Math.abs(changePercent) >= minChangePercent;
+            if (Double.isNaN(pValue)) {
+                verdict = "too few samples";
+            } else if (!significant) {
+                verdict = "";
+            } else {
+                verdict = worse ? "REGRESSION" : "improved";
+            }
+        }
+
+        public boolean isRegression() {
+            return verdict.equals("REGRESSION");
+        }
+
+        public boolean isImprovement() {
+            return verdict.equals("improved");
+        }
+
+        String toMarkdown() {
+            String p = Double.isNaN(pValue) ? "-"
+                    : pValue < 0.0001 ? "<0.0001" : String.format(Locale.ROOT, "%.4f", pValue);
+            String name = baseline.benchmark.substring(baseline.benchmark.lastIndexOf('.') + 1);
+            String benchmarkClass = baseline.benchmark.substring(0, Math.max(0, baseline.benchmark.lastIndexOf('.')));
+            String shortClass = benchmarkClass.substring(benchmarkClass.lastIndexOf('.') + 1);
+            return String.format(Locale.ROOT, "| %s.%s | %s | %s | %.3f | %.3f | %s | %+.1f%% | %s | %s |",
+                    shortClass, name, baseline.params, baseline.size, baseline.score, candidate.score, baseline.unit,
+                    changePercent, p, isRegression() ? "**REGRESSION**" : verdict);
+        }
+    }
+
+    /**
+     * The rows of a comparison and the benchmarks only one commit has.
+     */
+    public static class Comparison {
+        private final String baseline;
+        private final String candidate;
+        private final double alpha;
+        private final double minChangePercent;
+        private final List<Row> rows = new ArrayList<>();
+        private int onlyInBaseline;
+        private int onlyInCandidate;
+
+        Comparison(String baseline, String candidate, double alpha, double minChangePercent) {
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.alpha = alpha;
+            this.minChangePercent = minChangePercent;
+        }
+
+        public List<Row> getRows() {
+            return rows;
+        }
+
+        public int getRegressions() {
+            int count = 0;
+            for (Row row : rows) {
+                if (row.isRegression()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public int getImprovements() {
+            int count = 0;
+            for (Row row : rows) {
+                if (row.isImprovement()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @return Markdown report with one table per group
+         */
+        public String toMarkdown() {
+            String nl = System.lineSeparator();
+            StringBuilder sb = new StringBuilder("# Benchmark comparison").append(nl).append(nl);
+            sb.append("- Baseline: ").append(baseline).append(nl);
+            sb.append("- Candidate: ").append(candidate).append(nl);
+            sb.append(String.format(Locale.ROOT, "- Regression: worse by at least %.1f%% with p < %s (Welch's t-test)%n",
+                    minChangePercent, alpha));
+            sb.append(String.format("- %d compared: %d regressions, %d improvements%n", rows.size(),
+                    getRegressions(), getImprovements()));
+            if (onlyInBaseline > 0 || onlyInCandidate > 0) {
+                sb.append(String.format("- Not compared: %d only in the baseline, %d only in the candidate%n",
+                        onlyInBaseline, onlyInCandidate));
+            }
+            for (String group : GROUPS) {
+                List<Row> groupRows = new ArrayList<>();
+                for (Row row : rows) {
+                    if (group(row.baseline.benchmark).equals(group)) {
+                        groupRows.add(row);
+                    }
+                }
+                if (groupRows.isEmpty()) {
+                    continue;
+                }
+                sb.append(nl).append("## ").append(group).append(nl).append(nl);
+                sb.append("| Benchmark | Params | Size | Baseline | Candidate | Unit | Change | p | Result |").append(nl);
+                sb.append("|-----------|--------|-----:|---------:|----------:|------|-------:|--:|--------|").append(nl);
+                for (Row row : groupRows) {
+                    sb.append(row.toMarkdown()).append(nl);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Expected a command: ingest, list or report");
+        }
+        String command = args[0];
+        Path storeFile = Paths.get(DEFAULT_FILE);
+        Path json = null;
+        String commit = null;
+        String size = null;
+        String baseline = null;
+        String candidate = null;
+        double alpha = 0.01;
+        double minChange = 5;
+        Path out = null;
+
+        int start = 1;
+        if (command.equals("ingest")) {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Expected the JSON file to ingest");
+            }
+            json = Paths.get(args[1]);
+            start = 2;
+        }
+        for (int i = start; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--store" -> storeFile = Paths.get(value);
+                case "--commit" -> commit = value;
+                case "--size" -> size = value;
+                case "--baseline" -> baseline = value;
+                case "--candidate" -> candidate = value;
+                case "--alpha" -> alpha = Double.parseDouble(value);
+                case "--min-change" -> minChange = Double.parseDouble(value);
+                case "--out" -> out = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        ResultStore store = new ResultStore(storeFile);
+        switch (command) {
+            case "ingest" -> {
+                if (commit == null) {
+                    commit = currentCommit();
+                }
+                int added = store.ingest(json, commit, size);
+                store.save();
+                System.out.printf("Stored %d results for %s in %s%n", added, commit, storeFile);
+            }
+            case "list" -> {
+                for (Map.Entry<String, Integer> entry : store.commits().entrySet()) {
+                    System.out.printf("%-40s %5d results%n", entry.getKey(), entry.getValue());
+                }
+            }
+            case "report" -> {
+                if (baseline == null || candidate == null) {
+                    throw new IllegalArgumentException("report needs --baseline and --candidate");
+                }
+                Comparison comparison = store.compare(store.resolveCommit(baseline), store.resolveCommit(candidate),
+                        size, alpha, minChange);
+                String report = comparison.toMarkdown();
+                if (out != null) {
+                    Files.writeString(out, report, StandardCharsets.UTF_8);
+                    System.out.println("Report written to " + out);
+                } else {
+                    System.out.print(report);
+                }
+                if (comparison.getRegressions() > 0) {
+                    System.err.println(comparison.getRegressions() + " regressions found");
+                    System.exit(1);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    /**
+     * @return The commit checked out in the working directory, or "unknown" outside a git repository
+     */
+    private static String currentCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "HEAD").redirectErrorStream(true).start();
+            String output = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (git.waitFor() == 0 && !output.isEmpty()) {
+                return output;
+            }
+        } catch (IOException e) {
+            // git is not installed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,206 @@
+package benchmark;
+
+import model.Student;
+import strategy.SortStrategy;
+import strategy.StudentSortContext;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Benchmarks for the sort strategies, each against alternative ways of
+ * producing the same order. For every field (name, age, course, student_id)
+ * and list size it measures:
+ *   current         the SortStrategy from StudentSortContext (stream().sorted())
+ *   listSort        copy into an ArrayList and List.sort with the same comparator
+ *   parallelSort    copy into an array and Arrays.parallelSort
+ *   primitiveKeyed  pack (key, index) into a long[] and sort the primitives;
+ *                   strings are replaced by their rank among the distinct values
+ *
+ * All four are stable, and each is checked to give exactly the order of the
+ * current strategy before it is measured. Students come from
+ * DatasetGenerator, shuffled with a fixed seed (the generator creates them
+ * in ID order). No database is needed.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.SortBenchmark [options]
+ *   --fields name,age,course,student_id  fields to sort by (default: all four)
+ *   --sizes 1000,10000,100000,1000000    list sizes (default: all four)
+ *   --warmup 3 --iterations 5            warmup and measured iterations per benchmark
+ *   --time 1000                          milliseconds per iteration
+ *   --json results.json                  also write JMH-style JSON results
+ *   --report report.md                   also write a Markdown comparison
+ */
+public class SortBenchmark {
+
+    private static final String NAME_PREFIX = SortBenchmark.class.getName() + ".";
+    private static final long RANDOM_SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        List<String> fields = List.of("name", "age", "course", "student_id");
+        List<Integer> sizes = List.of(1_000, 10_000, 100_000, 1_000_000);
+        int warmup = 3;
+        int iterations = 5;
+        long timeMillis = 1000;
+        Path json = null;
+        Path report = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--fields" -> fields = List.of(value.split(","));
+                case "--sizes" -> sizes = parseInts(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--iterations" -> iterations = Integer.parseInt(value);
+                case "--time" -> timeMillis = Long.parseLong(value);
+                case "--json" -> json = Paths.get(value);
+                case "--report" -> report = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, timeMillis);
+        System.out.println(BenchmarkHarness.tableHeader());
+        for (int size : sizes) {
+            List<Student> students = createStudents(size);
+            for (String field : fields) {
+                runField(harness, students, field);
+            }
+        }
+        if (json != null) {
+            harness.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+        if (report != null) {
+            harness.writeReport(report, "Sort strategy benchmark", "current");
+            System.out.println("Report written to " + report);
+        }
+    }
+
+    private static void runField(BenchmarkHarness harness, List<Student> students, String field) throws Exception {
+        SortStrategy strategy = StudentSortContext.getStrategyByName(field);
+        if (!strategy.getSortField().equals(field)) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        Comparator<Student> comparator = comparator(field);
+
+        List<Student> expected = strategy.sort(students);
+        check("listSort", expected, listSort(students, comparator));
+        check("parallelSort", expected, parallelSort(students, comparator));
+        check("primitiveKeyed", expected, primitiveKeyed(students, field));
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("field", field);
+        params.put("size", String.valueOf(students.size()));
+
+        harness.run(NAME_PREFIX + "current", params, () -> BenchmarkHarness.consume(strategy.sort(students)));
+        harness.run(NAME_PREFIX + "listSort", params,
+                () -> BenchmarkHarness.consume(listSort(students, comparator)));
+        harness.run(NAME_PREFIX + "parallelSort", params,
+                () -> BenchmarkHarness.consume(parallelSort(students, comparator)));
+        harness.run(NAME_PREFIX + "primitiveKeyed", params,
+                () -> BenchmarkHarness.consume(primitiveKeyed(students, field)));
+    }
+
+    static List<Student> listSort(List<Student> students, Comparator<Student> comparator) {
+        List<Student> sorted = new ArrayList<>(students);
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    static List<Student> parallelSort(List<Student> students, Comparator<Student> comparator) {
+        Student[] array = students.toArray(new Student[0]);
+        Arrays.parallelSort(array, comparator);
+        return Arrays.asList(array);
+    }
+
+    /**
+     * Sorts by a primitive key: each student becomes key << 32 | index, so one
+     * Arrays.sort(long[]) orders by key and, for equal keys, by original
+     * position (keeping the sort stable). String fields are keyed by the
+     * rank of the value among the distinct values, which costs a hash lookup
+     * per student plus a sort of the distinct values.
+     */
+    static List<Student> primitiveKeyed(List<Student> students, String field) {
+        int n = students.size();
+        long[] keys = new long[n];
+        if (field.equals("age")) {
+            for (int i = 0; i < n; i++) {
+                keys[i] = (long) students.get(i).getAge() << 32 | i;
+            }
+        } else {
+            Function<Student, String> getter = stringGetter(field);
+            Map<String, Integer> ranks = new HashMap<>();
+            for (Student student : students) {
+                ranks.putIfAbsent(getter.apply(student), 0);
+            }
+            String[] distinct = ranks.keySet().toArray(new String[0]);
+            Arrays.sort(distinct);
+            for (int r = 0; r < distinct.length; r++) {
+                ranks.put(distinct[r], r);
+            }
+            for (int i = 0; i < n; i++) {
+                keys[i] = (long) ranks.get(getter.apply(students.get(i))) << 32 | i;
+            }
+        }
+        Arrays.sort(keys);
+        List<Student> sorted = new ArrayList<>(n);
+        for (long key : keys) {
+            sorted.add(students.get((int) key));
+        }
+        return sorted;
+    }
+
+    /**
+     * The comparator the strategy for a field uses.
+     */
+    private static Comparator<Student> comparator(String field) {
+        if (field.equals("age")) {
+            return Comparator.comparingInt(Student::getAge);
+        }
+        return Comparator.comparing(stringGetter(field));
+    }
+
+    private static Function<Student, String> stringGetter(String field) {
+        return switch (field) {
+            case "name" -> Student::getName;
+            case "course" -> Student::getCourse;
+            case "student_id" -> Student::getStudentId;
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+    }
+
+    private static void check(String name, List<Student> expected, List<Student> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) {
+                throw new IllegalStateException(name + " differs from the current strategy at index " + i);
+            }
+        }
+    }
+
+    private static List<Student> createStudents(int count) {
+        DatasetGenerator generator = new DatasetGenerator(RANDOM_SEED);
+        generator.setStudents(count);
+        List<Student> students = generator.generateStudents();
+        Collections.shuffle(students, new Random(RANDOM_SEED));
+        return students;
+    }
+
+    private static List<Integer> parseInts(String csv) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : csv.split(",")) {
+            values.add(Integer.parseInt(part.trim()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,177 @@
+package benchmark;
+
+/**
+ * Summary statistics and Student's t distribution for benchmark results.
+ * Only what the benchmarks need: mean, sample standard deviation, and the
+ * t distribution for confidence intervals and significance tests (Welch's
+ * t-test when comparing results across commits).
+ */
+public final class Statistics {
+
+    private static final int MAX_FRACTION_TERMS = 300;
+    private static final double EPSILON = 1e-14;
+    private static final double TINY = 1e-300;
+
+    private Statistics() {
+    }
+
+    public static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? Double.NaN : sum / values.length;
+    }
+
+    /**
+     * Sample variance (n - 1 denominator); 0 for fewer than two values.
+     */
+    public static double variance(double[] values) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    public static double stdDev(double[] values) {
+        return Math.sqrt(variance(values));
+    }
+
+    /**
+     * Half-width of the confidence interval of the mean, as JMH reports it
+     * (e.g. confidence 0.999 gives the 99.9% interval). NaN for fewer than two values.
+     */
+    public static double confidenceError(double[] values, double confidence) {
+        if (values.length < 2) {
+            return Double.NaN;
+        }
+        double t = tQuantile(1 - (1 - confidence) / 2, values.length - 1);
+        return t * stdDev(values) / Math.sqrt(values.length);
+    }
+
+    /**
+     * Welch's t-test for a difference between the means of two samples that
+     * may have different variances.
+     *
+     * @return Two-sided p-value; NaN if either sample has fewer than two
+     *         values, 0 or 1 if both samples have no variance
+     */
+    public static double welchTTest(double[] a, double[] b) {
+        if (a.length < 2 || b.length < 2) {
+            return Double.NaN;
+        }
+        double varianceA = variance(a) / a.length;
+        double varianceB = variance(b) / b.length;
+        double standardError = Math.sqrt(varianceA + varianceB);
+        double difference = mean(b) - mean(a);
+        if (standardError == 0) {
+            return difference == 0 ? 1 : 0;
+        }
+        double t = difference / standardError;
+        // Welch-Satterthwaite degrees of freedom
+        double degreesOfFreedom = (varianceA + varianceB) * (varianceA + varianceB)
+                / (varianceA * varianceA / (a.length - 1) + varianceB * varianceB / (b.length - 1));
+        return 2 * tCdf(-Math.abs(t), degreesOfFreedom);
+    }
+
+    /**
+     * Cumulative distribution function of Student's t distribution.
+     */
+    public static double tCdf(double t, double degreesOfFreedom) {
+        if (Double.isInfinite(t)) {
+            return t > 0 ? 1 : 0;
+        }
+        double x = degreesOfFreedom / (degreesOfFreedom + t * t);
+        double tail = 0.5 * regularizedBeta(x, degreesOfFreedom / 2, 0.5);
+        return t > 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * Inverse of tCdf, found by bisection.
+     */
+    public static double tQuantile(double p, double degreesOfFreedom) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("p must be in (0, 1): " + p);
+        }
+        double low = -1e6;
+        double high = 1e6;
+        for (int i = 0; i < 200 && high - low > 1e-10; i++) {
+            double middle = (low + high) / 2;
+            if (tCdf(middle, degreesOfFreedom) < p) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Regularized incomplete beta function I_x(a, b), by continued fraction.
+     */
+    static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        if (x > (a + 1) / (a + b + 2)) {
+            return 1 - regularizedBeta(1 - x, b, a);
+        }
+        double logFront = logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x);
+        return Math.exp(logFront) * betaFraction(x, a, b) / a;
+    }
+
+    private static double betaFraction(double x, double a, double b) {
+        // Modified Lentz's method
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < TINY ? TINY : d);
+        double result = d;
+        for (int m = 1; m <= MAX_FRACTION_TERMS; m++) {
+            int m2 = 2 * m;
+            double even = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + even * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + even / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            result *= d * c;
+
+            double odd = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + odd * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + odd / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Natural log of the gamma function (Lanczos approximation).
+     */
+    static double logGamma(double x) {
+        double[] coefficients = {
+            76.18009172947146, -86.50532032941677, 24.01409824083091,
+            -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5
+        };
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
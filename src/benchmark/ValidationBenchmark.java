@@ -0,0 +1,250 @@
+package benchmark;
+
+import chain.EmailValidationHandler;
+import chain.ValidationChainBuilder;
+import chain.ValidationHandler;
+import exceptions.InvalidInputException;
+import model.Student;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks for the validation chains, one operation being one form
+ * submission or imported row. Inputs cycle through 1,024 rows made from
+ * DatasetGenerator students, so the chains see varied values.
+ *
+ * For the student, payment and attendance chains it measures:
+ *   current      build the chain and validate every field, as the panels do
+ *   reusedChain  validate with a chain built once up front
+ * with valid rows, and with rows that have one invalid field, where the
+ * cost includes creating the InvalidInputException.
+ *
+ * For EmailValidationHandler's regex alone it measures:
+ *   current      EmailValidationHandler.validate on one address
+ *   handWritten  a character scan accepting exactly the same addresses
+ * with generated addresses, and with long domains that have many dots but no
+ * valid top-level domain, which make the regex backtrack.
+ *
+ * No database is needed.
+ *
+ * Usage: java -cp "out:lib/*" benchmark.ValidationBenchmark [options]
+ *   --warmup 3 --iterations 5  warmup and measured iterations per benchmark
+ *   --time 1000                milliseconds per iteration
+ *   --json results.json        also write JMH-style JSON results
+ *   --report report.md         also write a Markdown comparison
+ */
+public class ValidationBenchmark {
+
+    private static final String NAME_PREFIX = ValidationBenchmark.class.getName() + ".";
+    private static final long RANDOM_SEED = 42;
+    private static final int ROWS = 1024;
+    private static final int PATHOLOGICAL_DOMAIN_LABELS = 200;
+
+    @FunctionalInterface
+    private interface Validation {
+        void validate(ValidationHandler chain, String[] row) throws InvalidInputException;
+    }
+
+    @FunctionalInterface
+    private interface ChainFactory {
+        ValidationHandler build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int warmup = 3;
+        int iterations = 5;
+        long timeMillis = 1000;
+        Path json = null;
+        Path report = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--iterations" -> iterations = Integer.parseInt(value);
+                case "--time" -> timeMillis = Long.parseLong(value);
+                case "--json" -> json = Paths.get(value);
+                case "--report" -> report = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        DatasetGenerator generator = new DatasetGenerator(RANDOM_SEED);
+        generator.setStudents(ROWS);
+        List<Student> students = generator.generateStudents();
+
+        String[][] studentRows = new String[ROWS][];
+        String[][] badStudentRows = new String[ROWS][];
+        String[][] paymentRows = new String[ROWS][];
+        String[][] badPaymentRows = new String[ROWS][];
+        String[][] attendanceRows = new String[ROWS][];
+        String[][] badAttendanceRows = new String[ROWS][];
+        String[][] emails = new String[ROWS][];
+        String[][] pathologicalEmails = new String[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            Student s = students.get(i);
+            String age = String.valueOf(s.getAge());
+            String amount = String.valueOf(100 + i % 900) + ".50";
+            studentRows[i] = new String[] {s.getName(), age, s.getCourse(), s.getEmail()};
+            badStudentRows[i] = new String[] {s.getName(), age, s.getCourse(), s.getEmail().replace('@', '_')};
+            paymentRows[i] = new String[] {s.getStudentId(), amount, "2024-10-01"};
+            badPaymentRows[i] = new String[] {s.getStudentId(), "-" + amount, "2024-10-01"};
+            attendanceRows[i] = new String[] {s.getStudentId(), "2024-10-01", i % 10 == 0 ? "ABSENT" : "PRESENT"};
+            badAttendanceRows[i] = new String[] {s.getStudentId(), "2024-10-01", "LATE"};
+            emails[i] = new String[] {s.getEmail()};
+            pathologicalEmails[i] = new String[] {pathologicalEmail(s.getEmail(), i)};
+        }
+
+        Validation student = (chain, row) -> {
+            chain.validate("name", row[0]);
+            chain.validate("age", row[1]);
+            chain.validate("course", row[2]);
+            chain.validate("email", row[3]);
+        };
+        Validation payment = (chain, row) -> {
+            chain.validate("studentId", row[0]);
+            chain.validate("amount", row[1]);
+            chain.validate("date", row[2]);
+        };
+        Validation attendance = (chain, row) -> {
+            chain.validate("studentId", row[0]);
+            chain.validate("date", row[1]);
+            chain.validate("status", row[2]);
+        };
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, timeMillis);
+        System.out.println(BenchmarkHarness.tableHeader());
+        runChain(harness, "student", "valid", ValidationChainBuilder::buildStudentValidationChain, student,
+                studentRows);
+        runChain(harness, "student", "invalid", ValidationChainBuilder::buildStudentValidationChain, student,
+                badStudentRows);
+        runChain(harness, "payment", "valid", ValidationChainBuilder::buildPaymentValidationChain, payment,
+                paymentRows);
+        runChain(harness, "payment", "invalid", ValidationChainBuilder::buildPaymentValidationChain, payment,
+                badPaymentRows);
+        runChain(harness, "attendance", "valid", ValidationChainBuilder::buildAttendanceValidationChain, attendance,
+                attendanceRows);
+        runChain(harness, "attendance", "invalid", ValidationChainBuilder::buildAttendanceValidationChain,
+                attendance, badAttendanceRows);
+        runEmail(harness, "generated", emails);
+        runEmail(harness, "pathological", pathologicalEmails);
+
+        if (json != null) {
+            harness.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+        if (report != null) {
+            harness.writeReport(report, "Validation chain benchmark", "current");
+            System.out.println("Report written to " + report);
+        }
+    }
+
+    private static void runChain(BenchmarkHarness harness, String chainName, String input, ChainFactory factory,
+            Validation validation, String[][] rows) throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("chain", chainName);
+        params.put("input", input);
+
+        int[] next = {0};
+        harness.run(NAME_PREFIX + "current", params, () -> {
+            BenchmarkHarness.consume(validateRow(factory.build(), validation, rows[next[0]++ & (ROWS - 1)]));
+        });
+        ValidationHandler chain = factory.build();
+        harness.run(NAME_PREFIX + "reusedChain", params, () -> {
+            BenchmarkHarness.consume(validateRow(chain, validation, rows[next[0]++ & (ROWS - 1)]));
+        });
+    }
+
+    private static void runEmail(BenchmarkHarness harness, String input, String[][] emails) throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("chain", "email");
+        params.put("input", input);
+
+        EmailValidationHandler handler = new EmailValidationHandler();
+        Validation email = (chain, row) -> chain.validate("email", row[0]);
+        for (String[] row : emails) {
+            boolean regex = validateRow(handler, email, row) == null;
+            if (regex != isValidEmail(row[0])) {
+                throw new IllegalStateException("handWritten disagrees with the regex on " + row[0]);
+            }
+        }
+
+        int[] next = {0};
+        harness.run(NAME_PREFIX + "current", params, () -> {
+            BenchmarkHarness.consume(validateRow(handler, email, emails[next[0]++ & (ROWS - 1)]));
+        });
+        harness.run(NAME_PREFIX + "handWritten", params, () -> {
+            BenchmarkHarness.consume(isValidEmail(emails[next[0]++ & (ROWS - 1)][0]));
+        });
+    }
+
+    /**
+     * @return The validation error, or null if the row is valid
+     */
+    private static InvalidInputException validateRow(ValidationHandler chain, Validation validation, String[] row) {
+        try {
+            validation.validate(chain, row);
+            return null;
+        } catch (InvalidInputException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Same check as EmailValidationHandler's ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$
+     * without a regex. The local part cannot contain '@', so the address
+     * splits at the first '@'; the top-level domain cannot contain '.', so it
+     * is everything after the last '.'.
+     */
+    static boolean isValidEmail(String email) {
+        int at = email.indexOf('@');
+        if (at < 1) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        int dot = email.lastIndexOf('.');
+        if (dot < at + 2 || email.length() - dot - 1 < 2) {
+            return false;
+        }
+        for (int i = at + 1; i < dot; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        for (int i = dot + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (!(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * An address whose domain is many short labels ending in a digit, e.g.
+     * x@a.b.c...1 - the regex tries every '.' as the start of the top-level
+     * domain before failing.
+     */
+    private static String pathologicalEmail(String email, int i) {
+        StringBuilder sb = new StringBuilder(email.substring(0, email.indexOf('@') + 1));
+        for (int label = 0; label < PATHOLOGICAL_DOMAIN_LABELS; label++) {
+            sb.append((char) ('a' + (i + label) % 26)).append('.');
+        }
+        return sb.append(i % 10).toString();
+    }
+}
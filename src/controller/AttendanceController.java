@@ -1,10 +1,15 @@
 package controller;
 
 import dao.AttendanceDAO;
+import dao.AttendanceDAO.AttendanceCounts;
+import dao.ListingKey;
+import dao.ListingOrder;
 import model.Attendance;
+import model.AttendanceListing;
 import exceptions.*;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,8 +26,10 @@ public class AttendanceController {
 
     /**
      * Marks attendance for a student with validation.
+     *
+     * @return ID of the new attendance record
      */
-    public void markAttendance(String studentId, String status) 
+    public int markAttendance(String studentId, String status) 
             throws InvalidInputException, StudentNotFoundException, SQLException {
         
         // Validation
@@ -34,13 +41,15 @@ public class AttendanceController {
         }
 
         String today = LocalDate.now().toString();
-        attendanceDAO.markAttendance(studentId, today, status);
+        return attendanceDAO.markAttendance(studentId, today, status);
     }
 
     /**
      * Marks attendance for a student on a specific date.
+     *
+     * @return ID of the new attendance record
      */
-    public void markAttendance(String studentId, String date, String status) 
+    public int markAttendance(String studentId, String date, String status) 
             throws InvalidInputException, StudentNotFoundException, SQLException {
         
         // Validation
@@ -54,7 +63,7 @@ public class AttendanceController {
             throw new InvalidInputException("Status must be PRESENT or ABSENT");
         }
 
-        attendanceDAO.markAttendance(studentId, date, status);
+        return attendanceDAO.markAttendance(studentId, date, status);
     }
 
     /**
@@ -76,6 +85,51 @@ public class AttendanceController {
         return attendanceDAO.getAllAttendance();
     }
 
+    /**
+     * Counts attendance records matching a search/date filter.
+     */
+    public AttendanceCounts countAttendance(String search, String dateFilter) throws SQLException {
+        return attendanceDAO.countAttendance(search, dateFilter);
+    }
+
+    /**
+     * Gets the listing rows of the given attendance records; IDs with no record are left out.
+     */
+    public List<AttendanceListing> getAttendanceListingsByIds(Collection<Integer> ids) throws SQLException {
+        return attendanceDAO.getAttendanceListingsByIds(ids);
+    }
+
+    /**
+     * Gets the IDs of every record in the attendance listing, in order.
+     */
+    public int[] getAttendanceListingIds(String search, String dateFilter, ListingOrder order) throws SQLException {
+        return attendanceDAO.getAttendanceListingIds(search, dateFilter, order);
+    }
+
+    /**
+     * Gets the page of the attendance listing after a row (see ListingKey).
+     */
+    public List<AttendanceListing> getAttendanceListingsAfter(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int limit) throws InvalidInputException, SQLException {
+
+        if (!order.isKeyed() || limit <= 0) {
+            throw new InvalidInputException("Invalid page range");
+        }
+        return attendanceDAO.getAttendanceListingsAfter(search, dateFilter, order, after, limit);
+    }
+
+    /**
+     * Finds the key of the row skip rows after another in the attendance listing.
+     */
+    public ListingKey getAttendanceListingKey(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int skip) throws InvalidInputException, SQLException {
+
+        if (!order.isKeyed() || skip < 0) {
+            throw new InvalidInputException("Invalid page range");
+        }
+        return attendanceDAO.getAttendanceListingKey(search, dateFilter, order, after, skip);
+    }
+
     /**
      * Gets attendance records for a specific date.
      */
@@ -102,20 +156,38 @@ public class AttendanceController {
 
     /**
      * Deletes an attendance record.
+     *
+     * @return ID of the student the record belonged to, or null if there was no such record
      */
-    public void deleteAttendance(int id) throws SQLException {
-        attendanceDAO.deleteAttendance(id);
+    public String deleteAttendance(int id) throws SQLException {
+        return attendanceDAO.deleteAttendance(id);
     }
 
     /**
      * Updates an attendance record status.
+     *
+     * @return ID of the student the record belongs to, or null if there is no such record
      */
-    public void updateAttendance(int id, String status) 
+    public String updateAttendance(int id, String status) 
             throws InvalidInputException, SQLException {
         
         if (!status.equals("PRESENT") && !status.equals("ABSENT")) {
             throw new InvalidInputException("Status must be PRESENT or ABSENT");
         }
-        attendanceDAO.updateAttendance(id, status);
+        return attendanceDAO.updateAttendance(id, status);
+    }
+
+    /**
+     * Updates an attendance record status if it still has the expected version.
+     *
+     * @return ID of the student the record belongs to
+     */
+    public String updateAttendance(int id, String status, int expectedVersion) 
+            throws InvalidInputException, ConcurrentUpdateException, SQLException {
+        
+        if (!status.equals("PRESENT") && !status.equals("ABSENT")) {
+            throw new InvalidInputException("Status must be PRESENT or ABSENT");
+        }
+        return attendanceDAO.updateAttendance(id, status, expectedVersion);
     }
 }
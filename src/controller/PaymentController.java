@@ -1,10 +1,13 @@
 package controller;
 
+import dao.ListingOrder;
 import dao.PaymentDAO;
 import model.Payment;
+import model.PaymentListing;
 import exceptions.*;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -22,21 +25,25 @@ public class PaymentController {
 
     /**
      * Adds a new payment with validation.
+     *
+     * @return ID of the new payment
      */
-    public void addPayment(String studentId, double amount, String description) 
+    public int addPayment(String studentId, double amount, String description) 
             throws InvalidInputException, StudentNotFoundException, SQLException {
         
         // Validation
         validatePaymentInput(studentId, amount);
 
         String today = LocalDate.now().toString();
-        paymentDAO.addPayment(studentId, amount, today, description);
+        return paymentDAO.addPayment(studentId, amount, today, description);
     }
 
     /**
      * Adds a new payment on a specific date.
+     *
+     * @return ID of the new payment
      */
-    public void addPayment(String studentId, double amount, String date, String description) 
+    public int addPayment(String studentId, double amount, String date, String description) 
             throws InvalidInputException, StudentNotFoundException, SQLException {
         
         // Validation
@@ -45,7 +52,7 @@ public class PaymentController {
             throw new InvalidInputException("Date cannot be empty");
         }
 
-        paymentDAO.addPayment(studentId, amount, date, description);
+        return paymentDAO.addPayment(studentId, amount, date, description);
     }
 
     /**
@@ -67,6 +74,21 @@ public class PaymentController {
         return paymentDAO.getAllPayments();
     }
 
+    /**
+     * Gets the payment listing (payments with student names), filtered and ordered in SQL.
+     */
+    public List<PaymentListing> getPaymentListings(String search, String dateFrom, String dateTo,
+            ListingOrder order) throws SQLException {
+        return paymentDAO.getPaymentListings(search, dateFrom, dateTo, order);
+    }
+
+    /**
+     * Gets the listing rows of the given payments; IDs with no payment are left out.
+     */
+    public List<PaymentListing> getPaymentListingsByIds(Collection<Integer> ids) throws SQLException {
+        return paymentDAO.getPaymentListingsByIds(ids);
+    }
+
     /**
      * Calculates total amount paid by a student.
      */
@@ -116,21 +138,39 @@ public class PaymentController {
 
     /**
      * Deletes a payment record.
+     *
+     * @return ID of the student the payment belonged to, or null if there was no such payment
      */
-    public void deletePayment(int id) throws SQLException {
-        paymentDAO.deletePayment(id);
+    public String deletePayment(int id) throws SQLException {
+        return paymentDAO.deletePayment(id);
     }
 
     /**
      * Updates a payment record.
+     *
+     * @return ID of the student the payment belongs to, or null if there is no such payment
      */
-    public void updatePayment(int id, double amount, String description) 
+    public String updatePayment(int id, double amount, String description) 
             throws InvalidInputException, SQLException {
         
         if (amount <= 0) {
             throw new InvalidInputException("Amount must be greater than 0");
         }
-        paymentDAO.updatePayment(id, amount, description);
+        return paymentDAO.updatePayment(id, amount, description);
+    }
+
+    /**
+     * Updates a payment record if it still has the expected version.
+     *
+     * @return ID of the student the payment belongs to
+     */
+    public String updatePayment(int id, double amount, String description, int expectedVersion) 
+            throws InvalidInputException, ConcurrentUpdateException, SQLException {
+        
+        if (amount <= 0) {
+            throw new InvalidInputException("Amount must be greater than 0");
+        }
+        return paymentDAO.updatePayment(id, amount, description, expectedVersion);
     }
 
     /**
@@ -3,15 +3,22 @@ package controller;
 import dao.StudentDAO;
 import model.Student;
 import exceptions.*;
+import util.StudentLockManager;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Controller for Student operations.
  * Part of MVC architecture - handles business logic between View and DAO.
  */
 public class StudentController {
+    // Used when the caller has no version to check against
+    private static final int ANY_VERSION = -1;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final StudentDAO studentDAO;
 
     public StudentController() {
@@ -45,18 +52,65 @@ public class StudentController {
 
     /**
      * Updates an existing student.
+     * Preserves the current enrollment status. If another instance changes the
+     * row between the read and the write, the update is retried.
      */
     public void updateStudent(String studentId, String name, int age, String course, String email) 
-            throws InvalidInputException, StudentNotFoundException, SQLException {
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
+        
+        // Validation
+        validateStudentInput(studentId, name, age, course);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeStudent(studentId, name, age, course, email, ANY_VERSION);
+                return;
+            } catch (ConcurrentUpdateException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates an existing student only if it still has the version the caller read
+     * (e.g. when the edit dialog was opened).
+     */
+    public void updateStudent(String studentId, String name, int age, String course, String email,
+            int expectedVersion)
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
         
         // Validation
         validateStudentInput(studentId, name, age, course);
 
-        // Get existing student to preserve enrollment status
-        Student existingStudent = studentDAO.findById(studentId);
-        String enrollmentStatus = existingStudent != null ? existingStudent.getEnrollmentStatus() : "ENROLLED";
-        Student student = new Student(name, age, studentId, course, email, enrollmentStatus);
-        studentDAO.update(student);
+        writeStudent(studentId, name, age, course, email, expectedVersion);
+    }
+
+    /**
+     * Reads the current row and writes the new values with a versioned update.
+     */
+    private void writeStudent(String studentId, String name, int age, String course, String email,
+            int expectedVersion)
+            throws StudentNotFoundException, ConcurrentUpdateException, SQLException {
+
+        // Hold the student's lock so a concurrent status change is not overwritten
+        ReentrantLock lock = StudentLockManager.getInstance().lock(studentId);
+        try {
+            // Get existing student to preserve enrollment status
+            Student existingStudent = studentDAO.findById(studentId);
+            if (existingStudent == null) {
+                throw new StudentNotFoundException(studentId, "cannot update");
+            }
+            if (expectedVersion != ANY_VERSION && existingStudent.getVersion() != expectedVersion) {
+                throw new ConcurrentUpdateException("Student", studentId);
+            }
+            Student student = new Student(name, age, studentId, course, email, existingStudent.getEnrollmentStatus());
+            student.setVersion(existingStudent.getVersion());
+            studentDAO.update(student);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -85,6 +139,13 @@ public class StudentController {
         return studentDAO.findById(studentId);
     }
 
+    /**
+     * Gets the students with the given IDs; IDs with no student are left out.
+     */
+    public List<Student> getStudentsByIds(Collection<String> studentIds) throws SQLException {
+        return studentDAO.findByIds(studentIds);
+    }
+
     /**
      * Searches students by name.
      */
@@ -94,9 +155,10 @@ public class StudentController {
 
     /**
      * Updates enrollment status for a student.
+     * Fails with ConcurrentUpdateException if the row no longer has expectedVersion.
      */
-    public void updateEnrollmentStatus(String studentId, String status) 
-            throws InvalidInputException, StudentNotFoundException, SQLException {
+    public void updateEnrollmentStatus(String studentId, String status, int expectedVersion) 
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
         
         if (studentId == null || studentId.trim().isEmpty()) {
             throw new InvalidInputException("Student ID cannot be empty");
@@ -108,7 +170,12 @@ public class StudentController {
             throw new InvalidInputException("Enrollment status must be ENROLLED, SUSPENDED, or GRADUATED");
         }
         
-        studentDAO.updateEnrollmentStatus(studentId, status);
+        ReentrantLock lock = StudentLockManager.getInstance().lock(studentId);
+        try {
+            studentDAO.updateEnrollmentStatus(studentId, status, expectedVersion);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -1,11 +1,17 @@
 package dao;
 
 import model.Attendance;
+import model.AttendanceListing;
 import exceptions.AttendanceRecordNotFoundException;
+import exceptions.ConcurrentUpdateException;
 import exceptions.StudentNotFoundException;
+import metrics.MetricsRegistry;
+import metrics.OperationTimer;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,6 +20,31 @@ import java.util.List;
  */
 public class AttendanceDAO {
 
+    private static final OperationTimer MARK_ATTENDANCE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.markAttendance");
+    private static final OperationTimer GET_ATTENDANCE_BY_STUDENT =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceByStudent");
+    private static final OperationTimer GET_ALL_ATTENDANCE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAllAttendance");
+    private static final OperationTimer COUNT_ATTENDANCE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.countAttendance");
+    private static final OperationTimer GET_ATTENDANCE_LISTING_IDS =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceListingIds");
+    private static final OperationTimer GET_ATTENDANCE_LISTINGS_AFTER =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceListingsAfter");
+    private static final OperationTimer GET_ATTENDANCE_LISTING_KEY =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceListingKey");
+    private static final OperationTimer GET_ATTENDANCE_LISTINGS_BY_IDS =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceListingsByIds");
+    private static final OperationTimer GET_ATTENDANCE_BY_DATE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.getAttendanceByDate");
+    private static final OperationTimer CALCULATE_ATTENDANCE_RATE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.calculateAttendanceRate");
+    private static final OperationTimer DELETE_ATTENDANCE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.deleteAttendance");
+    private static final OperationTimer UPDATE_ATTENDANCE =
+            MetricsRegistry.getInstance().timer("AttendanceDAO.updateAttendance");
+
     private StudentDAO studentDAO;
 
     public AttendanceDAO() {
@@ -22,21 +53,30 @@ public class AttendanceDAO {
 
     /**
      * Marks attendance for a student.
+     *
+     * @return ID of the new attendance record
      */
-    public void markAttendance(String studentId, String date, String status) 
+    public int markAttendance(String studentId, String date, String status) 
             throws SQLException, StudentNotFoundException {
-        
-        // Verify student exists
-        if (!studentDAO.exists(studentId)) {
-            throw new StudentNotFoundException(studentId);
-        }
+        long start = System.nanoTime();
+        try {
+            // Verify student exists
+            if (!studentDAO.exists(studentId)) {
+                throw new StudentNotFoundException(studentId);
+            }
 
-        String sql = "INSERT INTO attendance (student_id, date, status) VALUES (?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            stmt.setString(2, date);
-            stmt.setString(3, status);
-            stmt.executeUpdate();
+            String sql = "INSERT INTO attendance (student_id, date, status) VALUES (?, ?, ?) RETURNING id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                stmt.setString(2, date);
+                stmt.setString(3, status);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        } finally {
+            MARK_ATTENDANCE.record(start);
         }
     }
 
@@ -45,104 +85,411 @@ public class AttendanceDAO {
      */
     public List<Attendance> getAttendanceByStudent(String studentId) 
             throws SQLException, AttendanceRecordNotFoundException {
-        
-        List<Attendance> records = new ArrayList<>();
-        String sql = "SELECT * FROM attendance WHERE student_id = ? ORDER BY date DESC";
+        long start = System.nanoTime();
+        try {
+            List<Attendance> records = new ArrayList<>();
+            String sql = "SELECT * FROM attendance WHERE student_id = ? ORDER BY date DESC";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                records.add(mapResultSetToAttendance(rs));
+                while (rs.next()) {
+                    records.add(mapResultSetToAttendance(rs));
+                }
             }
-        }
 
-        if (records.isEmpty()) {
-            throw new AttendanceRecordNotFoundException(studentId);
+            if (records.isEmpty()) {
+                throw new AttendanceRecordNotFoundException(studentId);
+            }
+            GET_ATTENDANCE_BY_STUDENT.addRows(records.size());
+            return records;
+        } finally {
+            GET_ATTENDANCE_BY_STUDENT.record(start);
         }
-        return records;
     }
 
     /**
      * Gets all attendance records.
      */
     public List<Attendance> getAllAttendance() throws SQLException {
-        List<Attendance> records = new ArrayList<>();
-        String sql = "SELECT * FROM attendance ORDER BY date DESC";
+        long start = System.nanoTime();
+        try {
+            List<Attendance> records = new ArrayList<>();
+            String sql = "SELECT * FROM attendance ORDER BY date DESC";
+
+            try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    records.add(mapResultSetToAttendance(rs));
+                }
+            }
+            GET_ALL_ATTENDANCE.addRows(records.size());
+            return records;
+        } finally {
+            GET_ALL_ATTENDANCE.record(start);
+        }
+    }
+
+    /**
+     * Counts attendance records matching a filter, split by status.
+     * Used with the listing queries to show large histories one page at a time.
+     *
+     * @param search Text contained in the student ID, student name or status (empty for all)
+     * @param dateFilter Text contained in the date (empty for all)
+     */
+    public AttendanceCounts countAttendance(String search, String dateFilter) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<String> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("""
+                SELECT
+                    COUNT(*) as total,
+                    SUM(CASE WHEN r.status = 'PRESENT' THEN 1 ELSE 0 END) as present,
+                    SUM(CASE WHEN r.status = 'ABSENT' THEN 1 ELSE 0 END) as absent
+                FROM attendance r""");
+            if (QueryFilters.isSet(search)) {
+                // The name is only needed to match the search text
+                sql.append(" LEFT JOIN students s ON s.student_id = r.student_id");
+            }
+            appendWhere(sql, params, search, dateFilter, null, null);
+
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql.toString())) {
+                QueryFilters.bind(stmt, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new AttendanceCounts(rs.getInt("total"), rs.getInt("present"), rs.getInt("absent"));
+                    }
+                }
+            }
+            return new AttendanceCounts(0, 0, 0);
+        } finally {
+            COUNT_ATTENDANCE.record(start);
+        }
+    }
+
+    /**
+     * Gets the IDs of every record in the attendance listing, in order. For
+     * orders no index serves (by student name), the join and sort then run
+     * once per filter and order instead of once per page; pages are read
+     * with getAttendanceListingsByIds.
+     *
+     * @param search Text contained in the student ID, student name or status (empty for all)
+     * @param dateFilter Text contained in the date (empty for all)
+     * @param order Sort order
+     */
+    public int[] getAttendanceListingIds(String search, String dateFilter, ListingOrder order) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<String> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("""
+                SELECT r.id, COALESCE(s.name, 'Unknown') as student_name
+                FROM attendance r
+                LEFT JOIN students s ON s.student_id = r.student_id""");
+            appendWhere(sql, params, search, dateFilter, null, null);
+            sql.append(" ORDER BY ").append(order.toSql());
+
+            int[] ids = new int[1024];
+            int count = 0;
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql.toString())) {
+                QueryFilters.bind(stmt, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (count == ids.length) {
+                            ids = Arrays.copyOf(ids, count * 2);
+                        }
+                        ids[count++] = rs.getInt(1);
+                    }
+                }
+            }
+            GET_ATTENDANCE_LISTING_IDS.addRows(count);
+            return Arrays.copyOf(ids, count);
+        } finally {
+            GET_ATTENDANCE_LISTING_IDS.record(start);
+        }
+    }
+
+    /**
+     * Gets the page of the attendance listing that follows a row, found by
+     * seeking the (date, id) index, so every page costs the same wherever it is.
+     *
+     * @param search Text contained in the student ID, student name or status (empty for all)
+     * @param dateFilter Text contained in the date (empty for all)
+     * @param order Sort order; must be a date order (ListingOrder.isKeyed)
+     * @param after Key of the row before the page, or null for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<AttendanceListing> getAttendanceListingsAfter(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int limit) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<AttendanceListing> listings = new ArrayList<>(Math.min(limit, 1000));
+            List<String> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("""
+                SELECT r.id, r.student_id, COALESCE(s.name, 'Unknown') as student_name,
+                       r.date, r.status, r.version
+                FROM attendance r
+                LEFT JOIN students s ON s.student_id = r.student_id""");
+            appendWhere(sql, params, search, dateFilter, order, after);
+            sql.append(" ORDER BY ").append(order.toSql()).append(" LIMIT ?");
+
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql.toString())) {
+                int index = QueryFilters.bind(stmt, params);
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        listings.add(new AttendanceListing(
+                            rs.getInt("id"),
+                            rs.getString("student_id"),
+                            rs.getString("student_name"),
+                            rs.getString("date"),
+                            rs.getString("status"),
+                            rs.getInt("version")
+                        ));
+                    }
+                }
+            }
+            GET_ATTENDANCE_LISTINGS_AFTER.addRows(listings.size());
+            return listings;
+        } finally {
+            GET_ATTENDANCE_LISTINGS_AFTER.record(start);
+        }
+    }
+
+    /**
+     * Finds the key of the row a given number of rows after another, to start
+     * paging at an arbitrary position (e.g. after a scrollbar jump). Only the
+     * (date, id) index is read, unless the search text needs student names.
+     *
+     * @param order Sort order; must be a date order (ListingOrder.isKeyed)
+     * @param after Key to count from, or null to count from the first row
+     * @param skip Number of rows to pass over (0 for the first row after the key)
+     * @return The row's key, or null if the listing has fewer rows
+     */
+    public ListingKey getAttendanceListingKey(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int skip) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<String> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("SELECT r.date, r.id FROM attendance r");
+            if (QueryFilters.isSet(search)) {
+                sql.append(" LEFT JOIN students s ON s.student_id = r.student_id");
+            }
+            appendWhere(sql, params, search, dateFilter, order, after);
+            sql.append(" ORDER BY ").append(order.toSql()).append(" LIMIT 1 OFFSET ?");
+
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql.toString())) {
+                int index = QueryFilters.bind(stmt, params);
+                stmt.setInt(index, skip);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? new ListingKey(rs.getString("date"), rs.getInt("id")) : null;
+                }
+            }
+        } finally {
+            GET_ATTENDANCE_LISTING_KEY.record(start);
+        }
+    }
 
-        try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Gets the listing rows of the given attendance records, e.g. after another
+     * instance changed them. IDs with no record (deleted) are left out.
+     */
+    public List<AttendanceListing> getAttendanceListingsByIds(Collection<Integer> ids) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<AttendanceListing> listings = new ArrayList<>();
+            List<Integer> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += QueryFilters.MAX_IN_KEYS) {
+                List<Integer> chunk = idList.subList(from, Math.min(idList.size(), from + QueryFilters.MAX_IN_KEYS));
+                String sql = """
+                    SELECT r.id, r.student_id, COALESCE(s.name, 'Unknown') as student_name,
+                           r.date, r.status, r.version
+                    FROM attendance r
+                    LEFT JOIN students s ON s.student_id = r.student_id
+                    WHERE r.id IN (""" + QueryFilters.placeholders(chunk.size()) + ")";
 
-            while (rs.next()) {
-                records.add(mapResultSetToAttendance(rs));
+                try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            listings.add(new AttendanceListing(
+                                rs.getInt("id"),
+                                rs.getString("student_id"),
+                                rs.getString("student_name"),
+                                rs.getString("date"),
+                                rs.getString("status"),
+                                rs.getInt("version")
+                            ));
+                        }
+                    }
+                }
             }
+            GET_ATTENDANCE_LISTINGS_BY_IDS.addRows(listings.size());
+            return listings;
+        } finally {
+            GET_ATTENDANCE_LISTINGS_BY_IDS.record(start);
+        }
+    }
+
+    /**
+     * Appends the WHERE clause for a search/date filter and, if a key is
+     * given, for the rows after it in the given order.
+     * The query must alias attendance as "r" and, when searching, students as "s".
+     */
+    private void appendWhere(StringBuilder sql, List<String> params, String search, String dateFilter,
+            ListingOrder order, ListingKey after) {
+        List<String> conditions = new ArrayList<>();
+        if (QueryFilters.isSet(search)) {
+            conditions.add("(r.student_id LIKE ? ESCAPE '\\' OR s.name LIKE ? ESCAPE '\\'"
+                    + " OR r.status LIKE ? ESCAPE '\\')");
+            String pattern = QueryFilters.containsPattern(search);
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (QueryFilters.isSet(dateFilter)) {
+            conditions.add("r.date LIKE ? ESCAPE '\\'");
+            params.add(QueryFilters.containsPattern(dateFilter));
+        }
+        if (after != null) {
+            conditions.add(order.afterKeySql());
+            params.add(after.getDate());
+            params.add(String.valueOf(after.getId()));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
-        return records;
     }
 
     /**
      * Gets attendance records for a specific date.
      */
     public List<Attendance> getAttendanceByDate(String date) throws SQLException {
-        List<Attendance> records = new ArrayList<>();
-        String sql = "SELECT * FROM attendance WHERE date = ?";
+        long start = System.nanoTime();
+        try {
+            List<Attendance> records = new ArrayList<>();
+            String sql = "SELECT * FROM attendance WHERE date = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, date);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, date);
+                ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                records.add(mapResultSetToAttendance(rs));
+                while (rs.next()) {
+                    records.add(mapResultSetToAttendance(rs));
+                }
             }
+            GET_ATTENDANCE_BY_DATE.addRows(records.size());
+            return records;
+        } finally {
+            GET_ATTENDANCE_BY_DATE.record(start);
         }
-        return records;
     }
 
     /**
      * Calculates attendance rate (percentage) for a student.
      */
     public double calculateAttendanceRate(String studentId) throws SQLException {
-        String sql = """
-            SELECT 
-                COUNT(*) as total,
-                SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END) as present
-            FROM attendance WHERE student_id = ?
-            """;
+        long start = System.nanoTime();
+        try {
+            String sql = """
+                SELECT 
+                    COUNT(*) as total,
+                    SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END) as present
+                FROM attendance WHERE student_id = ?
+                """;
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                int total = rs.getInt("total");
-                int present = rs.getInt("present");
-                return total > 0 ? (present * 100.0 / total) : 0.0;
+                if (rs.next()) {
+                    int total = rs.getInt("total");
+                    int present = rs.getInt("present");
+                    return total > 0 ? (present * 100.0 / total) : 0.0;
+                }
             }
+            return 0.0;
+        } finally {
+            CALCULATE_ATTENDANCE_RATE.record(start);
         }
-        return 0.0;
     }
 
     /**
      * Deletes an attendance record by ID.
+     *
+     * @return ID of the student the record belonged to, or null if there was no such record
+     */
+    public String deleteAttendance(int id) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = "DELETE FROM attendance WHERE id = ? RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                return returnedStudentId(stmt);
+            }
+        } finally {
+            DELETE_ATTENDANCE.record(start);
+        }
+    }
+
+    /**
+     * Updates an attendance record unconditionally (last writer wins).
+     * Still increments the version so versioned editors notice the change.
+     *
+     * @return ID of the student the record belongs to, or null if there is no such record
      */
-    public void deleteAttendance(int id) throws SQLException {
-        String sql = "DELETE FROM attendance WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+    public String updateAttendance(int id, String status) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE attendance SET status = ?, version = version + 1 WHERE id = ? RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, status);
+                stmt.setInt(2, id);
+                return returnedStudentId(stmt);
+            }
+        } finally {
+            UPDATE_ATTENDANCE.record(start);
+        }
+    }
+
+    /**
+     * Updates an attendance record if it still has the expected version.
+     * Optimistic locking: fails if the record was changed or deleted since it was read.
+     *
+     * @return ID of the student the record belongs to
+     */
+    public String updateAttendance(int id, String status, int expectedVersion)
+            throws SQLException, ConcurrentUpdateException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE attendance SET status = ?, version = version + 1 WHERE id = ? AND version = ? "
+                    + "RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, status);
+                stmt.setInt(2, id);
+                stmt.setInt(3, expectedVersion);
+                String studentId = returnedStudentId(stmt);
+                if (studentId == null) {
+                    throw new ConcurrentUpdateException("Attendance record", id);
+                }
+                return studentId;
+            }
+        } finally {
+            UPDATE_ATTENDANCE.record(start);
         }
     }
 
     /**
-     * Updates an attendance record.
+     * Runs an UPDATE or DELETE ... RETURNING student_id on at most one row.
+     *
+     * @return The returned student ID, or null if no row matched
      */
-    public void updateAttendance(int id, String status) throws SQLException {
-        String sql = "UPDATE attendance SET status = ? WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, status);
-            stmt.setInt(2, id);
-            stmt.executeUpdate();
+    private static String returnedStudentId(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
         }
     }
 
@@ -150,11 +497,41 @@ public class AttendanceDAO {
      * Helper method to map ResultSet to Attendance object.
      */
     private Attendance mapResultSetToAttendance(ResultSet rs) throws SQLException {
-        return new Attendance(
+        Attendance attendance = new Attendance(
             rs.getInt("id"),
             rs.getString("student_id"),
             rs.getString("date"),
             rs.getString("status")
         );
+        attendance.setVersion(rs.getInt("version"));
+        return attendance;
+    }
+
+    /**
+     * Number of attendance records matching a filter, by status.
+     */
+    public static class AttendanceCounts {
+        private final int total;
+        private final int present;
+        private final int absent;
+
+        public AttendanceCounts(int total, int present, int absent) {
+            this.total = total;
+            this.present = present;
+            this.absent = absent;
+        }
+
+        // Getters
+        public int getTotal() {
+            return total;
+        }
+
+        public int getPresent() {
+            return present;
+        }
+
+        public int getAbsent() {
+            return absent;
+        }
     }
 }
@@ -0,0 +1,183 @@
+package dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Access Object for the change_log table.
+ * Part of the DAO pattern - records every insert, update and delete on the
+ * students, attendance and payments tables so other application instances
+ * sharing the database file can pick up changes incrementally.
+ *
+ * Rows are written by TEMP triggers installed on each connection. TEMP
+ * triggers may write to the main schema and can embed this process's origin
+ * ID, which lets a reader skip the changes it made itself.
+ */
+public class ChangeLogDAO {
+
+    /**
+     * Identifies changes written by this running application instance.
+     */
+    public static final String ORIGIN_ID = UUID.randomUUID().toString();
+
+    // table name, key column
+    private static final String[][] TRACKED_TABLES = {
+        {"students", "student_id"},
+        {"attendance", "id"},
+        {"payments", "id"}
+    };
+
+    /**
+     * Creates the change_log table if needed and installs the change-capture
+     * triggers on the given connection. Called while the connection is opened.
+     */
+    static void install(Connection connection) throws SQLException {
+        String createChangeLogTable = """
+            CREATE TABLE IF NOT EXISTS change_log (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                table_name TEXT NOT NULL,
+                row_key TEXT,
+                operation TEXT NOT NULL,
+                origin TEXT NOT NULL,
+                changed_at INTEGER NOT NULL
+            )""";
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(createChangeLogTable);
+            for (String[] table : TRACKED_TABLES) {
+                stmt.execute(triggerSql(table[0], table[1], "INSERT", "NEW"));
+                stmt.execute(triggerSql(table[0], table[1], "UPDATE", "NEW"));
+                stmt.execute(triggerSql(table[0], table[1], "DELETE", "OLD"));
+            }
+        }
+    }
+
+    private static String triggerSql(String table, String keyColumn, String operation, String rowAlias) {
+        return "CREATE TEMP TRIGGER IF NOT EXISTS change_log_" + table + "_" + operation.toLowerCase()
+                + " AFTER " + operation + " ON main." + table
+                + " BEGIN INSERT INTO change_log (table_name, row_key, operation, origin, changed_at)"
+                + " VALUES ('" + table + "', " + rowAlias + "." + keyColumn + ", '" + operation + "', '"
+                + ORIGIN_ID + "', CAST(strftime('%s', 'now') AS INTEGER)); END";
+    }
+
+    /**
+     * Gets the highest sequence number written so far (0 if nothing was ever
+     * logged). Entries that were pruned since still count.
+     */
+    public long getLatestSeq() throws SQLException {
+        String sql = "SELECT COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'change_log'), 0)";
+
+        try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Gets changes with a sequence number greater than afterSeq, oldest first.
+     *
+     * @param afterSeq Last sequence number already processed
+     * @param limit Maximum number of entries to return
+     */
+    public List<ChangeEntry> getChangesSince(long afterSeq, int limit) throws SQLException {
+        List<ChangeEntry> changes = new ArrayList<>();
+        String sql = "SELECT seq, table_name, row_key, operation, origin FROM change_log "
+                + "WHERE seq > ? ORDER BY seq LIMIT ?";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setLong(1, afterSeq);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new ChangeEntry(
+                        rs.getLong("seq"),
+                        rs.getString("table_name"),
+                        rs.getString("row_key"),
+                        rs.getString("operation"),
+                        rs.getString("origin")
+                    ));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Deletes log entries older than the given age.
+     *
+     * @return Number of entries removed
+     */
+    public int deleteOlderThan(long maxAgeSeconds) throws SQLException {
+        String sql = "DELETE FROM change_log WHERE changed_at < CAST(strftime('%s', 'now') AS INTEGER) - ?";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setLong(1, maxAgeSeconds);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes all but the newest entries, so a busy log stays bounded no
+     * matter how much is written within the retention period.
+     *
+     * @param keep Number of newest entries to keep
+     * @return Number of entries removed
+     */
+    public int trimToLatest(int keep) throws SQLException {
+        String sql = "DELETE FROM change_log WHERE seq <= (SELECT MAX(seq) FROM change_log) - ?";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setInt(1, keep);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * A single row change recorded in the change log.
+     */
+    public static class ChangeEntry {
+        private final long seq;
+        private final String tableName;
+        private final String rowKey;
+        private final String operation;
+        private final String origin;
+
+        public ChangeEntry(long seq, String tableName, String rowKey, String operation, String origin) {
+            this.seq = seq;
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+            this.operation = operation;
+            this.origin = origin;
+        }
+
+        // Getters
+        public long getSeq() {
+            return seq;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public String getRowKey() {
+            return rowKey;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        /**
+         * Checks if the change was made by this application instance.
+         */
+        public boolean isLocal() {
+            return ORIGIN_ID.equals(origin);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package dao;
 
+import jdk.jfr.EventType;
+import metrics.MetricsRegistry;
+import metrics.OperationTimer;
+import metrics.SqlStatementEvent;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -8,19 +13,34 @@ import java.sql.Statement;
 /**
  * Singleton class for managing database connections.
  * Part of the DAO pattern - handles SQLite database connection.
+ *
+ * The database URL defaults to student_app.db in the working directory and
+ * can be overridden with the studentapp.db.url system property (e.g.
+ * jdbc:sqlite::memory: for benchmarks). The property is read each time a
+ * connection is opened, so closing the connection and changing the property
+ * switches databases.
  */
 public class DatabaseConnection {
     private static DatabaseConnection instance;
     private Connection connection;
-    private static final String DB_URL = "jdbc:sqlite:student_app.db";
+    // The connection wrapped to time statements, for SlowQueryLog and SqlStatementEvent
+    private Connection timedConnection;
+    private boolean slowQueryLogEnabled;
+    public static final String DB_URL_PROPERTY = "studentapp.db.url";
+    private static final String DEFAULT_DB_URL = "jdbc:sqlite:student_app.db";
+    private static final OperationTimer CONNECTION_WAIT = MetricsRegistry.getInstance().timer("connection.wait");
+    private static final EventType SQL_STATEMENT_EVENT = EventType.getEventType(SqlStatementEvent.class);
 
     // Private constructor - prevents external instantiation (Singleton pattern)
     private DatabaseConnection() throws SQLException {
         try {
             // Load SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
-            this.connection = DriverManager.getConnection(DB_URL);
+            this.connection = DriverManager.getConnection(getDatabaseUrl());
             initializeTables();
+            SlowQueryLog slowQueryLog = SlowQueryLog.getInstance();
+            this.slowQueryLogEnabled = slowQueryLog.isEnabled();
+            this.timedConnection = TimedConnection.wrap(connection, slowQueryLog);
         } catch (ClassNotFoundException e) {
             throw new SQLException("SQLite JDBC driver not found", e);
         }
@@ -28,20 +48,40 @@ public class DatabaseConnection {
 
     /**
      * Gets the singleton instance of DatabaseConnection.
-     * Thread-safe implementation.
+     * Thread-safe implementation. The time until the caller has the
+     * connection - waiting for the lock, and opening the connection if
+     * needed - is recorded as connection.wait.
      */
-    public static synchronized DatabaseConnection getInstance() throws SQLException {
-        if (instance == null || instance.connection == null || instance.connection.isClosed()) {
-            instance = new DatabaseConnection();
+    public static DatabaseConnection getInstance() throws SQLException {
+        long start = System.nanoTime();
+        synchronized (DatabaseConnection.class) {
+            try {
+                if (instance == null || instance.connection == null || instance.connection.isClosed()) {
+                    instance = new DatabaseConnection();
+                }
+                return instance;
+            } finally {
+                CONNECTION_WAIT.record(start);
+            }
         }
-        return instance;
+    }
+
+    /**
+     * Gets the JDBC URL used when a connection is opened.
+     */
+    public static String getDatabaseUrl() {
+        return System.getProperty(DB_URL_PROPERTY, DEFAULT_DB_URL);
     }
 
     /**
      * Returns the database connection.
+     * Statements on it are timed while the slow query log is on or a Flight
+     * Recorder recording has SqlStatementEvent enabled; otherwise callers get
+     * the plain connection and pay nothing for timing. Checked on every call,
+     * so a recording started while the application runs is picked up.
      */
     public Connection getConnection() {
-        return connection;
+        return slowQueryLogEnabled || SQL_STATEMENT_EVENT.isEnabled() ? timedConnection : connection;
     }
 
     /**
@@ -76,13 +116,33 @@ public class DatabaseConnection {
                 FOREIGN KEY (student_id) REFERENCES students(student_id)
             )""";
 
+        // Named sequences used to reserve blocks of IDs (see StudentIdGenerator)
+        String createSequencesTable = """
+            CREATE TABLE IF NOT EXISTS id_sequences (
+                name TEXT PRIMARY KEY,
+                next_value INTEGER NOT NULL
+            )""";
+
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(createStudentsTable);
             stmt.execute(createAttendanceTable);
             stmt.execute(createPaymentsTable);
+            stmt.execute(createSequencesTable);
+
+            // Newest-first listings of attendance and payments (see ListingOrder)
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_attendance_date_id ON attendance (date DESC, id DESC)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_payments_date_id ON payments (date DESC, id DESC)");
+
+            // Change capture for other instances sharing this database file
+            ChangeLogDAO.install(connection);
             
             // Migration: Add enrollment_status column if it doesn't exist
             migrateEnrollmentStatus();
+
+            // Migration: Add row version columns for optimistic locking
+            migrateVersionColumn("students");
+            migrateVersionColumn("attendance");
+            migrateVersionColumn("payments");
         }
     }
 
@@ -107,6 +167,26 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Migrates database schema to add a version column to the given table.
+     * The version is incremented on every update so concurrent editors can
+     * detect that a row changed since they read it.
+     */
+    private void migrateVersionColumn(String table) {
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeQuery("SELECT version FROM " + table + " LIMIT 1");
+            }
+        } catch (SQLException e) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
+                System.out.println("Database migration: Added version column to " + table);
+            } catch (SQLException migrationException) {
+                System.err.println("Failed to migrate version column on " + table + ": " + migrationException.getMessage());
+            }
+        }
+    }
+
     /**
      * Closes the database connection.
      */
@@ -0,0 +1,30 @@
+package dao;
+
+/**
+ * Position of a row in a date-ordered listing: its date and record ID, the
+ * columns of the (date, id) indexes. A page that starts after a ListingKey
+ * is found by seeking the index instead of skipping rows with OFFSET.
+ */
+public final class ListingKey {
+    private final String date;
+    private final int id;
+
+    public ListingKey(String date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    // Getters
+    public String getDate() {
+        return date;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return date + " #" + id;
+    }
+}
@@ -0,0 +1,61 @@
+package dao;
+
+/**
+ * Sort orders for the attendance and payment listings.
+ * Every order ends with the record ID, so paging through a listing never
+ * repeats or skips rows. The date orders follow the (date, id) indexes and
+ * can be paged by ListingKey.
+ */
+public enum ListingOrder {
+    NEWEST_FIRST("r.date DESC, r.id DESC", "<"),
+    OLDEST_FIRST("r.date ASC, r.id ASC", ">"),
+    STUDENT_NAME("student_name COLLATE NOCASE ASC, r.date DESC, r.id DESC", null),
+    STUDENT_NAME_DESC("student_name COLLATE NOCASE DESC, r.date DESC, r.id DESC", null);
+
+    private final String orderBy;
+    // Comparison selecting the rows after a key, or null if the order is not by key
+    private final String afterKeyOperator;
+
+    ListingOrder(String orderBy, String afterKeyOperator) {
+        this.orderBy = orderBy;
+        this.afterKeyOperator = afterKeyOperator;
+    }
+
+    /**
+     * Checks if the order is by (date, id), so it can be paged by ListingKey.
+     */
+    public boolean isKeyed() {
+        return afterKeyOperator != null;
+    }
+
+    /**
+     * Gets the opposite date order, for seeking from the end of a listing.
+     *
+     * @throws IllegalStateException if the order is not by (date, id)
+     */
+    public ListingOrder reversed() {
+        switch (this) {
+            case NEWEST_FIRST:
+                return OLDEST_FIRST;
+            case OLDEST_FIRST:
+                return NEWEST_FIRST;
+            default:
+                throw new IllegalStateException(this + " is not ordered by (date, id)");
+        }
+    }
+
+    /**
+     * Condition selecting the rows after a ListingKey in this order, with the
+     * key's date and ID as parameters. The record table must be aliased "r".
+     */
+    String afterKeySql() {
+        return "(r.date, r.id) " + afterKeyOperator + " (?, CAST(? AS INTEGER))";
+    }
+
+    /**
+     * ORDER BY clause for a listing query whose record table is aliased "r".
+     */
+    String toSql() {
+        return orderBy;
+    }
+}
@@ -1,11 +1,16 @@
 package dao;
 
 import model.Payment;
+import model.PaymentListing;
+import exceptions.ConcurrentUpdateException;
 import exceptions.PaymentNotFoundException;
 import exceptions.StudentNotFoundException;
+import metrics.MetricsRegistry;
+import metrics.OperationTimer;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,6 +19,26 @@ import java.util.List;
  */
 public class PaymentDAO {
 
+    private static final OperationTimer ADD_PAYMENT = MetricsRegistry.getInstance().timer("PaymentDAO.addPayment");
+    private static final OperationTimer GET_PAYMENTS_BY_STUDENT =
+            MetricsRegistry.getInstance().timer("PaymentDAO.getPaymentsByStudent");
+    private static final OperationTimer GET_ALL_PAYMENTS =
+            MetricsRegistry.getInstance().timer("PaymentDAO.getAllPayments");
+    private static final OperationTimer GET_PAYMENT_LISTINGS =
+            MetricsRegistry.getInstance().timer("PaymentDAO.getPaymentListings");
+    private static final OperationTimer GET_PAYMENT_LISTINGS_BY_IDS =
+            MetricsRegistry.getInstance().timer("PaymentDAO.getPaymentListingsByIds");
+    private static final OperationTimer CALCULATE_TOTAL_PAID =
+            MetricsRegistry.getInstance().timer("PaymentDAO.calculateTotalPaid");
+    private static final OperationTimer CALCULATE_BALANCE =
+            MetricsRegistry.getInstance().timer("PaymentDAO.calculateBalance");
+    private static final OperationTimer DELETE_PAYMENT =
+            MetricsRegistry.getInstance().timer("PaymentDAO.deletePayment");
+    private static final OperationTimer UPDATE_PAYMENT =
+            MetricsRegistry.getInstance().timer("PaymentDAO.updatePayment");
+    private static final OperationTimer GET_PAYMENT_BY_ID =
+            MetricsRegistry.getInstance().timer("PaymentDAO.getPaymentById");
+
     private StudentDAO studentDAO;
 
     public PaymentDAO() {
@@ -22,22 +47,32 @@ public class PaymentDAO {
 
     /**
      * Adds a new payment record.
+     *
+     * @return ID of the new payment
      */
-    public void addPayment(String studentId, double amount, String date, String description) 
+    public int addPayment(String studentId, double amount, String date, String description) 
             throws SQLException, StudentNotFoundException {
-        
-        // Verify student exists
-        if (!studentDAO.exists(studentId)) {
-            throw new StudentNotFoundException(studentId);
-        }
+        long start = System.nanoTime();
+        try {
+            // Verify student exists
+            if (!studentDAO.exists(studentId)) {
+                throw new StudentNotFoundException(studentId);
+            }
 
-        String sql = "INSERT INTO payments (student_id, amount, date, description) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            stmt.setDouble(2, amount);
-            stmt.setString(3, date);
-            stmt.setString(4, description);
-            stmt.executeUpdate();
+            String sql = "INSERT INTO payments (student_id, amount, date, description) VALUES (?, ?, ?, ?) "
+                    + "RETURNING id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                stmt.setDouble(2, amount);
+                stmt.setString(3, date);
+                stmt.setString(4, description);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        } finally {
+            ADD_PAYMENT.record(start);
         }
     }
 
@@ -46,57 +81,184 @@ public class PaymentDAO {
      */
     public List<Payment> getPaymentsByStudent(String studentId) 
             throws SQLException, PaymentNotFoundException {
-        
-        List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT * FROM payments WHERE student_id = ? ORDER BY date DESC";
+        long start = System.nanoTime();
+        try {
+            List<Payment> payments = new ArrayList<>();
+            String sql = "SELECT * FROM payments WHERE student_id = ? ORDER BY date DESC";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                payments.add(mapResultSetToPayment(rs));
+                while (rs.next()) {
+                    payments.add(mapResultSetToPayment(rs));
+                }
             }
-        }
 
-        if (payments.isEmpty()) {
-            throw new PaymentNotFoundException(studentId);
+            if (payments.isEmpty()) {
+                throw new PaymentNotFoundException(studentId);
+            }
+            GET_PAYMENTS_BY_STUDENT.addRows(payments.size());
+            return payments;
+        } finally {
+            GET_PAYMENTS_BY_STUDENT.record(start);
         }
-        return payments;
     }
 
     /**
      * Gets all payment records.
      */
     public List<Payment> getAllPayments() throws SQLException {
-        List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT * FROM payments ORDER BY date DESC";
+        long start = System.nanoTime();
+        try {
+            List<Payment> payments = new ArrayList<>();
+            String sql = "SELECT * FROM payments ORDER BY date DESC";
+
+            try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    payments.add(mapResultSetToPayment(rs));
+                }
+            }
+            GET_ALL_PAYMENTS.addRows(payments.size());
+            return payments;
+        } finally {
+            GET_ALL_PAYMENTS.record(start);
+        }
+    }
 
-        try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Gets the payment listing: payments joined with their student's name in
+     * SQL, filtered and ordered by the database.
+     * Payments whose student no longer exists are listed as "Unknown".
+     *
+     * @param search Text contained in the student ID, student name or description (empty for all)
+     * @param dateFrom First date to include, YYYY-MM-DD (empty for no lower bound)
+     * @param dateTo Last date to include, YYYY-MM-DD (empty for no upper bound)
+     * @param order Sort order
+     */
+    public List<PaymentListing> getPaymentListings(String search, String dateFrom, String dateTo,
+            ListingOrder order) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<PaymentListing> listings = new ArrayList<>();
+            List<String> params = new ArrayList<>();
+            List<String> conditions = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("""
+                SELECT r.id, r.student_id, COALESCE(s.name, 'Unknown') as student_name,
+                       r.amount, r.date, r.description, r.version
+                FROM payments r
+                LEFT JOIN students s ON s.student_id = r.student_id""");
+
+            if (QueryFilters.isSet(search)) {
+                conditions.add("(r.student_id LIKE ? ESCAPE '\\' OR s.name LIKE ? ESCAPE '\\'"
+                        + " OR r.description LIKE ? ESCAPE '\\')");
+                String pattern = QueryFilters.containsPattern(search);
+                params.add(pattern);
+                params.add(pattern);
+                params.add(pattern);
+            }
+            if (QueryFilters.isSet(dateFrom)) {
+                conditions.add("r.date >= ?");
+                params.add(dateFrom);
+            }
+            if (QueryFilters.isSet(dateTo)) {
+                conditions.add("r.date <= ?");
+                params.add(dateTo);
+            }
+            if (!conditions.isEmpty()) {
+                sql.append(" WHERE ").append(String.join(" AND ", conditions));
+            }
+            sql.append(" ORDER BY ").append(order.toSql());
 
-            while (rs.next()) {
-                payments.add(mapResultSetToPayment(rs));
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql.toString())) {
+                QueryFilters.bind(stmt, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        listings.add(new PaymentListing(
+                            rs.getInt("id"),
+                            rs.getString("student_id"),
+                            rs.getString("student_name"),
+                            rs.getDouble("amount"),
+                            rs.getString("date"),
+                            rs.getString("description"),
+                            rs.getInt("version")
+                        ));
+                    }
+                }
             }
+            GET_PAYMENT_LISTINGS.addRows(listings.size());
+            return listings;
+        } finally {
+            GET_PAYMENT_LISTINGS.record(start);
+        }
+    }
+
+    /**
+     * Gets the listing rows of the given payments, e.g. after another instance
+     * changed them. IDs with no payment (deleted) are left out.
+     */
+    public List<PaymentListing> getPaymentListingsByIds(Collection<Integer> ids) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<PaymentListing> listings = new ArrayList<>();
+            List<Integer> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += QueryFilters.MAX_IN_KEYS) {
+                List<Integer> chunk = idList.subList(from, Math.min(idList.size(), from + QueryFilters.MAX_IN_KEYS));
+                String sql = """
+                    SELECT r.id, r.student_id, COALESCE(s.name, 'Unknown') as student_name,
+                           r.amount, r.date, r.description, r.version
+                    FROM payments r
+                    LEFT JOIN students s ON s.student_id = r.student_id
+                    WHERE r.id IN (""" + QueryFilters.placeholders(chunk.size()) + ")";
+
+                try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            listings.add(new PaymentListing(
+                                rs.getInt("id"),
+                                rs.getString("student_id"),
+                                rs.getString("student_name"),
+                                rs.getDouble("amount"),
+                                rs.getString("date"),
+                                rs.getString("description"),
+                                rs.getInt("version")
+                            ));
+                        }
+                    }
+                }
+            }
+            GET_PAYMENT_LISTINGS_BY_IDS.addRows(listings.size());
+            return listings;
+        } finally {
+            GET_PAYMENT_LISTINGS_BY_IDS.record(start);
         }
-        return payments;
     }
 
     /**
      * Calculates total amount paid by a student.
      */
     public double calculateTotalPaid(String studentId) throws SQLException {
-        String sql = "SELECT SUM(amount) as total FROM payments WHERE student_id = ?";
+        long start = System.nanoTime();
+        try {
+            String sql = "SELECT SUM(amount) as total FROM payments WHERE student_id = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getDouble("total");
+                if (rs.next()) {
+                    return rs.getDouble("total");
+                }
             }
+            return 0.0;
+        } finally {
+            CALCULATE_TOTAL_PAID.record(start);
         }
-        return 0.0;
     }
 
     /**
@@ -104,31 +266,91 @@ public class PaymentDAO {
      * Assumes a fixed total fee amount (can be customized).
      */
     public double calculateBalance(String studentId, double totalFees) throws SQLException {
-        double totalPaid = calculateTotalPaid(studentId);
-        return totalFees - totalPaid;
+        long start = System.nanoTime();
+        try {
+            double totalPaid = calculateTotalPaid(studentId);
+            return totalFees - totalPaid;
+        } finally {
+            CALCULATE_BALANCE.record(start);
+        }
     }
 
     /**
      * Deletes a payment record by ID.
+     *
+     * @return ID of the student the payment belonged to, or null if there was no such payment
      */
-    public void deletePayment(int id) throws SQLException {
-        String sql = "DELETE FROM payments WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+    public String deletePayment(int id) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = "DELETE FROM payments WHERE id = ? RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                return returnedStudentId(stmt);
+            }
+        } finally {
+            DELETE_PAYMENT.record(start);
+        }
+    }
+
+    /**
+     * Updates a payment record unconditionally (last writer wins).
+     * Still increments the version so versioned editors notice the change.
+     *
+     * @return ID of the student the payment belongs to, or null if there is no such payment
+     */
+    public String updatePayment(int id, double amount, String description) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE payments SET amount = ?, description = ?, version = version + 1 WHERE id = ? " +
+                    "RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setDouble(1, amount);
+                stmt.setString(2, description);
+                stmt.setInt(3, id);
+                return returnedStudentId(stmt);
+            }
+        } finally {
+            UPDATE_PAYMENT.record(start);
+        }
+    }
+
+    /**
+     * Updates a payment record if it still has the expected version.
+     * Optimistic locking: fails if the record was changed or deleted since it was read.
+     *
+     * @return ID of the student the payment belongs to
+     */
+    public String updatePayment(int id, double amount, String description, int expectedVersion)
+            throws SQLException, ConcurrentUpdateException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE payments SET amount = ?, description = ?, version = version + 1 " +
+                    "WHERE id = ? AND version = ? RETURNING student_id";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setDouble(1, amount);
+                stmt.setString(2, description);
+                stmt.setInt(3, id);
+                stmt.setInt(4, expectedVersion);
+                String studentId = returnedStudentId(stmt);
+                if (studentId == null) {
+                    throw new ConcurrentUpdateException("Payment", id);
+                }
+                return studentId;
+            }
+        } finally {
+            UPDATE_PAYMENT.record(start);
         }
     }
 
     /**
-     * Updates a payment record.
+     * Runs an UPDATE or DELETE ... RETURNING student_id on at most one row.
+     *
+     * @return The returned student ID, or null if no row matched
      */
-    public void updatePayment(int id, double amount, String description) throws SQLException {
-        String sql = "UPDATE payments SET amount = ?, description = ? WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setDouble(1, amount);
-            stmt.setString(2, description);
-            stmt.setInt(3, id);
-            stmt.executeUpdate();
+    private static String returnedStudentId(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
         }
     }
 
@@ -136,29 +358,37 @@ public class PaymentDAO {
      * Gets payment by ID.
      */
     public Payment getPaymentById(int id) throws SQLException, PaymentNotFoundException {
-        String sql = "SELECT * FROM payments WHERE id = ?";
+        long start = System.nanoTime();
+        try {
+            String sql = "SELECT * FROM payments WHERE id = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return mapResultSetToPayment(rs);
+                if (rs.next()) {
+                    GET_PAYMENT_BY_ID.addRows(1);
+                    return mapResultSetToPayment(rs);
+                }
             }
+            throw new PaymentNotFoundException(id);
+        } finally {
+            GET_PAYMENT_BY_ID.record(start);
         }
-        throw new PaymentNotFoundException(id);
     }
 
     /**
      * Helper method to map ResultSet to Payment object.
      */
     private Payment mapResultSetToPayment(ResultSet rs) throws SQLException {
-        return new Payment(
+        Payment payment = new Payment(
             rs.getInt("id"),
             rs.getString("student_id"),
             rs.getDouble("amount"),
             rs.getString("date"),
             rs.getString("description")
         );
+        payment.setVersion(rs.getInt("version"));
+        return payment;
     }
 }
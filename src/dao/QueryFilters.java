@@ -0,0 +1,57 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Helpers for building the optional WHERE clauses of listing queries.
+ */
+final class QueryFilters {
+
+    private QueryFilters() {
+    }
+
+    static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Builds a LIKE pattern matching the text anywhere, with wildcards in the
+     * text escaped. Use with ESCAPE '\'.
+     * LIKE is case-insensitive for ASCII, like the panels' search boxes.
+     */
+    static String containsPattern(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Most keys bound in one IN (...) list; SQLite allows 999 parameters per statement.
+     */
+    static final int MAX_IN_KEYS = 500;
+
+    /**
+     * Builds the "?, ?, ?" placeholder list for an IN clause.
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i > 0 ? ", ?" : "?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Binds string parameters starting at index 1.
+     *
+     * @return Index of the next parameter
+     */
+    static int bind(PreparedStatement stmt, List<String> params) throws SQLException {
+        int index = 1;
+        for (String param : params) {
+            stmt.setString(index++, param);
+        }
+        return index;
+    }
+}
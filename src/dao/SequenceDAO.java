@@ -0,0 +1,65 @@
+package dao;
+
+import java.sql.*;
+
+/**
+ * Data Access Object for named ID sequences.
+ * Part of the DAO pattern - handles the id_sequences table, which hands out
+ * blocks of numbers atomically so several application instances sharing the
+ * same database never receive the same value.
+ */
+public class SequenceDAO {
+
+    /**
+     * Checks if a sequence has been created.
+     */
+    public boolean exists(String sequenceName) throws SQLException {
+        String sql = "SELECT 1 FROM id_sequences WHERE name = ?";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setString(1, sequenceName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Creates a sequence starting at the given value.
+     * Does nothing if the sequence already exists (e.g. another instance created it first).
+     */
+    public void createIfAbsent(String sequenceName, long startValue) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO id_sequences (name, next_value) VALUES (?, ?)";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setString(1, sequenceName);
+            stmt.setLong(2, startValue);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Atomically reserves a block of values from a sequence.
+     * Uses a single UPDATE ... RETURNING statement, so the increment and read
+     * happen under SQLite's write lock and are safe across processes.
+     *
+     * @param sequenceName Name of the sequence
+     * @param blockSize Number of values to reserve
+     * @return First value of the reserved block; the block is [first, first + blockSize)
+     * @throws SQLException if the sequence does not exist or the update fails
+     */
+    public long reserveBlock(String sequenceName, int blockSize) throws SQLException {
+        String sql = "UPDATE id_sequences SET next_value = next_value + ? WHERE name = ? RETURNING next_value";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setInt(1, blockSize);
+            stmt.setString(2, sequenceName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1) - blockSize;
+                }
+            }
+        }
+        throw new SQLException("Sequence '" + sequenceName + "' does not exist");
+    }
+}
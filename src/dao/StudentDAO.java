@@ -1,11 +1,15 @@
 package dao;
 
 import model.Student;
+import exceptions.ConcurrentUpdateException;
 import exceptions.DuplicateStudentException;
 import exceptions.StudentNotFoundException;
+import metrics.MetricsRegistry;
+import metrics.OperationTimer;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,31 +18,55 @@ import java.util.List;
  */
 public class StudentDAO {
 
+    private static final OperationTimer EXISTS = MetricsRegistry.getInstance().timer("StudentDAO.exists");
+    private static final OperationTimer CREATE = MetricsRegistry.getInstance().timer("StudentDAO.create");
+    private static final OperationTimer READ = MetricsRegistry.getInstance().timer("StudentDAO.read");
+    private static final OperationTimer UPDATE = MetricsRegistry.getInstance().timer("StudentDAO.update");
+    private static final OperationTimer DELETE = MetricsRegistry.getInstance().timer("StudentDAO.delete");
+    private static final OperationTimer READ_ALL = MetricsRegistry.getInstance().timer("StudentDAO.readAll");
+    private static final OperationTimer FIND_BY_ID = MetricsRegistry.getInstance().timer("StudentDAO.findById");
+    private static final OperationTimer FIND_BY_IDS = MetricsRegistry.getInstance().timer("StudentDAO.findByIds");
+    private static final OperationTimer SEARCH_BY_NAME = MetricsRegistry.getInstance().timer("StudentDAO.searchByName");
+    private static final OperationTimer UPDATE_ENROLLMENT_STATUS =
+            MetricsRegistry.getInstance().timer("StudentDAO.updateEnrollmentStatus");
+    private static final OperationTimer GET_MAX_STUDENT_ID_NUMBER =
+            MetricsRegistry.getInstance().timer("StudentDAO.getMaxStudentIdNumber");
+
     /**
      * Checks if a student exists by ID.
      */
     public boolean exists(String studentId) throws SQLException {
-        return findById(studentId) != null;
+        long start = System.nanoTime();
+        try {
+            return findById(studentId) != null;
+        } finally {
+            EXISTS.record(start);
+        }
     }
 
     /**
      * Creates a new student in the database.
      */
     public void create(Student student) throws SQLException, DuplicateStudentException {
-        // Check if student already exists
-        if (findById(student.getStudentId()) != null) {
-            throw new DuplicateStudentException(student.getStudentId());
-        }
+        long start = System.nanoTime();
+        try {
+            // Check if student already exists
+            if (findById(student.getStudentId()) != null) {
+                throw new DuplicateStudentException(student.getStudentId());
+            }
 
-        String sql = "INSERT INTO students (student_id, name, age, course, email, enrollment_status) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, student.getStudentId());
-            stmt.setString(2, student.getName());
-            stmt.setInt(3, student.getAge());
-            stmt.setString(4, student.getCourse());
-            stmt.setString(5, student.getEmail());
-            stmt.setString(6, student.getEnrollmentStatus());
-            stmt.executeUpdate();
+            String sql = "INSERT INTO students (student_id, name, age, course, email, enrollment_status) VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, student.getStudentId());
+                stmt.setString(2, student.getName());
+                stmt.setInt(3, student.getAge());
+                stmt.setString(4, student.getCourse());
+                stmt.setString(5, student.getEmail());
+                stmt.setString(6, student.getEnrollmentStatus());
+                stmt.executeUpdate();
+            }
+        } finally {
+            CREATE.record(start);
         }
     }
 
@@ -46,31 +74,45 @@ public class StudentDAO {
      * Reads a student by their ID.
      */
     public Student read(String studentId) throws SQLException, StudentNotFoundException {
-        Student student = findById(studentId);
-        if (student == null) {
-            throw new StudentNotFoundException(studentId);
+        long start = System.nanoTime();
+        try {
+            Student student = findById(studentId);
+            if (student == null) {
+                throw new StudentNotFoundException(studentId);
+            }
+            return student;
+        } finally {
+            READ.record(start);
         }
-        return student;
     }
 
     /**
      * Updates an existing student.
+     * Optimistic locking: only succeeds if the row still has student.getVersion(),
+     * and increments the version.
      */
-    public void update(Student student) throws SQLException, StudentNotFoundException {
-        // Check if student exists
-        if (findById(student.getStudentId()) == null) {
-            throw new StudentNotFoundException(student.getStudentId(), "cannot update");
-        }
+    public void update(Student student) throws SQLException, StudentNotFoundException, ConcurrentUpdateException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE students SET name = ?, age = ?, course = ?, email = ?, enrollment_status = ?, " +
+                    "version = version + 1 WHERE student_id = ? AND version = ?";
+            int rows;
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, student.getName());
+                stmt.setInt(2, student.getAge());
+                stmt.setString(3, student.getCourse());
+                stmt.setString(4, student.getEmail());
+                stmt.setString(5, student.getEnrollmentStatus());
+                stmt.setString(6, student.getStudentId());
+                stmt.setInt(7, student.getVersion());
+                rows = stmt.executeUpdate();
+            }
 
-        String sql = "UPDATE students SET name = ?, age = ?, course = ?, email = ?, enrollment_status = ? WHERE student_id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, student.getName());
-            stmt.setInt(2, student.getAge());
-            stmt.setString(3, student.getCourse());
-            stmt.setString(4, student.getEmail());
-            stmt.setString(5, student.getEnrollmentStatus());
-            stmt.setString(6, student.getStudentId());
-            stmt.executeUpdate();
+            if (rows == 0) {
+                checkUpdateConflict(student.getStudentId(), "cannot update");
+            }
+        } finally {
+            UPDATE.record(start);
         }
     }
 
@@ -78,15 +120,20 @@ public class StudentDAO {
      * Deletes a student by their ID.
      */
     public void delete(String studentId) throws SQLException, StudentNotFoundException {
-        // Check if student exists
-        if (findById(studentId) == null) {
-            throw new StudentNotFoundException(studentId, "cannot delete");
-        }
+        long start = System.nanoTime();
+        try {
+            // Check if student exists
+            if (findById(studentId) == null) {
+                throw new StudentNotFoundException(studentId, "cannot delete");
+            }
 
-        String sql = "DELETE FROM students WHERE student_id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            stmt.executeUpdate();
+            String sql = "DELETE FROM students WHERE student_id = ?";
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                stmt.executeUpdate();
+            }
+        } finally {
+            DELETE.record(start);
         }
     }
 
@@ -94,69 +141,138 @@ public class StudentDAO {
      * Retrieves all students from the database.
      */
     public List<Student> readAll() throws SQLException {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students";
+        long start = System.nanoTime();
+        try {
+            List<Student> students = new ArrayList<>();
+            String sql = "SELECT * FROM students";
 
-        try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+            try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
+                    ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                students.add(mapResultSetToStudent(rs));
+                while (rs.next()) {
+                    students.add(mapResultSetToStudent(rs));
+                }
             }
+            READ_ALL.addRows(students.size());
+            return students;
+        } finally {
+            READ_ALL.record(start);
         }
-        return students;
     }
 
     /**
      * Searches for a student by ID (returns null if not found).
      */
     public Student findById(String studentId) throws SQLException {
-        String sql = "SELECT * FROM students WHERE student_id = ?";
+        long start = System.nanoTime();
+        try {
+            String sql = "SELECT * FROM students WHERE student_id = ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, studentId);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return mapResultSetToStudent(rs);
+                if (rs.next()) {
+                    FIND_BY_ID.addRows(1);
+                    return mapResultSetToStudent(rs);
+                }
             }
+            return null;
+        } finally {
+            FIND_BY_ID.record(start);
+        }
+    }
+
+    /**
+     * Finds the students with the given IDs, e.g. after another instance changed them.
+     * IDs with no student (deleted) are left out of the result.
+     */
+    public List<Student> findByIds(Collection<String> studentIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Student> students = new ArrayList<>();
+            List<String> ids = new ArrayList<>(studentIds);
+            for (int from = 0; from < ids.size(); from += QueryFilters.MAX_IN_KEYS) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + QueryFilters.MAX_IN_KEYS));
+                String sql = "SELECT * FROM students WHERE student_id IN ("
+                        + QueryFilters.placeholders(chunk.size()) + ")";
+
+                try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                    QueryFilters.bind(stmt, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            students.add(mapResultSetToStudent(rs));
+                        }
+                    }
+                }
+            }
+            FIND_BY_IDS.addRows(students.size());
+            return students;
+        } finally {
+            FIND_BY_IDS.record(start);
         }
-        return null;
     }
 
     /**
      * Searches for students by name (partial match).
      */
     public List<Student> searchByName(String name) throws SQLException {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students WHERE name LIKE ?";
+        long start = System.nanoTime();
+        try {
+            List<Student> students = new ArrayList<>();
+            String sql = "SELECT * FROM students WHERE name LIKE ?";
 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, "%" + name + "%");
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, "%" + name + "%");
+                ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                students.add(mapResultSetToStudent(rs));
+                while (rs.next()) {
+                    students.add(mapResultSetToStudent(rs));
+                }
             }
+            SEARCH_BY_NAME.addRows(students.size());
+            return students;
+        } finally {
+            SEARCH_BY_NAME.record(start);
         }
-        return students;
     }
 
     /**
      * Updates enrollment status for a student.
+     * Optimistic locking: only succeeds if the row still has expectedVersion.
      */
-    public void updateEnrollmentStatus(String studentId, String status) throws SQLException, StudentNotFoundException {
-        // Check if student exists
-        if (findById(studentId) == null) {
-            throw new StudentNotFoundException(studentId, "cannot update enrollment status");
+    public void updateEnrollmentStatus(String studentId, String status, int expectedVersion)
+            throws SQLException, StudentNotFoundException, ConcurrentUpdateException {
+        long start = System.nanoTime();
+        try {
+            String sql = "UPDATE students SET enrollment_status = ?, version = version + 1 " +
+                    "WHERE student_id = ? AND version = ?";
+            int rows;
+            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+                stmt.setString(1, status);
+                stmt.setString(2, studentId);
+                stmt.setInt(3, expectedVersion);
+                rows = stmt.executeUpdate();
+            }
+
+            if (rows == 0) {
+                checkUpdateConflict(studentId, "cannot update enrollment status");
+            }
+        } finally {
+            UPDATE_ENROLLMENT_STATUS.record(start);
         }
+    }
 
-        String sql = "UPDATE students SET enrollment_status = ? WHERE student_id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, status);
-            stmt.setString(2, studentId);
-            stmt.executeUpdate();
+    /**
+     * Explains why a versioned update matched no row:
+     * either the student is gone or its version has moved on.
+     */
+    private void checkUpdateConflict(String studentId, String context)
+            throws SQLException, StudentNotFoundException, ConcurrentUpdateException {
+        if (findById(studentId) == null) {
+            throw new StudentNotFoundException(studentId, context);
         }
+        throw new ConcurrentUpdateException("Student", studentId);
     }
 
     /**
@@ -168,19 +284,24 @@ public class StudentDAO {
      * @throws SQLException if database query fails
      */
     public int getMaxStudentIdNumber() throws SQLException {
-        String sql = "SELECT MAX(CAST(SUBSTR(student_id, 4) AS INTEGER)) " +
-                "FROM students WHERE student_id LIKE 'STU%'";
+        long start = System.nanoTime();
+        try {
+            String sql = "SELECT MAX(CAST(SUBSTR(student_id, 4) AS INTEGER)) " +
+                    "FROM students WHERE student_id LIKE 'STU%'";
 
-        try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+            try (Statement stmt = DatabaseConnection.getInstance().getConnection().createStatement();
+                    ResultSet rs = stmt.executeQuery(sql)) {
 
-            if (rs.next()) {
-                int maxNumber = rs.getInt(1);
-                // If no matching IDs found, rs.getInt(1) returns 0
-                return rs.wasNull() ? 0 : maxNumber;
+                if (rs.next()) {
+                    int maxNumber = rs.getInt(1);
+                    // If no matching IDs found, rs.getInt(1) returns 0
+                    return rs.wasNull() ? 0 : maxNumber;
+                }
             }
+            return 0;
+        } finally {
+            GET_MAX_STUDENT_ID_NUMBER.record(start);
         }
-        return 0;
     }
 
     /**
@@ -195,12 +316,14 @@ public class StudentDAO {
             enrollmentStatus = "ENROLLED";
         }
 
-        return new Student(
+        Student student = new Student(
                 rs.getString("name"),
                 rs.getInt("age"),
                 rs.getString("student_id"),
                 rs.getString("course"),
                 rs.getString("email"),
                 enrollmentStatus);
+        student.setVersion(rs.getInt("version"));
+        return student;
     }
 }
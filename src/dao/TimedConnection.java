@@ -0,0 +1,198 @@
+package dao;
+
+import metrics.SqlStatementEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * JDBC wrapper that times every statement run through a connection and
+ * reports it to SlowQueryLog. Built from dynamic proxies, so it works with
+ * any driver and needs no changes in the DAOs.
+ *
+ * A statement's time covers executing it and, for queries, reading the
+ * rows: it is reported when the result set or statement is closed, or the
+ * statement is executed again. Each statement is also recorded as a
+ * SqlStatementEvent when Flight Recorder has those enabled.
+ */
+class TimedConnection {
+
+    private TimedConnection() {
+    }
+
+    /**
+     * Wraps a connection; statements it creates are timed.
+     */
+    static Connection wrap(Connection connection, SlowQueryLog log) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection, log));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final SlowQueryLog log;
+
+        ConnectionHandler(Connection target, SlowQueryLog log) {
+            this.target = target;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("unwrap") && args[0] == Connection.class) {
+                return target;
+            }
+            Object result = TimedConnection.invoke(target, method, args);
+            if (name.equals("prepareStatement") && result instanceof PreparedStatement) {
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class},
+                        new StatementHandler((Statement) result, log, (String) args[0]));
+            }
+            if (name.equals("createStatement") && result instanceof Statement) {
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {Statement.class},
+                        new StatementHandler((Statement) result, log, null));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times executions of one Statement or PreparedStatement.
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final SlowQueryLog log;
+        private final String preparedSql;
+        private int bindCount;
+
+        // Query whose rows are still being read
+        private String openSql;
+        private long openNanos;
+        private long openRows;
+        private SqlStatementEvent openEvent;
+
+        StatementHandler(Statement target, SlowQueryLog log, String preparedSql) {
+            this.target = target;
+            this.log = log;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && preparedSql != null) {
+                bindCount = Math.max(bindCount, (Integer) args[0]);
+            } else if (name.equals("clearParameters")) {
+                bindCount = 0;
+            } else if (name.equals("close")) {
+                finishQuery();
+            } else if (name.startsWith("execute")) {
+                finishQuery();
+                String sql = args != null && args.length > 0 && args[0] instanceof String
+                        ? (String) args[0] : preparedSql;
+                SqlStatementEvent event = new SqlStatementEvent();
+                event.begin();
+                long start = System.nanoTime();
+                Object result = TimedConnection.invoke(target, method, args);
+                long nanos = System.nanoTime() - start;
+                if (result instanceof ResultSet) {
+                    openSql = sql;
+                    openNanos = nanos;
+                    openRows = 0;
+                    openEvent = event.isEnabled() ? event : null;
+                    return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                            new ResultSetHandler((ResultSet) result, this));
+                }
+                log.statementFinished(sql, bindCount, nanos);
+                commitEvent(event, sql, updateCount(result));
+                return result;
+            }
+            return TimedConnection.invoke(target, method, args);
+        }
+
+        void finishQuery() {
+            if (openSql != null) {
+                log.statementFinished(openSql, bindCount, openNanos);
+                if (openEvent != null) {
+                    commitEvent(openEvent, openSql, openRows);
+                    openEvent = null;
+                }
+                openSql = null;
+            }
+        }
+
+        /**
+         * Fills in and commits a Flight Recorder event if it is being recorded.
+         */
+        private void commitEvent(SqlStatementEvent event, String sql, long rows) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sql = sql != null ? SlowQueryLog.normalize(sql) : null;
+                event.bindCount = bindCount;
+                event.rows = rows;
+                event.commit();
+            }
+        }
+
+        private static long updateCount(Object result) {
+            if (result instanceof Integer) {
+                return (Integer) result;
+            }
+            if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Adds the time spent reading rows to the statement that produced them.
+     */
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                Object result = TimedConnection.invoke(target, method, args);
+                statement.openNanos += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(result)) {
+                    statement.openRows++;
+                }
+                return result;
+            }
+            if (name.equals("close")) {
+                statement.finishQuery();
+            }
+            return TimedConnection.invoke(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package exceptions;
+
+/**
+ * Exception thrown when a record was changed by someone else between being
+ * read and being updated (optimistic concurrency conflict).
+ */
+public class ConcurrentUpdateException extends Exception {
+
+    public ConcurrentUpdateException(String entity, String id) {
+        super(entity + " '" + id + "' was changed or deleted by another user. Please reload and try again.");
+    }
+
+    public ConcurrentUpdateException(String entity, int id) {
+        this(entity, String.valueOf(id));
+    }
+}
@@ -0,0 +1,270 @@
+package facade;
+
+import dao.ListingOrder;
+import exceptions.AttendanceRecordNotFoundException;
+import exceptions.PaymentNotFoundException;
+import facade.StudentManagementFacade.StudentInfo;
+import model.Attendance;
+import model.Payment;
+import model.PaymentListing;
+import model.Student;
+import util.VirtualThreads;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Asynchronous variant of StudentManagementFacade.
+ * Every method runs the matching blocking facade call on a thread-per-task
+ * executor (virtual threads when available) and returns a CompletableFuture.
+ * Checked exceptions (SQLException, InvalidInputException, ...) complete the
+ * future exceptionally, wrapped in a CompletionException.
+ * Uses Singleton pattern to ensure single instance.
+ */
+public class AsyncStudentManagementFacade {
+
+    private final StudentManagementFacade facade;
+    private final ExecutorService executor;
+
+    // Singleton instance
+    private static AsyncStudentManagementFacade instance;
+
+    private AsyncStudentManagementFacade() {
+        this.facade = StudentManagementFacade.getInstance();
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("facade-async");
+    }
+
+    /**
+     * Gets the singleton instance of AsyncStudentManagementFacade.
+     * Thread-safe implementation.
+     */
+    public static synchronized AsyncStudentManagementFacade getInstance() {
+        if (instance == null) {
+            instance = new AsyncStudentManagementFacade();
+        }
+        return instance;
+    }
+
+    /**
+     * Blocking facade call that may throw checked exceptions.
+     */
+    @FunctionalInterface
+    private interface FacadeCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Blocking facade call without a result.
+     */
+    @FunctionalInterface
+    private interface FacadeAction {
+        void run() throws Exception;
+    }
+
+    private <T> CompletableFuture<T> supply(FacadeCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private CompletableFuture<Void> run(FacadeAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // ========== Student Operations ==========
+
+    public CompletableFuture<Void> addStudent(String studentId, String name, int age, String course, String email) {
+        return run(() -> facade.addStudent(studentId, name, age, course, email));
+    }
+
+    public CompletableFuture<Student> getStudent(String studentId) {
+        return supply(() -> facade.getStudent(studentId));
+    }
+
+    public CompletableFuture<Void> updateStudent(String studentId, String name, int age, String course, String email) {
+        return run(() -> facade.updateStudent(studentId, name, age, course, email));
+    }
+
+    public CompletableFuture<Void> deleteStudent(String studentId) {
+        return run(() -> facade.deleteStudent(studentId));
+    }
+
+    public CompletableFuture<List<Student>> getAllStudents() {
+        return supply(facade::getAllStudents);
+    }
+
+    public CompletableFuture<Student> searchStudent(String studentId) {
+        return supply(() -> facade.searchStudent(studentId));
+    }
+
+    public CompletableFuture<List<Student>> getStudentsByIds(Collection<String> studentIds) {
+        return supply(() -> facade.getStudentsByIds(studentIds));
+    }
+
+    public CompletableFuture<List<Student>> searchStudentsByName(String name) {
+        return supply(() -> facade.searchStudentsByName(name));
+    }
+
+    public CompletableFuture<Void> updateEnrollmentStatus(String studentId, String status) {
+        return run(() -> facade.updateEnrollmentStatus(studentId, status));
+    }
+
+    // ========== Attendance Operations ==========
+
+    public CompletableFuture<Void> markAttendance(String studentId, String date, String status) {
+        return run(() -> facade.markAttendance(studentId, date, status));
+    }
+
+    public CompletableFuture<List<Attendance>> getStudentAttendance(String studentId) {
+        return supply(() -> facade.getStudentAttendance(studentId));
+    }
+
+    public CompletableFuture<List<Attendance>> getAllAttendance() {
+        return supply(facade::getAllAttendance);
+    }
+
+    public CompletableFuture<Double> getAttendanceRate(String studentId) {
+        return supply(() -> facade.getAttendanceRate(studentId));
+    }
+
+    public CompletableFuture<Void> updateAttendance(int id, String status) {
+        return run(() -> facade.updateAttendance(id, status));
+    }
+
+    public CompletableFuture<Void> deleteAttendance(int id) {
+        return run(() -> facade.deleteAttendance(id));
+    }
+
+    // ========== Payment Operations ==========
+
+    public CompletableFuture<Void> addPayment(String studentId, double amount, String date, String description) {
+        return run(() -> facade.addPayment(studentId, amount, date, description));
+    }
+
+    public CompletableFuture<List<Payment>> getStudentPayments(String studentId) {
+        return supply(() -> facade.getStudentPayments(studentId));
+    }
+
+    public CompletableFuture<List<Payment>> getAllPayments() {
+        return supply(facade::getAllPayments);
+    }
+
+    public CompletableFuture<List<PaymentListing>> getPaymentListings(String search, String dateFrom, String dateTo,
+                                                                      ListingOrder order) {
+        return supply(() -> facade.getPaymentListings(search, dateFrom, dateTo, order));
+    }
+
+    public CompletableFuture<List<PaymentListing>> getPaymentListingsByIds(Collection<Integer> ids) {
+        return supply(() -> facade.getPaymentListingsByIds(ids));
+    }
+
+    public CompletableFuture<Double> getTotalPaid(String studentId) {
+        return supply(() -> facade.getTotalPaid(studentId));
+    }
+
+    public CompletableFuture<Double> getBalance(String studentId) {
+        return supply(() -> facade.getBalance(studentId));
+    }
+
+    public CompletableFuture<Void> updatePayment(int id, double amount, String description) {
+        return run(() -> facade.updatePayment(id, amount, description));
+    }
+
+    public CompletableFuture<Void> deletePayment(int id) {
+        return run(() -> facade.deletePayment(id));
+    }
+
+    // ========== Combined Operations (Fan-out) ==========
+
+    /**
+     * Gets complete student information, running the student lookup,
+     * attendance rate, total paid and balance queries concurrently.
+     * Same semantics as StudentManagementFacade.getCompleteStudentInfo:
+     * a missing student fails the future, missing attendance/payment data yields 0.0.
+     */
+    public CompletableFuture<StudentInfo> getCompleteStudentInfo(String studentId) {
+        CompletableFuture<Student> student = getStudent(studentId);
+        CompletableFuture<Double> rate = getAttendanceRate(studentId).exceptionally(e -> 0.0);
+        CompletableFuture<Double> totalPaid = getTotalPaid(studentId).exceptionally(e -> 0.0);
+        CompletableFuture<Double> balance = getBalance(studentId).exceptionally(e -> 0.0);
+
+        return CompletableFuture.allOf(rate, totalPaid, balance)
+                .thenCombine(student, (ignored, s) -> new StudentInfo(s, rate.join(), totalPaid.join(), balance.join()));
+    }
+
+    /**
+     * Loads everything a dashboard needs for one student - the student,
+     * their attendance history and payment history - concurrently.
+     * Students without attendance or payment records get empty lists.
+     */
+    public CompletableFuture<StudentRecords> loadStudentRecords(String studentId) {
+        CompletableFuture<Student> student = getStudent(studentId);
+        CompletableFuture<List<Attendance>> attendance = getStudentAttendance(studentId)
+                .exceptionally(e -> emptyIfMissing(e, AttendanceRecordNotFoundException.class));
+        CompletableFuture<List<Payment>> payments = getStudentPayments(studentId)
+                .exceptionally(e -> emptyIfMissing(e, PaymentNotFoundException.class));
+
+        return CompletableFuture.allOf(attendance, payments)
+                .thenCombine(student, (ignored, s) -> new StudentRecords(s, attendance.join(), payments.join()));
+    }
+
+    /**
+     * Maps a "no records" failure to an empty list and rethrows anything else.
+     */
+    private static <T> List<T> emptyIfMissing(Throwable error, Class<? extends Exception> notFoundType) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (notFoundType.isInstance(cause)) {
+            return Collections.emptyList();
+        }
+        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+    }
+
+    /**
+     * Shuts down the executor. Pending tasks are allowed to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Holds a student together with their attendance and payment history.
+     * Part of the facade pattern - provides aggregated data structure.
+     */
+    public static class StudentRecords {
+        private final Student student;
+        private final List<Attendance> attendance;
+        private final List<Payment> payments;
+
+        public StudentRecords(Student student, List<Attendance> attendance, List<Payment> payments) {
+            this.student = student;
+            this.attendance = attendance;
+            this.payments = payments;
+        }
+
+        // Getters
+        public Student getStudent() {
+            return student;
+        }
+
+        public List<Attendance> getAttendance() {
+            return attendance;
+        }
+
+        public List<Payment> getPayments() {
+            return payments;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package facade;
+
+import facade.StudentManagementFacade.StudentInfo;
+import metrics.HeapFootprint;
+import observer.StudentDataManager;
+import observer.StudentDataObserver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded cache of complete student information for the dashboard.
+ * Uses Singleton pattern to ensure single instance.
+ *
+ * Entries are loads started through AsyncStudentManagementFacade, so a
+ * student that is being prefetched is not queried a second time when the
+ * dashboard asks for it. The least recently used entry is dropped once
+ * MAX_ENTRIES students are cached, and failed loads are never kept.
+ *
+ * Implements Observer pattern: a change to known students, or to attendance
+ * and payment records of known students (as the facade reports its own
+ * writes), drops just those students. Any other change empties the cache:
+ * unkeyed events do not name the student, and attendance and payment events
+ * from other instances name records, not students, yet alter the dashboard
+ * figures.
+ * Safe to use from any thread.
+ */
+public class StudentInfoCache implements StudentDataObserver {
+    private static final int MAX_ENTRIES = 64;
+
+    private static StudentInfoCache instance;
+
+    private final AsyncStudentManagementFacade facade;
+
+    // Student ID -> pending or completed load, least recently used first
+    private final LinkedHashMap<String, CompletableFuture<StudentInfo>> entries =
+            new LinkedHashMap<String, CompletableFuture<StudentInfo>>(MAX_ENTRIES * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<StudentInfo>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private StudentInfoCache() {
+        this.facade = AsyncStudentManagementFacade.getInstance();
+        StudentDataManager.getInstance().addObserver(this);
+        HeapFootprint.getInstance().register("StudentInfoCache", this, cache -> new Object[] {cache});
+    }
+
+    /**
+     * Gets the singleton instance of StudentInfoCache.
+     * Thread-safe implementation.
+     */
+    public static synchronized StudentInfoCache getInstance() {
+        if (instance == null) {
+            instance = new StudentInfoCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets complete information for a student, loading it if it is not cached.
+     * The future fails like AsyncStudentManagementFacade.getCompleteStudentInfo.
+     */
+    public synchronized CompletableFuture<StudentInfo> get(String studentId) {
+        CompletableFuture<StudentInfo> entry = entries.get(studentId);
+        if (entry == null) {
+            entry = load(studentId);
+        }
+        return entry;
+    }
+
+    /**
+     * Starts loading a student in the background unless it is already cached.
+     * A student that is already cached keeps its place in the eviction order.
+     */
+    public synchronized void prefetch(String studentId) {
+        if (studentId != null && !entries.containsKey(studentId)) {
+            load(studentId);
+        }
+    }
+
+    /**
+     * Drops all cached students.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached students.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private CompletableFuture<StudentInfo> load(String studentId) {
+        CompletableFuture<StudentInfo> entry = facade.getCompleteStudentInfo(studentId);
+        entries.put(studentId, entry);
+        entry.whenComplete((info, error) -> {
+            if (error != null) {
+                forget(studentId, entry);
+            }
+        });
+        return entry;
+    }
+
+    /**
+     * Removes a failed load, unless it was already replaced by a newer one.
+     */
+    private synchronized void forget(String studentId, CompletableFuture<StudentInfo> entry) {
+        entries.remove(studentId, entry);
+    }
+
+    @Override
+    public void onStudentDataChanged(String eventType) {
+        clear();
+    }
+
+    @Override
+    public void onStudentDataChanged(String eventType, Set<String> keys) {
+        if ("ATTENDANCE".equals(eventType) || "PAYMENT".equals(eventType)) {
+            clear();
+            return;
+        }
+        synchronized (this) {
+            entries.keySet().removeAll(keys);
+        }
+    }
+
+    @Override
+    public synchronized void onStudentRecordsChanged(String eventType, Set<String> recordIds,
+                                                     Set<String> studentIds) {
+        entries.keySet().removeAll(studentIds);
+    }
+}
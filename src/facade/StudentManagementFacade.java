@@ -3,17 +3,29 @@ package facade;
 import controller.AttendanceController;
 import controller.PaymentController;
 import controller.StudentController;
+import dao.AttendanceDAO.AttendanceCounts;
+import dao.ListingKey;
+import dao.ListingOrder;
 import exceptions.*;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import metrics.FacadeOperationEvent;
+import metrics.MetricsRegistry;
+import metrics.OperationCounter;
 import model.Attendance;
+import model.AttendanceListing;
 import model.Payment;
+import model.PaymentListing;
 import model.Student;
 import observer.StudentDataManager;
 import state.EnrolledState;
 import state.GraduatedState;
 import state.StudentEnrollmentContext;
 import state.SuspendedState;
+import util.StudentDirectory;
+import util.StudentLockManager;
 
 /**
  * Facade pattern implementation.
@@ -23,6 +35,48 @@ import state.SuspendedState;
  * Uses Singleton pattern to ensure single instance.
  */
 public class StudentManagementFacade {
+    // Used when the caller has no version to check against
+    private static final int ANY_VERSION = -1;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    // Call counter and Flight Recorder event per facade method
+    private static final FacadeOperation ADD_STUDENT = new FacadeOperation("addStudent");
+    private static final FacadeOperation GET_STUDENT = new FacadeOperation("getStudent");
+    private static final FacadeOperation UPDATE_STUDENT = new FacadeOperation("updateStudent");
+    private static final FacadeOperation DELETE_STUDENT = new FacadeOperation("deleteStudent");
+    private static final FacadeOperation GET_ALL_STUDENTS = new FacadeOperation("getAllStudents");
+    private static final FacadeOperation SEARCH_STUDENT = new FacadeOperation("searchStudent");
+    private static final FacadeOperation GET_STUDENTS_BY_IDS = new FacadeOperation("getStudentsByIds");
+    private static final FacadeOperation SEARCH_STUDENTS_BY_NAME = new FacadeOperation("searchStudentsByName");
+    private static final FacadeOperation UPDATE_ENROLLMENT_STATUS = new FacadeOperation("updateEnrollmentStatus");
+    private static final FacadeOperation MARK_ATTENDANCE = new FacadeOperation("markAttendance");
+    private static final FacadeOperation GET_STUDENT_ATTENDANCE = new FacadeOperation("getStudentAttendance");
+    private static final FacadeOperation GET_ALL_ATTENDANCE = new FacadeOperation("getAllAttendance");
+    private static final FacadeOperation COUNT_ATTENDANCE = new FacadeOperation("countAttendance");
+    private static final FacadeOperation GET_ATTENDANCE_LISTING_IDS = new FacadeOperation("getAttendanceListingIds");
+    private static final FacadeOperation GET_ATTENDANCE_LISTINGS_AFTER =
+            new FacadeOperation("getAttendanceListingsAfter");
+    private static final FacadeOperation GET_ATTENDANCE_LISTING_KEY =
+            new FacadeOperation("getAttendanceListingKey");
+    private static final FacadeOperation GET_ATTENDANCE_LISTINGS_BY_IDS =
+            new FacadeOperation("getAttendanceListingsByIds");
+    private static final FacadeOperation GET_ATTENDANCE_BY_DATE = new FacadeOperation("getAttendanceByDate");
+    private static final FacadeOperation GET_ATTENDANCE_RATE = new FacadeOperation("getAttendanceRate");
+    private static final FacadeOperation DELETE_ATTENDANCE = new FacadeOperation("deleteAttendance");
+    private static final FacadeOperation UPDATE_ATTENDANCE = new FacadeOperation("updateAttendance");
+    private static final FacadeOperation ADD_PAYMENT = new FacadeOperation("addPayment");
+    private static final FacadeOperation GET_STUDENT_PAYMENTS = new FacadeOperation("getStudentPayments");
+    private static final FacadeOperation GET_ALL_PAYMENTS = new FacadeOperation("getAllPayments");
+    private static final FacadeOperation GET_PAYMENT_LISTINGS = new FacadeOperation("getPaymentListings");
+    private static final FacadeOperation GET_PAYMENT_LISTINGS_BY_IDS =
+            new FacadeOperation("getPaymentListingsByIds");
+    private static final FacadeOperation GET_TOTAL_PAID = new FacadeOperation("getTotalPaid");
+    private static final FacadeOperation GET_BALANCE = new FacadeOperation("getBalance");
+    private static final FacadeOperation GET_PAYMENT = new FacadeOperation("getPayment");
+    private static final FacadeOperation DELETE_PAYMENT = new FacadeOperation("deletePayment");
+    private static final FacadeOperation UPDATE_PAYMENT = new FacadeOperation("updatePayment");
+    private static final FacadeOperation GET_COMPLETE_STUDENT_INFO = new FacadeOperation("getCompleteStudentInfo");
+
     private StudentController studentController;
     private AttendanceController attendanceController;
     private PaymentController paymentController;
@@ -55,9 +109,15 @@ public class StudentManagementFacade {
      */
     public void addStudent(String studentId, String name, int age, String course, String email)
             throws InvalidInputException, DuplicateStudentException, SQLException {
-        studentController.addStudent(studentId, name, age, course, email);
-        // Observer Pattern: Notify observers of data change
-        StudentDataManager.getInstance().notifyStudentAdded();
+        FacadeOperationEvent event = ADD_STUDENT.begin();
+        try {
+            studentController.addStudent(studentId, name, age, course, email);
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentAdded(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -65,7 +125,12 @@ public class StudentManagementFacade {
      */
     public Student getStudent(String studentId)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        return studentController.getStudent(studentId);
+        FacadeOperationEvent event = GET_STUDENT.begin();
+        try {
+            return studentController.getStudent(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -73,10 +138,35 @@ public class StudentManagementFacade {
      * Observer Pattern: Notifies observers after successful update.
      */
     public void updateStudent(String studentId, String name, int age, String course, String email)
-            throws InvalidInputException, StudentNotFoundException, SQLException {
-        studentController.updateStudent(studentId, name, age, course, email);
-        // Observer Pattern: Notify observers of data change
-        StudentDataManager.getInstance().notifyStudentUpdated();
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_STUDENT.begin();
+        try {
+            studentController.updateStudent(studentId, name, age, course, email);
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentUpdated(studentId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Updates an existing student if it is still at the version the caller read.
+     * Throws ConcurrentUpdateException if someone else changed it in the meantime.
+     * Observer Pattern: Notifies observers after successful update.
+     */
+    public void updateStudent(String studentId, String name, int age, String course, String email,
+            int expectedVersion)
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_STUDENT.begin();
+        try {
+            studentController.updateStudent(studentId, name, age, course, email, expectedVersion);
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentUpdated(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -85,80 +175,180 @@ public class StudentManagementFacade {
      */
     public void deleteStudent(String studentId)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        studentController.deleteStudent(studentId);
-        // Observer Pattern: Notify observers of data change
-        StudentDataManager.getInstance().notifyStudentDeleted();
+        FacadeOperationEvent event = DELETE_STUDENT.begin();
+        try {
+            studentController.deleteStudent(studentId);
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentDeleted(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Gets all students.
      */
     public List<Student> getAllStudents() throws SQLException {
-        return studentController.getAllStudents();
+        FacadeOperationEvent event = GET_ALL_STUDENTS.begin();
+        try {
+            return studentController.getAllStudents();
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Searches for a student by ID.
      */
     public Student searchStudent(String studentId) throws SQLException {
-        return studentController.searchStudent(studentId);
+        FacadeOperationEvent event = SEARCH_STUDENT.begin();
+        try {
+            return studentController.searchStudent(studentId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the students with the given IDs, e.g. to update rows another
+     * instance changed. IDs with no student (deleted) are left out.
+     */
+    public List<Student> getStudentsByIds(Collection<String> studentIds) throws SQLException {
+        FacadeOperationEvent event = GET_STUDENTS_BY_IDS.begin();
+        try {
+            return studentController.getStudentsByIds(studentIds);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Searches students by name.
      */
     public List<Student> searchStudentsByName(String name) throws SQLException {
-        return studentController.searchStudentsByName(name);
+        FacadeOperationEvent event = SEARCH_STUDENTS_BY_NAME.begin();
+        try {
+            return studentController.searchStudentsByName(name);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Updates enrollment status for a student.
      * Uses State Pattern to manage enrollment state transitions.
+     * Retries if another instance changes the student between read and write.
      * Observer Pattern: Notifies observers after successful update.
      */
     public void updateEnrollmentStatus(String studentId, String status)
-            throws InvalidInputException, StudentNotFoundException, SQLException {
-
-        // Get current student to determine current state
-        Student student = studentController.getStudent(studentId);
-        StudentEnrollmentContext context = new StudentEnrollmentContext();
-
-        // Set initial state based on current enrollment status
-        String currentStatus = student.getEnrollmentStatus();
-        if ("SUSPENDED".equals(currentStatus)) {
-            context.setState(new SuspendedState());
-        } else if ("GRADUATED".equals(currentStatus)) {
-            context.setState(new GraduatedState());
-        } else {
-            context.setState(new EnrolledState());
-        }
-
-        // Perform state transition based on new status
-        switch (status) {
-            case "ENROLLED":
-                if (context.isSuspended()) {
-                    context.activate();
-                } else if (context.isGraduated()) {
-                    context.enroll();
-                }
-                break;
-            case "SUSPENDED":
-                if (context.isEnrolled()) {
-                    context.suspend();
-                }
-                break;
-            case "GRADUATED":
-                if (context.isEnrolled()) {
-                    context.graduate();
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_ENROLLMENT_STATUS.begin();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    changeEnrollmentStatus(studentId, status, ANY_VERSION);
+                    break;
+                } catch (ConcurrentUpdateException e) {
+                    if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                        throw e;
+                    }
                 }
-                break;
+            }
+
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentUpdated(studentId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Updates enrollment status if the student is still at the version the caller read.
+     * Throws ConcurrentUpdateException if someone else changed it in the meantime.
+     * Observer Pattern: Notifies observers after successful update.
+     */
+    public void updateEnrollmentStatus(String studentId, String status, int expectedVersion)
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_ENROLLMENT_STATUS.begin();
+        try {
+            changeEnrollmentStatus(studentId, status, expectedVersion);
+
+            refreshDirectory(studentId);
+            // Observer Pattern: Notify observers of data change
+            StudentDataManager.getInstance().notifyStudentUpdated(studentId);
+        } finally {
+            event.commit();
         }
+    }
 
-        // Update database
-        studentController.updateEnrollmentStatus(studentId, status);
+    /**
+     * Reads the student, runs the state transition and writes the new status.
+     * Runs under the student's striped lock to prevent lost updates within
+     * this instance; the versioned write catches changes from other instances.
+     */
+    private void changeEnrollmentStatus(String studentId, String status, int expectedVersion)
+            throws InvalidInputException, StudentNotFoundException, ConcurrentUpdateException, SQLException {
 
-        // Observer Pattern: Notify observers of data change
-        StudentDataManager.getInstance().notifyStudentUpdated();
+        // Hold the student's lock so the read, transition and write are atomic
+        ReentrantLock lock = StudentLockManager.getInstance().lock(studentId);
+        try {
+            // Get current student to determine current state
+            Student student = studentController.getStudent(studentId);
+            if (expectedVersion != ANY_VERSION && student.getVersion() != expectedVersion) {
+                throw new ConcurrentUpdateException("Student", studentId);
+            }
+            StudentEnrollmentContext context = new StudentEnrollmentContext();
+
+            // Set initial state based on current enrollment status
+            String currentStatus = student.getEnrollmentStatus();
+            if ("SUSPENDED".equals(currentStatus)) {
+                context.setState(new SuspendedState());
+            } else if ("GRADUATED".equals(currentStatus)) {
+                context.setState(new GraduatedState());
+            } else {
+                context.setState(new EnrolledState());
+            }
+
+            // Perform state transition based on new status
+            switch (status) {
+                case "ENROLLED":
+                    if (context.isSuspended()) {
+                        context.activate();
+                    } else if (context.isGraduated()) {
+                        context.enroll();
+                    }
+                    break;
+                case "SUSPENDED":
+                    if (context.isEnrolled()) {
+                        context.suspend();
+                    }
+                    break;
+                case "GRADUATED":
+                    if (context.isEnrolled()) {
+                        context.graduate();
+                    }
+                    break;
+            }
+
+            // Update database
+            studentController.updateEnrollmentStatus(studentId, status, student.getVersion());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Brings the shared student directory up to date after a student was written.
+     * The write already succeeded, so a failure here is only logged.
+     */
+    private void refreshDirectory(String studentId) {
+        try {
+            StudentDirectory.getInstance().refresh(studentId);
+        } catch (SQLException e) {
+            System.err.println("Failed to refresh student directory for " + studentId + ": " + e.getMessage());
+        }
     }
 
     // ========== Attendance Operations ==========
@@ -168,8 +358,13 @@ public class StudentManagementFacade {
      */
     public void markAttendance(String studentId, String status)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        attendanceController.markAttendance(studentId, status);
-        StudentDataManager.getInstance().notifyAttendanceUpdated();
+        FacadeOperationEvent event = MARK_ATTENDANCE.begin();
+        try {
+            int id = attendanceController.markAttendance(studentId, status);
+            StudentDataManager.getInstance().notifyAttendanceUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -177,8 +372,13 @@ public class StudentManagementFacade {
      */
     public void markAttendance(String studentId, String date, String status)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        attendanceController.markAttendance(studentId, date, status);
-        StudentDataManager.getInstance().notifyAttendanceUpdated();
+        FacadeOperationEvent event = MARK_ATTENDANCE.begin();
+        try {
+            int id = attendanceController.markAttendance(studentId, date, status);
+            StudentDataManager.getInstance().notifyAttendanceUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -186,14 +386,93 @@ public class StudentManagementFacade {
      */
     public List<Attendance> getStudentAttendance(String studentId)
             throws InvalidInputException, AttendanceRecordNotFoundException, SQLException {
-        return attendanceController.getStudentAttendance(studentId);
+        FacadeOperationEvent event = GET_STUDENT_ATTENDANCE.begin();
+        try {
+            return attendanceController.getStudentAttendance(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Gets all attendance records.
      */
     public List<Attendance> getAllAttendance() throws SQLException {
-        return attendanceController.getAllAttendance();
+        FacadeOperationEvent event = GET_ALL_ATTENDANCE.begin();
+        try {
+            return attendanceController.getAllAttendance();
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts attendance records matching a search/date filter, by status.
+     */
+    public AttendanceCounts countAttendance(String search, String dateFilter) throws SQLException {
+        FacadeOperationEvent event = COUNT_ATTENDANCE.begin();
+        try {
+            return attendanceController.countAttendance(search, dateFilter);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the IDs of every record in the attendance listing, in order, so
+     * the attendance table can page through a name order without sorting
+     * the whole listing for every page.
+     */
+    public int[] getAttendanceListingIds(String search, String dateFilter, ListingOrder order) throws SQLException {
+        FacadeOperationEvent event = GET_ATTENDANCE_LISTING_IDS.begin();
+        try {
+            return attendanceController.getAttendanceListingIds(search, dateFilter, order);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the page of the attendance listing that follows a row, for the
+     * date orders. Seeks the (date, id) index, so deep pages cost the same
+     * as the first one.
+     */
+    public List<AttendanceListing> getAttendanceListingsAfter(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int limit) throws InvalidInputException, SQLException {
+        FacadeOperationEvent event = GET_ATTENDANCE_LISTINGS_AFTER.begin();
+        try {
+            return attendanceController.getAttendanceListingsAfter(search, dateFilter, order, after, limit);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Finds the key of the row skip rows after another (or after the start)
+     * in the attendance listing, to start paging somewhere in the middle.
+     * Returns null if the listing has fewer rows.
+     */
+    public ListingKey getAttendanceListingKey(String search, String dateFilter, ListingOrder order,
+            ListingKey after, int skip) throws InvalidInputException, SQLException {
+        FacadeOperationEvent event = GET_ATTENDANCE_LISTING_KEY.begin();
+        try {
+            return attendanceController.getAttendanceListingKey(search, dateFilter, order, after, skip);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the listing rows of the given attendance records, e.g. to update
+     * rows another instance changed. IDs with no record (deleted) are left out.
+     */
+    public List<AttendanceListing> getAttendanceListingsByIds(Collection<Integer> ids) throws SQLException {
+        FacadeOperationEvent event = GET_ATTENDANCE_LISTINGS_BY_IDS.begin();
+        try {
+            return attendanceController.getAttendanceListingsByIds(ids);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -201,7 +480,12 @@ public class StudentManagementFacade {
      */
     public List<Attendance> getAttendanceByDate(String date)
             throws InvalidInputException, SQLException {
-        return attendanceController.getAttendanceByDate(date);
+        FacadeOperationEvent event = GET_ATTENDANCE_BY_DATE.begin();
+        try {
+            return attendanceController.getAttendanceByDate(date);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -209,15 +493,25 @@ public class StudentManagementFacade {
      */
     public double getAttendanceRate(String studentId)
             throws InvalidInputException, SQLException {
-        return attendanceController.getAttendanceRate(studentId);
+        FacadeOperationEvent event = GET_ATTENDANCE_RATE.begin();
+        try {
+            return attendanceController.getAttendanceRate(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Deletes an attendance record.
      */
     public void deleteAttendance(int id) throws SQLException {
-        attendanceController.deleteAttendance(id);
-        StudentDataManager.getInstance().notifyAttendanceUpdated();
+        FacadeOperationEvent event = DELETE_ATTENDANCE.begin();
+        try {
+            String studentId = attendanceController.deleteAttendance(id);
+            StudentDataManager.getInstance().notifyAttendanceUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -225,8 +519,27 @@ public class StudentManagementFacade {
      */
     public void updateAttendance(int id, String status)
             throws InvalidInputException, SQLException {
-        attendanceController.updateAttendance(id, status);
-        StudentDataManager.getInstance().notifyAttendanceUpdated();
+        FacadeOperationEvent event = UPDATE_ATTENDANCE.begin();
+        try {
+            String studentId = attendanceController.updateAttendance(id, status);
+            StudentDataManager.getInstance().notifyAttendanceUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Updates an attendance record status if it is still at the version the caller read.
+     */
+    public void updateAttendance(int id, String status, int expectedVersion)
+            throws InvalidInputException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_ATTENDANCE.begin();
+        try {
+            String studentId = attendanceController.updateAttendance(id, status, expectedVersion);
+            StudentDataManager.getInstance().notifyAttendanceUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     // ========== Payment Operations ==========
@@ -236,8 +549,13 @@ public class StudentManagementFacade {
      */
     public void addPayment(String studentId, double amount, String description)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        paymentController.addPayment(studentId, amount, description);
-        StudentDataManager.getInstance().notifyPaymentUpdated();
+        FacadeOperationEvent event = ADD_PAYMENT.begin();
+        try {
+            int id = paymentController.addPayment(studentId, amount, description);
+            StudentDataManager.getInstance().notifyPaymentUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -245,8 +563,13 @@ public class StudentManagementFacade {
      */
     public void addPayment(String studentId, double amount, String date, String description)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        paymentController.addPayment(studentId, amount, date, description);
-        StudentDataManager.getInstance().notifyPaymentUpdated();
+        FacadeOperationEvent event = ADD_PAYMENT.begin();
+        try {
+            int id = paymentController.addPayment(studentId, amount, date, description);
+            StudentDataManager.getInstance().notifyPaymentUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -254,14 +577,51 @@ public class StudentManagementFacade {
      */
     public List<Payment> getStudentPayments(String studentId)
             throws InvalidInputException, PaymentNotFoundException, SQLException {
-        return paymentController.getStudentPayments(studentId);
+        FacadeOperationEvent event = GET_STUDENT_PAYMENTS.begin();
+        try {
+            return paymentController.getStudentPayments(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Gets all payment records.
      */
     public List<Payment> getAllPayments() throws SQLException {
-        return paymentController.getAllPayments();
+        FacadeOperationEvent event = GET_ALL_PAYMENTS.begin();
+        try {
+            return paymentController.getAllPayments();
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the payment listing: payments with their student's name, joined,
+     * filtered and ordered in SQL. Empty filter values match everything.
+     */
+    public List<PaymentListing> getPaymentListings(String search, String dateFrom, String dateTo,
+            ListingOrder order) throws SQLException {
+        FacadeOperationEvent event = GET_PAYMENT_LISTINGS.begin();
+        try {
+            return paymentController.getPaymentListings(search, dateFrom, dateTo, order);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the listing rows of the given payments, e.g. to update rows another
+     * instance changed. IDs with no payment (deleted) are left out.
+     */
+    public List<PaymentListing> getPaymentListingsByIds(Collection<Integer> ids) throws SQLException {
+        FacadeOperationEvent event = GET_PAYMENT_LISTINGS_BY_IDS.begin();
+        try {
+            return paymentController.getPaymentListingsByIds(ids);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -269,7 +629,12 @@ public class StudentManagementFacade {
      */
     public double getTotalPaid(String studentId)
             throws InvalidInputException, SQLException {
-        return paymentController.getTotalPaid(studentId);
+        FacadeOperationEvent event = GET_TOTAL_PAID.begin();
+        try {
+            return paymentController.getTotalPaid(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -277,7 +642,12 @@ public class StudentManagementFacade {
      */
     public double getBalance(String studentId)
             throws InvalidInputException, SQLException {
-        return paymentController.getBalance(studentId);
+        FacadeOperationEvent event = GET_BALANCE.begin();
+        try {
+            return paymentController.getBalance(studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -285,7 +655,12 @@ public class StudentManagementFacade {
      */
     public double getBalance(String studentId, double totalFees)
             throws InvalidInputException, SQLException {
-        return paymentController.getBalance(studentId, totalFees);
+        FacadeOperationEvent event = GET_BALANCE.begin();
+        try {
+            return paymentController.getBalance(studentId, totalFees);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -293,15 +668,25 @@ public class StudentManagementFacade {
      */
     public Payment getPayment(int id)
             throws PaymentNotFoundException, SQLException {
-        return paymentController.getPayment(id);
+        FacadeOperationEvent event = GET_PAYMENT.begin();
+        try {
+            return paymentController.getPayment(id);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
      * Deletes a payment record.
      */
     public void deletePayment(int id) throws SQLException {
-        paymentController.deletePayment(id);
-        StudentDataManager.getInstance().notifyPaymentUpdated();
+        FacadeOperationEvent event = DELETE_PAYMENT.begin();
+        try {
+            String studentId = paymentController.deletePayment(id);
+            StudentDataManager.getInstance().notifyPaymentUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -309,8 +694,27 @@ public class StudentManagementFacade {
      */
     public void updatePayment(int id, double amount, String description)
             throws InvalidInputException, SQLException {
-        paymentController.updatePayment(id, amount, description);
-        StudentDataManager.getInstance().notifyPaymentUpdated();
+        FacadeOperationEvent event = UPDATE_PAYMENT.begin();
+        try {
+            String studentId = paymentController.updatePayment(id, amount, description);
+            StudentDataManager.getInstance().notifyPaymentUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Updates a payment record if it is still at the version the caller read.
+     */
+    public void updatePayment(int id, double amount, String description, int expectedVersion)
+            throws InvalidInputException, ConcurrentUpdateException, SQLException {
+        FacadeOperationEvent event = UPDATE_PAYMENT.begin();
+        try {
+            String studentId = paymentController.updatePayment(id, amount, description, expectedVersion);
+            StudentDataManager.getInstance().notifyPaymentUpdated(id, studentId);
+        } finally {
+            event.commit();
+        }
     }
 
     // ========== Combined Operations (Facade Benefits) ==========
@@ -322,25 +726,54 @@ public class StudentManagementFacade {
      */
     public StudentInfo getCompleteStudentInfo(String studentId)
             throws InvalidInputException, StudentNotFoundException, SQLException {
-        Student student = studentController.getStudent(studentId);
-        double attendanceRate = 0.0;
-        double totalPaid = 0.0;
-        double balance = 0.0;
-
+        FacadeOperationEvent event = GET_COMPLETE_STUDENT_INFO.begin();
         try {
-            attendanceRate = attendanceController.getAttendanceRate(studentId);
-        } catch (Exception e) {
-            // If no attendance records, rate remains 0.0
+            Student student = studentController.getStudent(studentId);
+            double attendanceRate = 0.0;
+            double totalPaid = 0.0;
+            double balance = 0.0;
+
+            try {
+                attendanceRate = attendanceController.getAttendanceRate(studentId);
+            } catch (Exception e) {
+                // If no attendance records, rate remains 0.0
+            }
+
+            try {
+                totalPaid = paymentController.getTotalPaid(studentId);
+                balance = paymentController.getBalance(studentId);
+            } catch (Exception e) {
+                // If no payment records, amounts remain 0.0
+            }
+
+            return new StudentInfo(student, attendanceRate, totalPaid, balance);
+        } finally {
+            event.commit();
         }
+    }
 
-        try {
-            totalPaid = paymentController.getTotalPaid(studentId);
-            balance = paymentController.getBalance(studentId);
-        } catch (Exception e) {
-            // If no payment records, amounts remain 0.0
+    /**
+     * One facade method's instrumentation: its call counter in MetricsRegistry
+     * ("facade.methodName") and its Flight Recorder event.
+     */
+    private static final class FacadeOperation {
+        private final String name;
+        private final OperationCounter calls;
+
+        FacadeOperation(String name) {
+            this.name = name;
+            this.calls = MetricsRegistry.getInstance().counter("facade." + name);
         }
 
-        return new StudentInfo(student, attendanceRate, totalPaid, balance);
+        /**
+         * Counts a call and starts its event. Commit the event in a finally block.
+         */
+        FacadeOperationEvent begin() {
+            calls.increment();
+            FacadeOperationEvent event = new FacadeOperationEvent(name);
+            event.begin();
+            return event;
+        }
     }
 
     /**
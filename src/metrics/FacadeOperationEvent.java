@@ -0,0 +1,31 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one StudentManagementFacade call.
+ * SQL statement and observer events recorded on the same thread during the
+ * call fall inside its time span, which ties database cost to the user
+ * action that caused it. Disabled unless enabled by a settings profile
+ * (see jfr/studentapp.jfc).
+ */
+@Name("studentapp.FacadeOperation")
+@Label("Facade Operation")
+@Category("Student App")
+@Description("A StudentManagementFacade method call")
+@Enabled(false)
+@StackTrace(false)
+public class FacadeOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    public FacadeOperationEvent(String operation) {
+        this.operation = operation;
+    }
+}
@@ -0,0 +1,411 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Singleton that estimates how much heap each subsystem holds - panel
+ * models, the student directory, caches - and keeps a history of the
+ * estimates, so growth shows up before the heap runs out.
+ *
+ * Subsystems register the objects that hold their data (a panel registers
+ * its record list, table model, row sorter and search filter). A
+ * measurement walks the objects reachable from them; each object counts
+ * for the one subsystem that reaches it, or as shared if several do. The
+ * figures are estimates: see HeapWalker for what is counted and where the
+ * walk stops. Owners are held weakly, so registering does not keep a
+ * discarded panel alive.
+ *
+ * After start(), a measurement is recorded every studentapp.footprint.minutes
+ * minutes (default 5; 0 turns periodic measurements off), the last 288 are
+ * kept, and the facility is published over JMX as
+ * studentapp:type=HeapFootprint. Measurements read models off the EDT while
+ * the UI may be changing them; collections changed mid-read are left out and
+ * counted in the snapshot.
+ */
+public class HeapFootprint implements HeapFootprintMXBean {
+
+    public static final String INTERVAL_PROPERTY = "studentapp.footprint.minutes";
+
+    private static final long DEFAULT_INTERVAL_MINUTES = 5;
+    private static final int MAX_HISTORY = 288;
+    private static final int HISTORY_ROWS_IN_DUMP = 24;
+    private static final double MB = 1024.0 * 1024.0;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static HeapFootprint instance;
+
+    private final List<Registration<?>> registrations = new CopyOnWriteArrayList<>();
+    private final Deque<Snapshot> history = new ArrayDeque<>();
+    private ScheduledExecutorService scheduler;
+
+    private HeapFootprint() {
+    }
+
+    public static synchronized HeapFootprint getInstance() {
+        if (instance == null) {
+            instance = new HeapFootprint();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers objects to measure under a subsystem name. Several owners
+     * may register under the same name; their figures are added together.
+     *
+     * @param subsystem Name shown in reports, e.g. FinancePanel
+     * @param owner Object whose data is measured; held weakly
+     * @param roots Returns the objects holding the owner's data at the time of a measurement
+     */
+    public <T> void register(String subsystem, T owner, Function<T, Object[]> roots) {
+        registrations.add(new Registration<>(subsystem, owner, roots));
+    }
+
+    /**
+     * Starts periodic measurements and publishes the MBean. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "heap-footprint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long minutes = Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL_MINUTES);
+        if (minutes > 0) {
+            scheduler.scheduleAtFixedRate(this::recordSnapshot, minutes, minutes, TimeUnit.MINUTES);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=HeapFootprint"));
+        } catch (JMException e) {
+            System.err.println("Failed to register heap footprint over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Measures every registered subsystem and adds the result to the history.
+     * Takes time proportional to the number of objects held; call it off the EDT.
+     */
+    public Snapshot measure() {
+        long start = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        HeapWalker walker = new HeapWalker();
+        registrations.removeIf(registration -> registration.owner.get() == null);
+        for (Registration<?> registration : registrations) {
+            Object[] roots;
+            try {
+                roots = registration.roots();
+            } catch (RuntimeException e) {
+                // Owner not fully built yet
+                continue;
+            }
+            if (roots == null) {
+                continue;
+            }
+            int index = names.indexOf(registration.subsystem);
+            if (index < 0) {
+                index = names.size();
+                names.add(registration.subsystem);
+            }
+            walker.walk(index, roots);
+        }
+
+        long[] bytes = new long[names.size() + 1];
+        long[] objects = new long[names.size() + 1];
+        walker.totals(bytes, objects);
+        List<Usage> usages = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            usages.add(new Usage(names.get(i), bytes[i], objects[i]));
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Snapshot snapshot = new Snapshot(LocalDateTime.now(), usages, bytes[names.size()], objects[names.size()],
+                heap.getUsed(), heap.getMax(), walker.getSkippedContainers(), System.nanoTime() - start);
+
+        synchronized (history) {
+            if (history.size() >= MAX_HISTORY) {
+                history.removeFirst();
+            }
+            history.addLast(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return The last measurement, or null if there has not been one
+     */
+    public Snapshot getLatest() {
+        synchronized (history) {
+            return history.peekLast();
+        }
+    }
+
+    /**
+     * @return Recorded measurements, oldest first
+     */
+    public List<Snapshot> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        Snapshot latest = getLatest();
+        return latest != null ? latest.getTotalBytes() : 0;
+    }
+
+    @Override
+    public void recordSnapshot() {
+        try {
+            measure();
+        } catch (RuntimeException e) {
+            System.err.println("Heap footprint measurement failed: " + e);
+        }
+    }
+
+    @Override
+    public String dump() {
+        List<Snapshot> snapshots = getHistory();
+        if (snapshots.isEmpty()) {
+            snapshots = List.of(measure());
+        }
+        Snapshot first = snapshots.get(0);
+        Snapshot latest = snapshots.get(snapshots.size() - 1);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Heap footprint at %s (measured in %d ms)%n",
+                TIME_FORMAT.format(latest.getTime()), latest.getWalkMillis()));
+        sb.append(String.format(Locale.ROOT, "JVM heap: %.1f MB used of %.1f MB max%n%n",
+                latest.getHeapUsed() / MB, latest.getHeapMax() / MB));
+        sb.append(String.format("%-36s %12s %14s %14s%n", "Subsystem", "est. MB", "objects", "MB since first"));
+        for (Usage usage : latest.getUsages()) {
+            Usage before = first.getUsage(usage.getSubsystem());
+            sb.append(String.format(Locale.ROOT, "%-36s %12.3f %,14d %+14.3f%n", usage.getSubsystem(),
+                    usage.getBytes() / MB, usage.getObjects(),
+                    (usage.getBytes() - (before != null ? before.getBytes() : 0)) / MB));
+        }
+        sb.append(String.format(Locale.ROOT, "%-36s %12.3f %,14d%n", "(shared between subsystems)",
+                latest.getSharedBytes() / MB, latest.getSharedObjects()));
+        sb.append(String.format(Locale.ROOT, "%-36s %12.3f %14s %+14.3f%n", "Total", latest.getTotalBytes() / MB,
+                "", (latest.getTotalBytes() - first.getTotalBytes()) / MB));
+        if (latest.getSkippedContainers() > 0) {
+            sb.append(String.format("(%d collections changed while being read and were left out)%n",
+                    latest.getSkippedContainers()));
+        }
+
+        sb.append(System.lineSeparator()).append(formatHistory(snapshots));
+        return sb.toString();
+    }
+
+    /**
+     * @return The recorded measurements as a table, one row per measurement
+     */
+    public String historyReport() {
+        return formatHistory(getHistory());
+    }
+
+    private static String formatHistory(List<Snapshot> snapshots) {
+        StringBuilder sb = new StringBuilder();
+        if (snapshots.isEmpty()) {
+            return sb.append("No measurements yet").append(System.lineSeparator()).toString();
+        }
+        Snapshot latest = snapshots.get(snapshots.size() - 1);
+        sb.append(String.format("History (est. MB), last %d of %d measurements:%n",
+                Math.min(HISTORY_ROWS_IN_DUMP, snapshots.size()), snapshots.size()));
+        sb.append(String.format("%-20s %10s %10s", "Time", "heap used", "total"));
+        for (Usage usage : latest.getUsages()) {
+            sb.append(String.format(" %" + Math.max(10, usage.getSubsystem().length()) + "s", usage.getSubsystem()));
+        }
+        sb.append(System.lineSeparator());
+        for (Snapshot snapshot : snapshots.subList(Math.max(0, snapshots.size() - HISTORY_ROWS_IN_DUMP),
+                snapshots.size())) {
+            sb.append(String.format(Locale.ROOT, "%-20s %10.1f %10.3f", TIME_FORMAT.format(snapshot.getTime()),
+                    snapshot.getHeapUsed() / MB, snapshot.getTotalBytes() / MB));
+            for (Usage usage : latest.getUsages()) {
+                Usage then = snapshot.getUsage(usage.getSubsystem());
+                String width = "%" + Math.max(10, usage.getSubsystem().length());
+                sb.append(then != null ? String.format(Locale.ROOT, " " + width + ".3f", then.getBytes() / MB)
+                        : String.format(" " + width + "s", "-"));
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes dump() to heap-footprint-yyyyMMdd-HHmmss.txt in the given directory.
+     *
+     * @return The file written
+     */
+    public Path dumpToFile(Path directory) throws IOException {
+        Path file = directory.resolve("heap-footprint-" + FILE_TIME_FORMAT.format(LocalDateTime.now()) + ".txt");
+        Files.writeString(file, dump(), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Writes dump() to the working directory.
+     */
+    public Path dumpToFile() throws IOException {
+        return dumpToFile(Paths.get(""));
+    }
+
+    private static class Registration<T> {
+        final String subsystem;
+        final WeakReference<T> owner;
+        final Function<T, Object[]> roots;
+
+        Registration(String subsystem, T owner, Function<T, Object[]> roots) {
+            this.subsystem = subsystem;
+            this.owner = new WeakReference<>(owner);
+            this.roots = roots;
+        }
+
+        Object[] roots() {
+            T target = owner.get();
+            return target != null ? roots.apply(target) : null;
+        }
+    }
+
+    /**
+     * Estimated heap held by one subsystem.
+     */
+    public static class Usage {
+        private final String subsystem;
+        private final long bytes;
+        private final long objects;
+
+        Usage(String subsystem, long bytes, long objects) {
+            this.subsystem = subsystem;
+            this.bytes = bytes;
+            this.objects = objects;
+        }
+
+        public String getSubsystem() {
+            return subsystem;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getObjects() {
+            return objects;
+        }
+    }
+
+    /**
+     * One measurement of all subsystems.
+     */
+    public static class Snapshot {
+        private final LocalDateTime time;
+        private final List<Usage> usages;
+        private final long sharedBytes;
+        private final long sharedObjects;
+        private final long heapUsed;
+        private final long heapMax;
+        private final int skippedContainers;
+        private final long walkNanos;
+
+        Snapshot(LocalDateTime time, List<Usage> usages, long sharedBytes, long sharedObjects, long heapUsed,
+                long heapMax, int skippedContainers, long walkNanos) {
+            this.time = time;
+            this.usages = Collections.unmodifiableList(new ArrayList<>(usages));
+            this.sharedBytes = sharedBytes;
+            this.sharedObjects = sharedObjects;
+            this.heapUsed = heapUsed;
+            this.heapMax = heapMax;
+            this.skippedContainers = skippedContainers;
+            this.walkNanos = walkNanos;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        /**
+         * @return Per subsystem, in registration order
+         */
+        public List<Usage> getUsages() {
+            return usages;
+        }
+
+        /**
+         * @return The subsystem's usage, or null if it was not measured
+         */
+        public Usage getUsage(String subsystem) {
+            for (Usage usage : usages) {
+                if (usage.getSubsystem().equals(subsystem)) {
+                    return usage;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return Bytes reachable from more than one subsystem
+         */
+        public long getSharedBytes() {
+            return sharedBytes;
+        }
+
+        public long getSharedObjects() {
+            return sharedObjects;
+        }
+
+        /**
+         * @return All subsystems plus shared objects
+         */
+        public long getTotalBytes() {
+            long total = sharedBytes;
+            for (Usage usage : usages) {
+                total += usage.getBytes();
+            }
+            return total;
+        }
+
+        /**
+         * @return JVM heap in use at the time, including garbage not yet collected
+         */
+        public long getHeapUsed() {
+            return heapUsed;
+        }
+
+        public long getHeapMax() {
+            return heapMax;
+        }
+
+        public int getSkippedContainers() {
+            return skippedContainers;
+        }
+
+        public long getWalkMillis() {
+            return walkNanos / 1_000_000;
+        }
+    }
+}
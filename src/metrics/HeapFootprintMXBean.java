@@ -0,0 +1,22 @@
+package metrics;
+
+/**
+ * JMX view of HeapFootprint.
+ */
+public interface HeapFootprintMXBean {
+
+    /**
+     * @return Estimated bytes held by all subsystems at the last measurement
+     */
+    long getEstimatedBytes();
+
+    /**
+     * Measures now and adds the result to the history.
+     */
+    void recordSnapshot();
+
+    /**
+     * @return The last measurement and the history as a text report
+     */
+    String dump();
+}
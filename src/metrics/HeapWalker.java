@@ -0,0 +1,341 @@
+package metrics;
+
+import java.awt.Component;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Walks object graphs to estimate how much heap they hold.
+ * Used by HeapFootprint for one measurement; not thread-safe.
+ *
+ * Each object reached is owned by the first subsystem that reached it, or
+ * marked shared once a second subsystem reaches it too. Sizes assume a
+ * 64-bit JVM with compressed references: 12-byte object headers, 16-byte
+ * array headers, 4-byte references, everything aligned to 8 bytes.
+ *
+ * Application classes are walked field by field. JDK classes cannot be
+ * opened on Java 17, so collections and maps are walked through their
+ * public API, and the size of their internal arrays and nodes is
+ * estimated from their size. Other JDK objects count only their own fields.
+ *
+ * The walk stops at objects that belong to the application as a whole
+ * rather than to one subsystem: Swing components, threads, executors, JDBC
+ * objects, enums, classes in the dao, controller and observer packages, and
+ * classes whose name ends in Facade. Lambdas count their own size but are
+ * not followed, since they often capture the panel that created them.
+ */
+class HeapWalker {
+
+    static final int SHARED = -1;
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int HASH_NODE = 32;
+    private static final int LINKED_HASH_NODE = 40;
+    private static final int TREE_NODE = 40;
+    private static final int LINKED_LIST_NODE = 24;
+    private static final int HASH_MAP = 48;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        }
+    };
+
+    private static final ClassValue<Field[]> REFERENCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && !isJdkClass(c); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // Not opened to us; counted in the shallow size only
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private final IdentityHashMap<Object, Integer> owners = new IdentityHashMap<>();
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private int skippedContainers;
+
+    /**
+     * Walks everything reachable from a subsystem's roots. Roots themselves
+     * are walked even if they would otherwise stop the walk.
+     */
+    void walk(int subsystem, Object[] roots) {
+        for (Object root : roots) {
+            if (root != null) {
+                pending.push(root);
+            }
+        }
+        while (!pending.isEmpty()) {
+            Object o = pending.pop();
+            Integer owner = owners.get(o);
+            if (owner == null) {
+                owners.put(o, subsystem);
+            } else if (owner != subsystem && owner != SHARED) {
+                // Reached by a second subsystem: everything below it is shared too
+                owners.put(o, SHARED);
+            } else {
+                continue;
+            }
+            expand(o);
+        }
+    }
+
+    /**
+     * Adds up the estimated size and count of the objects each subsystem owns.
+     *
+     * @param bytes Per subsystem, plus one last slot for shared objects
+     * @param objects Same layout as bytes
+     */
+    void totals(long[] bytes, long[] objects) {
+        int sharedSlot = bytes.length - 1;
+        for (Map.Entry<Object, Integer> entry : owners.entrySet()) {
+            int slot = entry.getValue() == SHARED ? sharedSlot : entry.getValue();
+            bytes[slot] += sizeOf(entry.getKey());
+            objects[slot]++;
+        }
+    }
+
+    /**
+     * @return Collections that changed while being read and were left out
+     */
+    int getSkippedContainers() {
+        return skippedContainers;
+    }
+
+    private void expand(Object o) {
+        Class<?> type = o.getClass();
+        if (type.isArray()) {
+            if (!type.getComponentType().isPrimitive()) {
+                for (Object element : (Object[]) o) {
+                    push(element);
+                }
+            }
+        } else if (o instanceof Map) {
+            try {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+                    push(entry.getKey());
+                    push(entry.getValue());
+                }
+            } catch (RuntimeException e) {
+                // Modified by its owner while we read it
+                skippedContainers++;
+            }
+        } else if (o instanceof Collection) {
+            try {
+                for (Object element : (Collection<?>) o) {
+                    push(element);
+                }
+            } catch (RuntimeException e) {
+                skippedContainers++;
+            }
+        } else if (o instanceof CompletableFuture) {
+            CompletableFuture<?> future = (CompletableFuture<?>) o;
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                push(future.getNow(null));
+            }
+        } else if (o instanceof AtomicReferenceArray) {
+            AtomicReferenceArray<?> array = (AtomicReferenceArray<?>) o;
+            for (int i = 0; i < array.length(); i++) {
+                push(array.get(i));
+            }
+        } else if (!isJdkClass(type) && !type.isHidden()) {
+            for (Field field : REFERENCE_FIELDS.get(type)) {
+                try {
+                    push(field.get(o));
+                } catch (IllegalAccessException e) {
+                    // setAccessible succeeded, so this does not happen
+                }
+            }
+        }
+    }
+
+    private void push(Object o) {
+        if (o != null && !isBoundary(o)) {
+            pending.push(o);
+        }
+    }
+
+    private static boolean isBoundary(Object o) {
+        if (o instanceof Class || o instanceof ClassLoader || o instanceof Thread || o instanceof Component
+                || o instanceof Executor || o instanceof Connection || o instanceof Statement
+                || o instanceof ResultSet || o instanceof Enum) {
+            return true;
+        }
+        String name = o.getClass().getName();
+        return name.startsWith("dao.") || name.startsWith("controller.") || name.startsWith("observer.")
+                || name.endsWith("Facade");
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun.");
+    }
+
+    /**
+     * Estimated size of one object, including the hidden internals of JDK
+     * strings and collections.
+     */
+    static long sizeOf(Object o) {
+        Class<?> type = o.getClass();
+        if (type.isArray()) {
+            return arraySize(Array.getLength(o), fieldSize(type.getComponentType()));
+        }
+        long size = SHALLOW_SIZES.get(type);
+        if (o instanceof String) {
+            String s = (String) o;
+            return size + arraySize(s.length(), isLatin1(s) ? 1 : 2);
+        }
+        if (o instanceof Map) {
+            return size + mapInternals((Map<?, ?>) o);
+        }
+        if (o instanceof Collection) {
+            return size + collectionInternals((Collection<?>) o);
+        }
+        if (o instanceof AtomicLongArray) {
+            return size + arraySize(((AtomicLongArray) o).length(), 8);
+        }
+        if (o instanceof AtomicIntegerArray) {
+            return size + arraySize(((AtomicIntegerArray) o).length(), 4);
+        }
+        if (o instanceof AtomicReferenceArray) {
+            return size + arraySize(((AtomicReferenceArray<?>) o).length(), REFERENCE);
+        }
+        return size;
+    }
+
+    private static long mapInternals(Map<?, ?> map) {
+        int size = map.size();
+        if (map instanceof LinkedHashMap) {
+            return hashTable(size) + (long) size * LINKED_HASH_NODE;
+        }
+        if (map instanceof HashMap || map instanceof ConcurrentHashMap || map instanceof Hashtable) {
+            return hashTable(size) + (long) size * HASH_NODE;
+        }
+        if (map instanceof TreeMap || map instanceof ConcurrentSkipListMap) {
+            return (long) size * TREE_NODE;
+        }
+        if (map instanceof IdentityHashMap) {
+            return arraySize(2 * tableCapacity(size), REFERENCE);
+        }
+        return 0;
+    }
+
+    private static long collectionInternals(Collection<?> collection) {
+        int size = collection.size();
+        if (collection instanceof LinkedHashSet) {
+            return HASH_MAP + hashTable(size) + (long) size * LINKED_HASH_NODE;
+        }
+        if (collection instanceof HashSet) {
+            return HASH_MAP + hashTable(size) + (long) size * HASH_NODE;
+        }
+        if (collection instanceof TreeSet) {
+            return SHALLOW_SIZES.get(TreeMap.class) + (long) size * TREE_NODE;
+        }
+        if (collection instanceof LinkedList) {
+            return (long) size * LINKED_LIST_NODE;
+        }
+        if (collection instanceof List || collection instanceof Queue) {
+            // Array-backed lists and queues; the spare capacity is unknown
+            return arraySize(size, REFERENCE);
+        }
+        return 0;
+    }
+
+    private static long hashTable(int size) {
+        return size == 0 ? 0 : arraySize(tableCapacity(size), REFERENCE);
+    }
+
+    /**
+     * Power-of-two table length a hash map with the default load factor has for this many entries.
+     */
+    private static int tableCapacity(int size) {
+        int capacity = 16;
+        while (capacity * 0.75 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long arraySize(long length, int elementSize) {
+        return align(ARRAY_HEADER + length * elementSize);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,125 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton holding the application's operation counters and timers.
+ * Instrumented classes look their metrics up once, into static fields, and
+ * then only increment or record, which does not allocate.
+ *
+ * Naming: facade counters are "facade.methodName", DAO timers are
+ * "DaoClass.methodName", and "connection.wait" times how long callers wait
+ * for the shared database connection.
+ *
+ * After registerMBeans(), every metric is also published over JMX under the
+ * "studentapp" domain (e.g. studentapp:type=Timer,name=StudentDAO.findById),
+ * together with studentapp:type=Metrics, whose dump operation returns the
+ * text table dump() produces.
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+    public static final String JMX_DOMAIN = "studentapp";
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, OperationCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, OperationTimer> timers = new ConcurrentHashMap<>();
+    private volatile MBeanServer mbeanServer;
+
+    private MetricsRegistry() {
+        HeapFootprint.getInstance().register("MetricsRegistry", this, registry -> new Object[] {registry});
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets or creates the counter with the given name.
+     */
+    public OperationCounter counter(String name) {
+        return counters.computeIfAbsent(name, key -> {
+            OperationCounter counter = new OperationCounter(key);
+            register("Counter", key, counter);
+            return counter;
+        });
+    }
+
+    /**
+     * Gets or creates the timer with the given name.
+     */
+    public OperationTimer timer(String name) {
+        return timers.computeIfAbsent(name, key -> {
+            OperationTimer timer = new OperationTimer(key);
+            register("Timer", key, timer);
+            return timer;
+        });
+    }
+
+    /**
+     * Publishes the registry and all metrics, including ones created later,
+     * on the platform MBean server. Calling it again has no effect.
+     */
+    public synchronized void registerMBeans() {
+        if (mbeanServer != null) {
+            return;
+        }
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        register("Metrics", null, this);
+        counters.forEach((name, counter) -> register("Counter", name, counter));
+        timers.forEach((name, timer) -> register("Timer", name, timer));
+    }
+
+    private void register(String type, String name, Object mbean) {
+        MBeanServer server = mbeanServer;
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type
+                    + (name == null ? "" : ",name=" + name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register metric " + name + " over JMX: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-44s %10s%n", "Counter", "calls"));
+        for (OperationCounter counter : new TreeMap<>(counters).values()) {
+            if (counter.getCount() > 0) {
+                sb.append(String.format("%-44s %10d%n", counter.getName(), counter.getCount()));
+            }
+        }
+        sb.append(String.format("%n%-44s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Timer", "calls", "rows", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationTimer timer : new TreeMap<>(timers).values()) {
+            if (timer.getCount() > 0) {
+                sb.append(String.format(Locale.ROOT, "%-44s %10d %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                        timer.getName(), timer.getCount(), timer.getRows(), timer.getMeanMillis(),
+                        timer.getP50Millis(), timer.getP99Millis(), timer.getP999Millis(), timer.getMaxMillis()));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(OperationCounter::reset);
+        timers.values().forEach(OperationTimer::reset);
+    }
+}
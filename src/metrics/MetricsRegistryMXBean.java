@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * JMX operations on the whole MetricsRegistry.
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * @return All counters and timers as a text table
+     */
+    String dump();
+
+    void reset();
+}
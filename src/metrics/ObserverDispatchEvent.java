@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one observer handling a data change
+ * notification from StudentDataManager. Disabled unless enabled by a
+ * settings profile.
+ */
+@Name("studentapp.ObserverDispatch")
+@Label("Observer Dispatch")
+@Category("Student App")
+@Description("One StudentDataObserver handling a change notification")
+@Enabled(false)
+@StackTrace(false)
+public class ObserverDispatchEvent extends jdk.jfr.Event {
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Observer")
+    public String observer;
+}
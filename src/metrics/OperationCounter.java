@@ -0,0 +1,36 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts calls of one operation, e.g. a facade method.
+ * Incrementing does not allocate or lock.
+ */
+public class OperationCounter implements OperationCounterMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    OperationCounter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+    }
+}
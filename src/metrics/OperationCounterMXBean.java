@@ -0,0 +1,13 @@
+package metrics;
+
+/**
+ * JMX view of an OperationCounter.
+ */
+public interface OperationCounterMXBean {
+
+    String getName();
+
+    long getCount();
+
+    void reset();
+}
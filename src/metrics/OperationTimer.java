@@ -0,0 +1,105 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and row count of one operation, e.g. a DAO method.
+ * Callers take System.nanoTime() before the operation and pass it to
+ * record(long) afterwards, usually in a finally block:
+ *
+ *   long start = System.nanoTime();
+ *   try {
+ *       ...
+ *       FIND_BY_ID.addRows(1);
+ *   } finally {
+ *       FIND_BY_ID.record(start);
+ *   }
+ *
+ * Recording does not allocate or lock.
+ */
+public class OperationTimer implements OperationTimerMXBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one call that started at the given System.nanoTime() value.
+     */
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one call that took the given time.
+     */
+    public void recordNanos(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Adds to the number of rows this operation returned.
+     */
+    public void addRows(long count) {
+        rows.add(count);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMeanNanos() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getValueAtPercentile(50) / 1e6;
+    }
+
+    @Override
+    public double getP95Millis() {
+        return latency.getValueAtPercentile(95) / 1e6;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latency.getValueAtPercentile(99.9) / 1e6;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        rows.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package metrics;
+
+/**
+ * JMX view of an OperationTimer. Times are in milliseconds.
+ */
+public interface OperationTimerMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,34 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one SQL statement on the shared connection,
+ * from execution until its rows have been read. Emitted by the statement
+ * timing wrapper, which DatabaseConnection hands out whenever this event is
+ * enabled. Disabled unless enabled by a settings profile.
+ */
+@Name("studentapp.SqlStatement")
+@Label("SQL Statement")
+@Category("Student App")
+@Description("A SQL statement run through DatabaseConnection, with its SQL shape and row count")
+@Enabled(false)
+@StackTrace(false)
+public class SqlStatementEvent extends jdk.jfr.Event {
+
+    @Label("SQL")
+    @Description("SQL with literals replaced by ?")
+    public String sql;
+
+    @Label("Bound Parameters")
+    public int bindCount;
+
+    @Label("Rows")
+    @Description("Rows read from a query, rows changed by an update, or -1 if unknown")
+    public long rows;
+}
@@ -9,6 +9,7 @@ public class Attendance {
     private String studentId;
     private String date;
     private String status; // PRESENT or ABSENT
+    private int version; // Incremented on every update (optimistic locking)
 
     // Default constructor
     public Attendance() {
@@ -46,6 +47,10 @@ public class Attendance {
         return status;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(int id) {
         this.id = id;
@@ -63,6 +68,10 @@ public class Attendance {
         this.status = status;
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return String.format("ID: %d | Student: %s | Date: %s | Status: %s",
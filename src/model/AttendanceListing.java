@@ -0,0 +1,56 @@
+package model;
+
+/**
+ * Read-only row of the attendance listing: an attendance record joined with
+ * its student's name in SQL.
+ * Part of the MVC architecture - Model layer.
+ */
+public class AttendanceListing {
+    private final int id;
+    private final String studentId;
+    private final String studentName;
+    private final String date;
+    private final String status; // PRESENT or ABSENT
+    private final int version;   // Attendance record version (optimistic locking)
+
+    public AttendanceListing(int id, String studentId, String studentName, String date, String status,
+            int version) {
+        this.id = id;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.date = date;
+        this.status = status;
+        this.version = version;
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d | Student: %s (%s) | Date: %s | Status: %s",
+                id, studentId, studentName, date, status);
+    }
+}
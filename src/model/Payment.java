@@ -10,6 +10,7 @@ public class Payment {
     private double amount;
     private String date;
     private String description;
+    private int version; // Incremented on every update (optimistic locking)
 
     // Default constructor
     public Payment() {
@@ -53,6 +54,10 @@ public class Payment {
         return description;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(int id) {
         this.id = id;
@@ -74,6 +79,10 @@ public class Payment {
         this.description = description;
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return String.format("ID: %d | Student: %s | Amount: $%.2f | Date: %s | Description: %s",
@@ -0,0 +1,62 @@
+package model;
+
+/**
+ * Read-only row of the payment listing: a payment joined with its student's
+ * name in SQL.
+ * Part of the MVC architecture - Model layer.
+ */
+public class PaymentListing {
+    private final int id;
+    private final String studentId;
+    private final String studentName;
+    private final double amount;
+    private final String date;
+    private final String description;
+    private final int version; // Payment version (optimistic locking)
+
+    public PaymentListing(int id, String studentId, String studentName, double amount, String date,
+            String description, int version) {
+        this.id = id;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.amount = amount;
+        this.date = date;
+        this.description = description;
+        this.version = version;
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d | Student: %s (%s) | Amount: $%.2f | Date: %s | Description: %s",
+                id, studentId, studentName, amount, date, description);
+    }
+}
@@ -11,6 +11,7 @@ public class Student {
     private String course;
     private String email;
     private String enrollmentStatus; // ENROLLED, SUSPENDED, GRADUATED
+    private int version; // Incremented on every update (optimistic locking)
 
     // Default constructor
     public Student() {
@@ -69,6 +70,10 @@ public class Student {
         return enrollmentStatus != null ? enrollmentStatus : "ENROLLED";
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     // Setters
     public void setStudentId(String studentId) {
         this.studentId = studentId;
@@ -94,6 +99,10 @@ public class Student {
         this.enrollmentStatus = enrollmentStatus != null ? enrollmentStatus : "ENROLLED";
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return String.format("Student ID: %s\nName: %s\nAge: %d\nCourse: %s\nEmail: %s\nStatus: %s\n",
@@ -0,0 +1,193 @@
+package observer;
+
+import dao.ChangeLogDAO;
+import dao.ChangeLogDAO.ChangeEntry;
+import util.StudentDirectory;
+import util.VirtualThreads;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds changes made by other application instances into the Observer system.
+ * Polls the change_log table by sequence number and, for each batch of remote
+ * changes, notifies StudentDataManager once per affected event type
+ * (ADD/UPDATE/DELETE for students, ATTENDANCE, PAYMENT) with the keys of the
+ * changed rows, so observers can update just those rows.
+ * Changes made by this instance are skipped - the facade already announced them.
+ * Changed students are also refreshed in the shared StudentDirectory.
+ * Uses Singleton pattern to ensure single instance.
+ *
+ * The log is pruned once a minute: entries older than a day go, and so does
+ * everything but the newest MAX_LOG_ENTRIES. An instance that falls further
+ * behind than that finds a gap in the sequence numbers; it then reloads the
+ * directory and sends unkeyed events, so observers reload everything.
+ *
+ * SQLite's update hook is not used: it only reports changes made on the same
+ * connection, so it can never see writes from another process.
+ */
+public class RemoteChangeFeed {
+    private static final long DEFAULT_POLL_INTERVAL_MS = 2000;
+    private static final int BATCH_SIZE = 500;
+    private static final long RETENTION_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    private static final int MAX_LOG_ENTRIES = 50_000;
+    private static final long PRUNE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static RemoteChangeFeed instance;
+
+    private final ChangeLogDAO changeLogDAO;
+    private ScheduledExecutorService scheduler;
+    private long lastSeq;
+
+    private RemoteChangeFeed() {
+        this.changeLogDAO = new ChangeLogDAO();
+    }
+
+    /**
+     * Gets the singleton instance of RemoteChangeFeed.
+     * Thread-safe implementation.
+     */
+    public static synchronized RemoteChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new RemoteChangeFeed();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts polling with the default interval.
+     * Only changes made after this call are reported.
+     */
+    public void start() throws SQLException {
+        start(DEFAULT_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * Starts polling with the given interval in milliseconds.
+     */
+    public synchronized void start(long pollIntervalMs) throws SQLException {
+        if (scheduler != null) {
+            return;
+        }
+        lastSeq = changeLogDAO.getLatestSeq();
+        scheduler = Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreadFactory("change-feed"));
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneSafely, PRUNE_INTERVAL_MS, PRUNE_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (SQLException e) {
+            // Database busy or closing - try again on the next tick
+            System.err.println("Change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    private void pruneSafely() {
+        try {
+            prune();
+        } catch (SQLException e) {
+            System.err.println("Change log prune failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads all new change log entries and notifies observers of remote changes.
+     *
+     * @return Number of remote changes found
+     */
+    public synchronized int poll() throws SQLException {
+        // Event type -> keys of the changed rows, in log order
+        Map<String, Set<String>> changedKeys = new LinkedHashMap<>();
+        Set<String> changedStudents = new LinkedHashSet<>();
+        boolean missedChanges = false;
+        int remoteChanges = 0;
+        List<ChangeEntry> batch;
+
+        do {
+            batch = changeLogDAO.getChangesSince(lastSeq, BATCH_SIZE);
+            for (ChangeEntry entry : batch) {
+                // Sequence numbers have no holes unless unread entries were pruned
+                if (entry.getSeq() != lastSeq + 1) {
+                    missedChanges = true;
+                }
+                lastSeq = entry.getSeq();
+                if (!entry.isLocal() && entry.getRowKey() != null) {
+                    remoteChanges++;
+                    changedKeys.computeIfAbsent(toEventType(entry), type -> new LinkedHashSet<>())
+                            .add(entry.getRowKey());
+                    if ("students".equals(entry.getTableName())) {
+                        changedStudents.add(entry.getRowKey());
+                    }
+                }
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        StudentDataManager manager = StudentDataManager.getInstance();
+        if (missedChanges) {
+            StudentDirectory.getInstance().reload();
+            for (String eventType : new String[] {"UPDATE", "ATTENDANCE", "PAYMENT"}) {
+                manager.notifyObservers(eventType);
+            }
+            return remoteChanges;
+        }
+
+        for (String studentId : changedStudents) {
+            StudentDirectory.getInstance().refresh(studentId);
+        }
+        for (Map.Entry<String, Set<String>> change : changedKeys.entrySet()) {
+            manager.notifyObservers(change.getKey(), change.getValue());
+        }
+        return remoteChanges;
+    }
+
+    /**
+     * Removes entries older than the retention period and all but the newest
+     * MAX_LOG_ENTRIES.
+     *
+     * @return Number of entries removed
+     */
+    public int prune() throws SQLException {
+        return changeLogDAO.deleteOlderThan(RETENTION_SECONDS) + changeLogDAO.trimToLatest(MAX_LOG_ENTRIES);
+    }
+
+    /**
+     * Maps a change log entry to the event type used by StudentDataManager.
+     */
+    private static String toEventType(ChangeEntry entry) {
+        switch (entry.getTableName()) {
+            case "attendance":
+                return "ATTENDANCE";
+            case "payments":
+                return "PAYMENT";
+            default:
+                switch (entry.getOperation()) {
+                    case "INSERT":
+                        return "ADD";
+                    case "DELETE":
+                        return "DELETE";
+                    default:
+                        return "UPDATE";
+                }
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package observer;
 
-import java.util.ArrayList;
-import java.util.List;
+import metrics.ObserverDispatchEvent;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Concrete Subject for Observer pattern.
  * Manages observers and notifies them of student data changes.
  * Uses Singleton pattern to ensure single instance.
+ * Observers are held in a copy-on-write list so notifications may be
+ * fired from background threads (e.g. the async facade) safely.
  */
 public class StudentDataManager implements StudentDataSubject {
     private static StudentDataManager instance;
-    private List<StudentDataObserver> observers;
+    private final CopyOnWriteArrayList<StudentDataObserver> observers;
 
     private StudentDataManager() {
-        this.observers = new ArrayList<>();
+        this.observers = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -29,9 +33,7 @@ public class StudentDataManager implements StudentDataSubject {
 
     @Override
     public void addObserver(StudentDataObserver observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.addIfAbsent(observer);
     }
 
     @Override
@@ -39,10 +41,51 @@ public class StudentDataManager implements StudentDataSubject {
         observers.remove(observer);
     }
 
+    /**
+     * Calls each observer in turn. Each call is recorded as an
+     * ObserverDispatchEvent when Flight Recorder has those enabled.
+     */
     @Override
     public void notifyObservers(String eventType) {
+        dispatch(eventType, null, null);
+    }
+
+    /**
+     * Calls each observer's keyed handler in turn, recorded like notifyObservers(String).
+     */
+    @Override
+    public void notifyObservers(String eventType, Set<String> keys) {
+        dispatch(eventType, keys, null);
+    }
+
+    /**
+     * Calls each observer's record handler in turn, recorded like notifyObservers(String).
+     */
+    @Override
+    public void notifyObservers(String eventType, Set<String> recordIds, Set<String> studentIds) {
+        dispatch(eventType, recordIds, studentIds);
+    }
+
+    private void dispatch(String eventType, Set<String> keys, Set<String> studentIds) {
         for (StudentDataObserver observer : observers) {
-            observer.onStudentDataChanged(eventType);
+            ObserverDispatchEvent event = new ObserverDispatchEvent();
+            event.begin();
+            try {
+                if (keys == null) {
+                    observer.onStudentDataChanged(eventType);
+                } else if (studentIds == null) {
+                    observer.onStudentDataChanged(eventType, keys);
+                } else {
+                    observer.onStudentRecordsChanged(eventType, keys, studentIds);
+                }
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.eventType = eventType;
+                    event.observer = observer.getClass().getName();
+                    event.commit();
+                }
+            }
         }
     }
 
@@ -80,4 +123,46 @@ public class StudentDataManager implements StudentDataSubject {
     public void notifyPaymentUpdated() {
         notifyObservers("PAYMENT");
     }
+
+    /**
+     * Convenience method: Notifies observers that a student was added.
+     */
+    public void notifyStudentAdded(String studentId) {
+        notifyObservers("ADD", Set.of(studentId));
+    }
+
+    /**
+     * Convenience method: Notifies observers that a student was updated.
+     */
+    public void notifyStudentUpdated(String studentId) {
+        notifyObservers("UPDATE", Set.of(studentId));
+    }
+
+    /**
+     * Convenience method: Notifies observers that a student was deleted.
+     */
+    public void notifyStudentDeleted(String studentId) {
+        notifyObservers("DELETE", Set.of(studentId));
+    }
+
+    /**
+     * Convenience method: Notifies observers that an attendance record changed.
+     * @param studentId Student the record belongs to, or null if the record no longer exists
+     */
+    public void notifyAttendanceUpdated(int recordId, String studentId) {
+        notifyRecordChanged("ATTENDANCE", recordId, studentId);
+    }
+
+    /**
+     * Convenience method: Notifies observers that a payment changed.
+     * @param studentId Student the payment belongs to, or null if the payment no longer exists
+     */
+    public void notifyPaymentUpdated(int recordId, String studentId) {
+        notifyRecordChanged("PAYMENT", recordId, studentId);
+    }
+
+    private void notifyRecordChanged(String eventType, int recordId, String studentId) {
+        notifyObservers(eventType, Set.of(String.valueOf(recordId)),
+                studentId != null ? Set.of(studentId) : Set.of());
+    }
 }
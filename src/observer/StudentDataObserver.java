@@ -1,5 +1,7 @@
 package observer;
 
+import java.util.Set;
+
 /**
  * Observer interface for Observer design pattern.
  * Implemented by classes that want to be notified of data changes.
@@ -10,5 +12,29 @@ public interface StudentDataObserver {
      * @param eventType Type of change (ADD, UPDATE, DELETE)
      */
     void onStudentDataChanged(String eventType);
+
+    /**
+     * Called when specific rows change, e.g. rows written by another
+     * application instance. Observers that can update just those rows
+     * override this; the default treats it like any other change.
+     * @param eventType Type of change (ADD, UPDATE, DELETE, ATTENDANCE, PAYMENT)
+     * @param keys Student IDs for ADD/UPDATE/DELETE, record IDs for ATTENDANCE and PAYMENT
+     */
+    default void onStudentDataChanged(String eventType, Set<String> keys) {
+        onStudentDataChanged(eventType);
+    }
+
+    /**
+     * Called when attendance or payment records change and the students they
+     * belong to are known, e.g. after a write through the facade. Observers
+     * that keep per-student data override this; the default handles it like
+     * a change to the records alone.
+     * @param eventType Type of change (ATTENDANCE, PAYMENT)
+     * @param recordIds Record IDs of the changed attendance records or payments
+     * @param studentIds Students the records belong to
+     */
+    default void onStudentRecordsChanged(String eventType, Set<String> recordIds, Set<String> studentIds) {
+        onStudentDataChanged(eventType, recordIds);
+    }
 }
 
@@ -1,5 +1,7 @@
 package observer;
 
+import java.util.Set;
+
 /**
  * Subject interface for Observer design pattern.
  * Implemented by classes that notify observers of changes.
@@ -20,5 +22,20 @@ public interface StudentDataSubject {
      * @param eventType Type of change (ADD, UPDATE, DELETE)
      */
     void notifyObservers(String eventType);
+
+    /**
+     * Notifies all observers that the rows with the given keys changed.
+     * @param eventType Type of change (ADD, UPDATE, DELETE, ATTENDANCE, PAYMENT)
+     * @param keys Student IDs or record IDs, see StudentDataObserver
+     */
+    void notifyObservers(String eventType, Set<String> keys);
+
+    /**
+     * Notifies all observers that attendance or payment records of the given students changed.
+     * @param eventType Type of change (ATTENDANCE, PAYMENT)
+     * @param recordIds Record IDs of the changed records
+     * @param studentIds Students the records belong to
+     */
+    void notifyObservers(String eventType, Set<String> recordIds, Set<String> studentIds);
 }
 
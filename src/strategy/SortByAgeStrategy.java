@@ -20,5 +20,9 @@ public class SortByAgeStrategy implements SortStrategy {
     public String getStrategyName() {
         return "Sort by Age";
     }
-}
 
+    @Override
+    public String getSortField() {
+        return "age";
+    }
+}
@@ -20,5 +20,9 @@ public class SortByCourseStrategy implements SortStrategy {
     public String getStrategyName() {
         return "Sort by Course";
     }
-}
 
+    @Override
+    public String getSortField() {
+        return "course";
+    }
+}
@@ -20,5 +20,9 @@ public class SortByIdStrategy implements SortStrategy {
     public String getStrategyName() {
         return "Sort by Student ID";
     }
-}
 
+    @Override
+    public String getSortField() {
+        return "student_id";
+    }
+}
@@ -20,5 +20,9 @@ public class SortByNameStrategy implements SortStrategy {
     public String getStrategyName() {
         return "Sort by Name";
     }
-}
 
+    @Override
+    public String getSortField() {
+        return "name";
+    }
+}
@@ -19,5 +19,12 @@ public interface SortStrategy {
      * Gets the name of this sorting strategy.
      */
     String getStrategyName();
+
+    /**
+     * Gets the student field this strategy sorts by, using the names accepted
+     * by StudentSortContext.getStrategyByName (student_id, name, age, course).
+     * Lets a table sort the same way by column instead of reordering the list.
+     */
+    String getSortField();
 }
 
@@ -0,0 +1,82 @@
+package util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each startup phase takes and prints a report.
+ * Phases are marked in order from main() onwards. The time from JVM launch
+ * to the first mark is reported too, when the platform provides it.
+ */
+public class StartupTimer {
+    private static final long START_NANOS = System.nanoTime();
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> phaseNanos = new ArrayList<>();
+    private static boolean reported;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Starts the timer. Call first thing in main(); later marks are measured from here.
+     */
+    public static void start() {
+        // Loading the class sets START_NANOS
+    }
+
+    /**
+     * Marks the end of a startup phase.
+     */
+    public static synchronized void mark(String phase) {
+        phases.add(phase);
+        phaseNanos.add(System.nanoTime() - START_NANOS);
+    }
+
+    /**
+     * Milliseconds since the timer started (first use in main()).
+     */
+    public static long elapsedMillis() {
+        return (System.nanoTime() - START_NANOS) / 1_000_000;
+    }
+
+    /**
+     * Builds the report: one line per phase with its own duration and the
+     * running total since main() started.
+     */
+    public static synchronized String report() {
+        StringBuilder sb = new StringBuilder("Startup timing:\n");
+        Long jvmMillis = jvmStartupMillis();
+        if (jvmMillis != null) {
+            sb.append(String.format("  %-32s %8d ms%n", "JVM launch to main()", jvmMillis));
+        }
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long at = phaseNanos.get(i);
+            sb.append(String.format("  %-32s %8d ms  (at %d ms)%n",
+                    phases.get(i), (at - previous) / 1_000_000, at / 1_000_000));
+            previous = at;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prints the report to standard output once.
+     */
+    public static synchronized void printReport() {
+        if (!reported) {
+            reported = true;
+            System.out.print(report());
+        }
+    }
+
+    private static Long jvmStartupMillis() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> {
+                    Instant mainStart = Instant.now().minusNanos(System.nanoTime() - START_NANOS);
+                    return Duration.between(start, mainStart).toMillis();
+                })
+                .orElse(null);
+    }
+}
@@ -0,0 +1,186 @@
+package util;
+
+import dao.StudentDAO;
+import metrics.HeapFootprint;
+import model.Student;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide directory of students (ID -> name, course, status).
+ * Used by panels and dialogs that only need to show who a record belongs to.
+ * Uses Singleton pattern to ensure single instance.
+ *
+ * The directory is loaded from the database once. After that it is kept up
+ * to date one student at a time: StudentManagementFacade refreshes the
+ * student it just wrote, and RemoteChangeFeed refreshes students changed by
+ * other instances. Readers never trigger another full scan.
+ * Safe to read from any thread.
+ */
+public class StudentDirectory {
+    private static StudentDirectory instance;
+
+    private final StudentDAO studentDAO;
+    private final ConcurrentHashMap<String, Entry> entries;
+    private volatile boolean loaded;
+
+    private StudentDirectory() {
+        this.studentDAO = new StudentDAO();
+        this.entries = new ConcurrentHashMap<>();
+        HeapFootprint.getInstance().register("StudentDirectory", this, directory -> new Object[] {directory});
+    }
+
+    /**
+     * Gets the singleton instance of StudentDirectory.
+     * Thread-safe implementation.
+     */
+    public static synchronized StudentDirectory getInstance() {
+        if (instance == null) {
+            instance = new StudentDirectory();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads all students unless the directory is already loaded.
+     */
+    public void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (Student student : studentDAO.readAll()) {
+                    entries.put(student.getStudentId(), new Entry(student));
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Re-reads every student, e.g. after changes were missed. Until the
+     * directory has been loaded this is the same as ensureLoaded().
+     */
+    public synchronized void reload() throws SQLException {
+        if (!loaded) {
+            ensureLoaded();
+            return;
+        }
+        List<Student> students = studentDAO.readAll();
+        Set<String> ids = new HashSet<>();
+        for (Student student : students) {
+            entries.put(student.getStudentId(), new Entry(student));
+            ids.add(student.getStudentId());
+        }
+        entries.keySet().retainAll(ids);
+    }
+
+    /**
+     * Re-reads one student after it was added, updated or deleted.
+     * Holds the same lock as the load: a refresh during the load waits and
+     * then re-reads the student, so a write the load's scan missed is not
+     * lost, and refreshes of one student apply in the order they read it.
+     * Does nothing if no load has started - that load will see the change.
+     */
+    public void refresh(String studentId) throws SQLException {
+        if (studentId == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+            Student student = studentDAO.findById(studentId);
+            if (student != null) {
+                entries.put(studentId, new Entry(student));
+            } else {
+                entries.remove(studentId);
+            }
+        }
+    }
+
+    /**
+     * Gets a student's entry, or null if there is no such student.
+     */
+    public Entry get(String studentId) {
+        loadQuietly();
+        return studentId != null ? entries.get(studentId) : null;
+    }
+
+    /**
+     * Gets a student's name, or the given default if there is no such student.
+     */
+    public String getName(String studentId, String defaultName) {
+        Entry entry = get(studentId);
+        return entry != null ? entry.getName() : defaultName;
+    }
+
+    /**
+     * Gets all entries sorted by student ID, e.g. for a selection list.
+     */
+    public List<Entry> getEntries() {
+        loadQuietly();
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparing(Entry::getStudentId));
+        return list;
+    }
+
+    public int size() {
+        loadQuietly();
+        return entries.size();
+    }
+
+    private void loadQuietly() {
+        try {
+            ensureLoaded();
+        } catch (SQLException e) {
+            System.err.println("Failed to load student directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable summary of one student.
+     */
+    public static final class Entry {
+        private final String studentId;
+        private final String name;
+        private final String course;
+        private final String enrollmentStatus;
+
+        Entry(Student student) {
+            this.studentId = student.getStudentId();
+            this.name = student.getName();
+            this.course = student.getCourse();
+            this.enrollmentStatus = student.getEnrollmentStatus();
+        }
+
+        // Getters
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCourse() {
+            return course;
+        }
+
+        public String getEnrollmentStatus() {
+            return enrollmentStatus;
+        }
+
+        @Override
+        public String toString() {
+            return studentId + " - " + name;
+        }
+    }
+}
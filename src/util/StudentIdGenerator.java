@@ -1,27 +1,104 @@
 package util;
 
+import dao.SequenceDAO;
 import dao.StudentDAO;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class for auto-generating Student IDs.
  * Generates IDs in format STU001, STU002, etc.
+ *
+ * IDs come from the persistent "student_id" sequence in the id_sequences
+ * table. The generator reserves a block of numbers from the database in one
+ * atomic statement and then hands them out from an AtomicLong, so most calls
+ * run no query and take no lock. Reserving in the database keeps IDs unique
+ * across several application instances sharing the same file. Unused numbers
+ * of a block are skipped when the application exits, so IDs may have gaps.
  */
 public class StudentIdGenerator {
     private static final String PREFIX = "STU";
-    
+    private static final String SEQUENCE_NAME = "student_id";
+    private static final int BLOCK_SIZE = 50;
+
+    private static final SequenceDAO sequenceDAO = new SequenceDAO();
+    private static final Object refillLock = new Object();
+
+    // Current block of reserved numbers; replaced as a whole when exhausted
+    private static volatile IdBlock currentBlock = IdBlock.EMPTY;
+
     /**
      * Generates the next available Student ID in format: STU001, STU002, etc.
-     * Thread-safe implementation to prevent duplicate IDs.
-     * 
+     * Thread-safe and lock-free unless a new block has to be reserved.
+     *
      * @return Next available Student ID (e.g., "STU001")
-     * @throws SQLException if database query fails
+     * @throws SQLException if reserving a new block fails
      */
-    public static synchronized String generateNextId() throws SQLException {
-        StudentDAO dao = new StudentDAO();
-        int maxNumber = dao.getMaxStudentIdNumber();
-        int nextNumber = maxNumber + 1;
-        return String.format("%s%03d", PREFIX, nextNumber);
+    public static String generateNextId() throws SQLException {
+        while (true) {
+            IdBlock block = currentBlock;
+            long number = block.next.getAndIncrement();
+            if (number < block.end) {
+                return formatId(number);
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Formats a sequence number as a Student ID (e.g., 7 -> "STU007").
+     */
+    public static String formatId(long number) {
+        return String.format("%s%03d", PREFIX, number);
+    }
+
+    /**
+     * Reserves count consecutive numbers for students inserted in bulk, with
+     * IDs from formatId(). No generator in any instance hands them out later.
+     *
+     * @return First reserved number; the block is [first, first + count)
+     */
+    public static long reserveNumbers(int count) throws SQLException {
+        synchronized (refillLock) {
+            createSequenceIfAbsent();
+            return sequenceDAO.reserveBlock(SEQUENCE_NAME, count);
+        }
     }
-}
 
+    /**
+     * Reserves a new block unless another thread already replaced the exhausted one.
+     */
+    private static void refill(IdBlock exhausted) throws SQLException {
+        synchronized (refillLock) {
+            if (currentBlock != exhausted) {
+                return;
+            }
+            createSequenceIfAbsent();
+            long first = sequenceDAO.reserveBlock(SEQUENCE_NAME, BLOCK_SIZE);
+            currentBlock = new IdBlock(first, first + BLOCK_SIZE);
+        }
+    }
+
+    private static void createSequenceIfAbsent() throws SQLException {
+        if (!sequenceDAO.exists(SEQUENCE_NAME)) {
+            // One-time seed for databases created before the sequence table existed
+            int maxNumber = new StudentDAO().getMaxStudentIdNumber();
+            sequenceDAO.createIfAbsent(SEQUENCE_NAME, maxNumber + 1L);
+        }
+    }
+
+    /**
+     * Range [next, end) of reserved sequence numbers.
+     */
+    private static final class IdBlock {
+        static final IdBlock EMPTY = new IdBlock(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        IdBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package util;
+
+import metrics.MetricsRegistry;
+import metrics.OperationCounter;
+import metrics.OperationTimer;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Singleton class providing striped per-student locks.
+ * Serializes read-modify-write operations on the same student while
+ * letting operations on different students run in parallel.
+ * Each student ID hashes to one of a fixed number of lock stripes, so
+ * memory use is constant regardless of how many students exist.
+ * Also tracks how often callers had to wait for a stripe (contention), in
+ * MetricsRegistry: counters "lock.acquisitions" and "lock.contended", and
+ * the timer "lock.wait" for the time contended callers waited.
+ */
+public class StudentLockManager {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private static StudentLockManager instance;
+
+    private final ReentrantLock[] stripes;
+    private final OperationCounter acquisitions;
+    private final OperationCounter contendedAcquisitions;
+    private final OperationTimer waits;
+
+    // Private constructor - prevents external instantiation (Singleton pattern)
+    private StudentLockManager(int stripeCount) {
+        // Round up to a power of two so the stripe index is a cheap mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.acquisitions = metrics.counter("lock.acquisitions");
+        this.contendedAcquisitions = metrics.counter("lock.contended");
+        this.waits = metrics.timer("lock.wait");
+    }
+
+    /**
+     * Gets the singleton instance of StudentLockManager.
+     * Thread-safe implementation.
+     */
+    public static synchronized StudentLockManager getInstance() {
+        if (instance == null) {
+            instance = new StudentLockManager(DEFAULT_STRIPES);
+        }
+        return instance;
+    }
+
+    /**
+     * Acquires the lock stripe for a student, waiting if another thread holds it.
+     * The returned lock must be released with unlock() in a finally block.
+     * Locks are reentrant, so nested calls for the same student are safe.
+     *
+     * @param studentId Student ID to lock
+     * @return The acquired lock
+     */
+    public ReentrantLock lock(String studentId) {
+        ReentrantLock lock = stripeFor(studentId);
+        acquisitions.increment();
+        if (!lock.tryLock()) {
+            contendedAcquisitions.increment();
+            long start = System.nanoTime();
+            lock.lock();
+            waits.record(start);
+        }
+        return lock;
+    }
+
+    private ReentrantLock stripeFor(String studentId) {
+        int h = studentId == null ? 0 : studentId.hashCode();
+        // Spread high bits to lower bits (same as HashMap)
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    /**
+     * Gets the total number of lock acquisitions.
+     */
+    public long getAcquisitions() {
+        return acquisitions.getCount();
+    }
+
+    /**
+     * Gets the number of acquisitions that had to wait for another thread.
+     */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.getCount();
+    }
+
+    /**
+     * Gets the total time spent waiting for contended locks, in milliseconds.
+     */
+    public double getTotalWaitMillis() {
+        return waits.getLatency().getTotalNanos() / 1e6;
+    }
+
+    /**
+     * Gets the fraction (0.0 - 1.0) of acquisitions that were contended.
+     */
+    public double getContentionRate() {
+        long total = getAcquisitions();
+        return total == 0 ? 0.0 : (double) getContendedAcquisitions() / total;
+    }
+
+    /**
+     * Gets the number of lock stripes.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StudentLockManager[stripes=%d, acquisitions=%d, contended=%d (%.2f%%), wait=%.2f ms]",
+                getStripeCount(), getAcquisitions(), getContendedAcquisitions(),
+                getContentionRate() * 100, getTotalWaitMillis());
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for creating thread-per-task executors.
+ * Uses virtual threads when the running JDK provides them (Java 21+),
+ * otherwise falls back to a cached pool of daemon platform threads.
+ */
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor that starts a new thread for each submitted task.
+     *
+     * @param namePrefix Prefix used for fallback platform thread names
+     * @return Executor backed by virtual threads if available
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            // Looked up reflectively so the code still compiles on Java 17
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreadFactory(namePrefix));
+        }
+    }
+
+    /**
+     * Checks whether virtual threads are available on this JDK.
+     */
+    public static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a thread factory producing named daemon threads.
+     */
+    public static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
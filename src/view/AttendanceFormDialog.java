@@ -1,6 +1,6 @@
 package view;
 
-import model.Student;
+import util.StudentDirectory;
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
@@ -11,9 +11,9 @@ public class AttendanceFormDialog extends JDialog {
     private JTextField dateField;
     private JComboBox<String> statusCombo;
     private boolean submitted = false;
-    private List<Student> students;
+    private List<StudentDirectory.Entry> students;
 
-    public AttendanceFormDialog(Frame owner, List<Student> students) {
+    public AttendanceFormDialog(Frame owner, List<StudentDirectory.Entry> students) {
         super(owner, "Mark Attendance", true);
         this.students = students;
         setupUI();
@@ -32,7 +32,7 @@ public class AttendanceFormDialog extends JDialog {
 
         gbc.gridx = 1;
         studentCombo = new JComboBox<>();
-        for (Student s : students) {
+        for (StudentDirectory.Entry s : students) {
             studentCombo.addItem(s.getStudentId() + " - " + s.getName());
         }
         add(studentCombo, gbc);
@@ -1,25 +1,24 @@
 package view;
 
+import dao.AttendanceDAO.AttendanceCounts;
 import facade.StudentManagementFacade;
 import observer.StudentDataObserver;
 import observer.StudentDataManager;
 import chain.ValidationChainBuilder;
 import chain.ValidationHandler;
-import model.Attendance;
-import model.Student;
+import metrics.HeapFootprint;
+import model.AttendanceListing;
+import util.StudentDirectory;
 import exceptions.*;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Unified Attendance Panel consolidating Mark, View, and Rate operations.
@@ -30,13 +29,9 @@ import java.util.Map;
 public class AttendancePanel extends BasePanel implements StudentDataObserver {
 
     private StudentManagementFacade facade;
-    private DefaultTableModel tableModel;
+    private LazyAttendanceTableModel tableModel;
     private JTable attendanceTable;
 
-    // Cache for student names: StudentID -> Name
-    private Map<String, String> studentNameMap;
-    // Store all records for filtering
-    private List<Attendance> allRecords;
 
     // Toolbar buttons
     private JButton markButton;
@@ -49,14 +44,20 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
     private JTextField searchField;
     private JTextField dateFilterField;
     private JLabel statsLabel;
+    // Fires once typing pauses; filtering itself runs in the database
+    private Timer filterDebounce;
 
     public AttendancePanel() {
         this.facade = StudentManagementFacade.getInstance();
-        this.studentNameMap = new HashMap<>();
         setupUI();
 
         // Observer Pattern: Register this panel as an observer
         StudentDataManager.getInstance().addObserver(this);
+
+        // Heap diagnostics: cached pages of listings
+        HeapFootprint.getInstance().register("AttendancePanel", this, panel -> new Object[] {
+            panel.tableModel, panel.attendanceTable.getRowSorter()
+        });
     }
 
     /**
@@ -65,14 +66,28 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
     @Override
     public void onStudentDataChanged(String eventType) {
         // Refresh on any relevant change
-        if ("ATTENDANCE".equals(eventType) || "STUDENT_UPDATE".equals(eventType)) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    refreshData();
-                } catch (SQLException e) {
-                    // Silently handle
-                }
-            });
+        if ("ATTENDANCE".equals(eventType)) {
+            SwingUtilities.invokeLater(this::refreshData);
+        } else if ("ADD".equals(eventType) || "UPDATE".equals(eventType) || "DELETE".equals(eventType)) {
+            // Student names are joined in SQL; re-fetch the visible pages
+            SwingUtilities.invokeLater(() -> tableModel.reload());
+        }
+    }
+
+    /**
+     * Observer Pattern: Called when specific records or students change.
+     * Cached rows are updated in place where possible (see LazyAttendanceTableModel).
+     */
+    @Override
+    public void onStudentDataChanged(String eventType, Set<String> keys) {
+        if ("ATTENDANCE".equals(eventType)) {
+            Set<Integer> ids = new HashSet<>();
+            for (String key : keys) {
+                ids.add(Integer.valueOf(key));
+            }
+            SwingUtilities.invokeLater(() -> tableModel.updateRecords(ids));
+        } else if ("ADD".equals(eventType) || "UPDATE".equals(eventType) || "DELETE".equals(eventType)) {
+            SwingUtilities.invokeLater(() -> tableModel.updateStudentNames(keys));
         }
     }
 
@@ -101,37 +116,18 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
         topPanel.add(refreshButton);
 
         // Table
-        String[] columns = { "ID", "Student ID", "Student Name", "Date", "Status" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Rows are paged in from the database as they scroll into view
+        tableModel = new LazyAttendanceTableModel(facade);
+        tableModel.setReloadListener(this::updateStats);
         attendanceTable = new JTable(tableModel);
         attendanceTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         attendanceTable.setRowHeight(25);
 
-        // Color coding for Status
-        attendanceTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (!isSelected) {
-                    String status = (String) table.getValueAt(row, 4); // Status column
-                    if ("PRESENT".equalsIgnoreCase(status)) {
-                        c.setBackground(new Color(220, 255, 220)); // Light green
-                    } else if ("ABSENT".equalsIgnoreCase(status)) {
-                        c.setBackground(new Color(255, 220, 220)); // Light red
-                    } else {
-                        c.setBackground(Color.WHITE);
-                    }
-                }
-                return c;
-            }
-        });
+        // Header clicks on Date or Student Name change the SQL order; rows stay paged
+        attendanceTable.setRowSorter(tableModel.createRowSorter());
+
+        // Row colours resolved once per row from the record, using shared constants
+        attendanceTable.setDefaultRenderer(Object.class, new AttendanceRowRenderer(tableModel));
 
         JScrollPane scrollPane = new JScrollPane(attendanceTable);
         scrollPane.setPreferredSize(new Dimension(800, 400));
@@ -167,52 +163,40 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
         editButton.addActionListener(e -> handleEdit());
         deleteButton.addActionListener(e -> handleDelete());
 
-        refreshButton.addActionListener(e -> {
-            try {
-                refreshData();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
-        });
+        refreshButton.addActionListener(e -> refreshData());
 
         clearButton.addActionListener(e -> {
             searchField.setText("");
             dateFilterField.setText("");
-            try {
-                refreshData();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
+            refreshData();
         });
 
-        // Real-time search/filter
+        // Real-time search/filter, debounced so each pause in typing runs one count query
+        filterDebounce = new Timer((int) SearchFilter.DEFAULT_DEBOUNCE_MS, e -> filterRecords());
+        filterDebounce.setRepeats(false);
         DocumentListener filterListener = new DocumentListener() {
             public void insertUpdate(DocumentEvent e) {
-                filterRecords();
+                filterDebounce.restart();
             }
 
             public void removeUpdate(DocumentEvent e) {
-                filterRecords();
+                filterDebounce.restart();
             }
 
             public void changedUpdate(DocumentEvent e) {
-                filterRecords();
+                filterDebounce.restart();
             }
         };
         searchField.getDocument().addDocumentListener(filterListener);
         dateFilterField.getDocument().addDocumentListener(filterListener);
 
         // Initial Load
-        try {
-            refreshData();
-        } catch (SQLException ex) {
-            showErrorDialog("Database Error", "Failed to load data: " + ex.getMessage());
-        }
+        refreshData();
     }
 
     private void handleMarkAttendance() {
         try {
-            List<Student> students = facade.getAllStudents();
+            List<StudentDirectory.Entry> students = StudentDirectory.getInstance().getEntries();
             AttendanceFormDialog dialog = new AttendanceFormDialog(
                     (Frame) SwingUtilities.getWindowAncestor(this),
                     students);
@@ -244,8 +228,13 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
             return;
         }
 
-        int id = (Integer) tableModel.getValueAt(selectedRow, 0);
-        String currentStatus = (String) tableModel.getValueAt(selectedRow, 4);
+        AttendanceListing record = tableModel.getRecordAt(attendanceTable.convertRowIndexToModel(selectedRow));
+        if (record == null) {
+            showWarningDialog("Please Wait", "The selected record is still loading.");
+            return;
+        }
+        int id = record.getId();
+        String currentStatus = record.getStatus();
 
         // Simple dialog for status update since that's the main editable field
         String[] options = { "PRESENT", "ABSENT" };
@@ -260,7 +249,8 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
 
         if (newStatus != null) {
             try {
-                facade.updateAttendance(id, newStatus);
+                // Optimistic locking: fails if the record changed since it was loaded
+                facade.updateAttendance(id, newStatus, record.getVersion());
                 showMessageDialog("Success", "Attendance updated!");
                 refreshData();
             } catch (Exception ex) {
@@ -276,9 +266,15 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
             return;
         }
 
-        int id = (Integer) tableModel.getValueAt(selectedRow, 0);
-        String name = (String) tableModel.getValueAt(selectedRow, 2);
-        String date = (String) tableModel.getValueAt(selectedRow, 3);
+        int modelRow = attendanceTable.convertRowIndexToModel(selectedRow);
+        AttendanceListing record = tableModel.getRecordAt(modelRow);
+        if (record == null) {
+            showWarningDialog("Please Wait", "The selected record is still loading.");
+            return;
+        }
+        int id = record.getId();
+        String name = record.getStudentName();
+        String date = record.getDate();
 
         int confirm = JOptionPane.showConfirmDialog(
                 this,
@@ -299,68 +295,26 @@ public class AttendancePanel extends BasePanel implements StudentDataObserver {
     }
 
     /**
-     * Refreshes all data: Student Map and Attendance Records.
+     * Refreshes the attendance records. Pages are fetched again, with student
+     * names joined in SQL, as they are shown.
      */
-    private void refreshData() throws SQLException {
-        // 1. Refresh Student Map (ID -> Name)
-        studentNameMap.clear();
-        List<Student> students = facade.getAllStudents();
-        for (Student s : students) {
-            studentNameMap.put(s.getStudentId(), s.getName());
-        }
-
-        // 2. Load Attendance Records
-        allRecords = facade.getAllAttendance();
-
-        // 3. Apply Filters
+    private void refreshData() {
         filterRecords();
     }
 
+    /**
+     * Applies the search and date filters. Filtering runs in the database,
+     * so only the matching rows that are actually shown are loaded.
+     */
     private void filterRecords() {
-        String search = searchField.getText().trim().toLowerCase();
+        String search = searchField.getText().trim();
         String dateFilter = dateFilterField.getText().trim();
+        tableModel.setFilter(search, dateFilter);
+    }
 
-        if (allRecords == null)
-            return;
-
-        List<Attendance> filtered = new ArrayList<>();
-        int presentCount = 0;
-        int absentCount = 0;
-
-        for (Attendance r : allRecords) {
-            String sName = studentNameMap.getOrDefault(r.getStudentId(), "Unknown");
-
-            boolean matchesSearch = search.isEmpty() ||
-                    r.getStudentId().toLowerCase().contains(search) ||
-                    sName.toLowerCase().contains(search) ||
-                    r.getStatus().toLowerCase().contains(search);
-
-            boolean matchesDate = dateFilter.isEmpty() ||
-                    r.getDate().contains(dateFilter);
-
-            if (matchesSearch && matchesDate) {
-                filtered.add(r);
-                if ("PRESENT".equalsIgnoreCase(r.getStatus()))
-                    presentCount++;
-                if ("ABSENT".equalsIgnoreCase(r.getStatus()))
-                    absentCount++;
-            }
-        }
-
-        // Update Table
-        tableModel.setRowCount(0);
-        for (Attendance r : filtered) {
-            tableModel.addRow(new Object[] {
-                    r.getId(),
-                    r.getStudentId(),
-                    studentNameMap.getOrDefault(r.getStudentId(), "Unknown"),
-                    r.getDate(),
-                    r.getStatus()
-            });
-        }
-
-        // Update Stats
+    private void updateStats() {
+        AttendanceCounts counts = tableModel.getCounts();
         statsLabel.setText(String.format("Shown: %d (P: %d, A: %d)",
-                filtered.size(), presentCount, absentCount));
+                counts.getTotal(), counts.getPresent(), counts.getAbsent()));
     }
 }
@@ -0,0 +1,24 @@
+package view;
+
+import model.AttendanceListing;
+
+/**
+ * Colour-codes attendance rows by status (PRESENT / ABSENT).
+ */
+public class AttendanceRowRenderer extends RecordRowRenderer<AttendanceListing> {
+
+    public AttendanceRowRenderer(RecordProvider<AttendanceListing> model) {
+        super(model);
+    }
+
+    @Override
+    protected RowStyle getRowStyle(AttendanceListing record) {
+        String status = record.getStatus();
+        if ("PRESENT".equalsIgnoreCase(status)) {
+            return RowStyle.PRESENT;
+        } else if ("ABSENT".equalsIgnoreCase(status)) {
+            return RowStyle.ABSENT;
+        }
+        return RowStyle.DEFAULT;
+    }
+}
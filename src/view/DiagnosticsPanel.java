@@ -0,0 +1,200 @@
+package view;
+
+import metrics.HeapFootprint;
+import metrics.HeapFootprint.Snapshot;
+import metrics.HeapFootprint.Usage;
+import util.VirtualThreads;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Diagnostics panel showing how much heap each subsystem holds.
+ * Part of MVC architecture - View layer.
+ *
+ * Shows the latest HeapFootprint measurement - estimated size and object
+ * count per subsystem, and the change since the first measurement - with
+ * the history of measurements below. Measuring walks the subsystems' data,
+ * so it runs on a background thread; "Save Report" writes the same report
+ * HeapFootprint.dump() returns to a file in the working directory.
+ * A second tab lists the recent UI stalls EdtWatchdog recorded, newest first.
+ */
+public class DiagnosticsPanel extends BasePanel {
+
+    private static final double MB = 1024.0 * 1024.0;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int STALL_FRAMES_SHOWN = 5;
+
+    private final HeapFootprint footprint;
+    private DefaultTableModel tableModel;
+    private JTextArea historyArea;
+    private JTextArea stallsArea;
+    private JLabel statusLabel;
+    private JButton measureButton;
+    private JButton saveButton;
+
+    public DiagnosticsPanel() {
+        this.footprint = HeapFootprint.getInstance();
+        setupUI();
+    }
+
+    private void setupUI() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Top panel - Actions and heap summary
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        measureButton = new JButton("Measure Now");
+        saveButton = new JButton("Save Report");
+        setComponentStyles(measureButton, saveButton);
+        topPanel.add(measureButton);
+        topPanel.add(saveButton);
+        statusLabel = new JLabel();
+        topPanel.add(statusLabel);
+
+        // Table - latest measurement per subsystem
+        tableModel = new DefaultTableModel(new String[] {"Subsystem", "Estimated MB", "Objects", "MB Since First"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(tableModel);
+        table.setRowHeight(25);
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setPreferredSize(new Dimension(800, 250));
+
+        // History of measurements
+        historyArea = new JTextArea();
+        historyArea.setEditable(false);
+        historyArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        // Recent EDT stalls
+        stallsArea = new JTextArea();
+        stallsArea.setEditable(false);
+        stallsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JTabbedPane bottomTabs = new JTabbedPane();
+        bottomTabs.addTab("History", new JScrollPane(historyArea));
+        bottomTabs.addTab("UI Stalls", new JScrollPane(stallsArea));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, bottomTabs);
+        splitPane.setResizeWeight(0.5);
+
+        add(topPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+
+        measureButton.addActionListener(e -> measure());
+        saveButton.addActionListener(e -> saveReport());
+
+        // Show periodic measurements taken while the tab was hidden
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+                showLatest();
+            }
+        });
+        showLatest();
+    }
+
+    /**
+     * Measures on a background thread, then shows the result.
+     */
+    private void measure() {
+        measureButton.setEnabled(false);
+        statusLabel.setText("Measuring...");
+        VirtualThreads.daemonThreadFactory("diagnostics").newThread(() -> {
+            try {
+                footprint.measure();
+            } catch (RuntimeException e) {
+                System.err.println("Heap footprint measurement failed: " + e);
+            }
+            SwingUtilities.invokeLater(() -> {
+                measureButton.setEnabled(true);
+                showLatest();
+            });
+        }).start();
+    }
+
+    private void saveReport() {
+        saveButton.setEnabled(false);
+        VirtualThreads.daemonThreadFactory("diagnostics").newThread(() -> {
+            try {
+                Path file = footprint.dumpToFile();
+                SwingUtilities.invokeLater(() -> showMessageDialog("Report Saved",
+                        "Heap footprint report written to " + file.toAbsolutePath()));
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> showErrorDialog("Error", "Could not save report: " + e.getMessage()));
+            }
+            SwingUtilities.invokeLater(() -> {
+                saveButton.setEnabled(true);
+                showLatest();
+            });
+        }).start();
+    }
+
+    private void showLatest() {
+        showStalls();
+        tableModel.setRowCount(0);
+        historyArea.setText(footprint.historyReport());
+        Snapshot latest = footprint.getLatest();
+        if (latest == null) {
+            statusLabel.setText("No measurement yet");
+            return;
+        }
+        Snapshot first = footprint.getHistory().get(0);
+        for (Usage usage : latest.getUsages()) {
+            Usage before = first.getUsage(usage.getSubsystem());
+            tableModel.addRow(new Object[] {
+                usage.getSubsystem(),
+                String.format(Locale.ROOT, "%.3f", usage.getBytes() / MB),
+                String.format("%,d", usage.getObjects()),
+                String.format(Locale.ROOT, "%+.3f", (usage.getBytes() - (before != null ? before.getBytes() : 0)) / MB)
+            });
+        }
+        tableModel.addRow(new Object[] {
+            "(shared between subsystems)",
+            String.format(Locale.ROOT, "%.3f", latest.getSharedBytes() / MB),
+            String.format("%,d", latest.getSharedObjects()),
+            ""
+        });
+        statusLabel.setText(String.format(Locale.ROOT, "Measured %s in %d ms - estimated %.1f MB, JVM heap %.1f of %.1f MB",
+                TIME_FORMAT.format(latest.getTime()), latest.getWalkMillis(), latest.getTotalBytes() / MB,
+                latest.getHeapUsed() / MB, latest.getHeapMax() / MB));
+    }
+
+    /**
+     * Lists the stalls EdtWatchdog kept, newest first, with the top of each sampled stack.
+     */
+    private void showStalls() {
+        EdtWatchdog watchdog = EdtWatchdog.getInstance();
+        if (watchdog == null) {
+            stallsArea.setText("EDT watchdog not installed");
+            return;
+        }
+        List<EdtWatchdog.Stall> stalls = watchdog.getRecentStalls();
+        if (stalls.isEmpty()) {
+            stallsArea.setText("No UI stalls recorded");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = stalls.size() - 1; i >= 0; i--) {
+            EdtWatchdog.Stall stall = stalls.get(i);
+            sb.append(String.format("%s  %,6d ms  %s (%s)%n",
+                    TIME_FORMAT.format(stall.getTime()),
+                    stall.getDurationMillis(), stall.getOperation(), stall.getEventType()));
+            StackTraceElement[] stack = stall.getStack();
+            for (int frame = 0; frame < Math.min(stack.length, STALL_FRAMES_SHOWN); frame++) {
+                sb.append("        at ").append(stack[frame]).append(System.lineSeparator());
+            }
+        }
+        stallsArea.setText(sb.toString());
+        stallsArea.setCaretPosition(0);
+    }
+}
@@ -0,0 +1,310 @@
+package view;
+
+import metrics.MetricsRegistry;
+import metrics.OperationTimer;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.InvocationEvent;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Event queue that measures how long the Event Dispatch Thread spends on
+ * each event and reports events that freeze the UI.
+ *
+ * Every dispatch is timed into the edt.dispatch timer. A daemon thread
+ * watches the dispatch in progress; once it has run longer than the
+ * threshold, the thread samples the EDT's stack. When the event finishes,
+ * it is recorded as a stall: its time goes into an edt.stall.Class.method
+ * timer named after the innermost view frame of the sampled stack (for
+ * example the panel method that ran SQL), and the stall is printed to
+ * System.err with the top of the stack. MetricsRegistry publishes these
+ * timers over JMX like the other metrics. The most recent stalls are kept
+ * for the Diagnostics tab.
+ *
+ * Events that open a modal dialog run a nested event loop until the dialog
+ * closes. The events inside the loop are timed on their own; the outer event
+ * is timed again from the end of the last nested event, so work done after
+ * the dialog closes (such as a refresh) is timed and sampled like any event.
+ * The time before the loop started is not counted, as it cannot be told
+ * apart from waiting for the first nested event.
+ *
+ * The threshold is studentapp.edt.stall.ms (default 200 ms).
+ */
+public class EdtWatchdog extends EventQueue {
+
+    public static final String THRESHOLD_PROPERTY = "studentapp.edt.stall.ms";
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 200;
+    private static final int MAX_RECENT_STALLS = 50;
+    private static final int MAX_PRINTED_FRAMES = 12;
+    private static final String[] PLATFORM_PACKAGES = {
+        "java.", "javax.", "sun.", "jdk.", "com.sun.", "org.sqlite.", "metrics.", "dao.TimedConnection",
+        "view.EdtWatchdog"
+    };
+
+    private static EdtWatchdog instance;
+
+    private final long thresholdNanos;
+    private final OperationTimer dispatchTimer = MetricsRegistry.getInstance().timer("edt.dispatch");
+    private final Deque<Stall> recentStalls = new ArrayDeque<>();
+    // Dispatches in progress, innermost first; nested loops run on the same thread
+    private final Deque<Dispatch> dispatches = new ArrayDeque<>();
+
+    // Written by the EDT, read by the watchdog thread: the segment being timed
+    private volatile long segmentCount;
+    private volatile long segmentStart;
+    private volatile Thread dispatchThread;
+    // Written by the watchdog thread: stack of the segment with the given count
+    private volatile StackSample sample;
+
+    private EdtWatchdog(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+    }
+
+    /**
+     * Installs the watchdog as the application's event queue. Calling it again has no effect.
+     */
+    public static synchronized void install() {
+        if (instance != null) {
+            return;
+        }
+        instance = new EdtWatchdog(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(instance);
+
+        Thread watcher = new Thread(instance::watch, "edt-watchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * @return The installed watchdog, or null if install() was not called
+     */
+    public static synchronized EdtWatchdog getInstance() {
+        return instance;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        Dispatch dispatch = new Dispatch();
+        dispatches.push(dispatch);
+        startSegment(dispatch, System.nanoTime());
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            dispatches.pop();
+            // An event hosting a nested loop (modal dialog) resumes once this one returns
+            Dispatch outer = dispatches.peek();
+            if (outer != null) {
+                startSegment(outer, end);
+            } else {
+                segmentStart = 0;
+            }
+
+            long nanos = end - dispatch.start;
+            dispatchTimer.recordNanos(nanos);
+            if (nanos >= thresholdNanos) {
+                StackSample stackSample = sample;
+                recordStall(event, nanos,
+                        stackSample != null && stackSample.segment == dispatch.segment ? stackSample.stack : null);
+            }
+        }
+    }
+
+    /**
+     * Starts timing a dispatch from the given time, as a new segment for the watchdog thread.
+     */
+    private void startSegment(Dispatch dispatch, long start) {
+        dispatch.segment = segmentCount + 1;
+        dispatch.start = start;
+        segmentCount = dispatch.segment;
+        dispatchThread = Thread.currentThread();
+        segmentStart = start;
+    }
+
+    /**
+     * Watchdog loop: samples the EDT stack once per segment that runs past the threshold.
+     */
+    private void watch() {
+        long pollMillis = Math.max(10, Math.min(100, thresholdNanos / 4_000_000L));
+        while (true) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = segmentStart;
+            long count = segmentCount;
+            StackSample last = sample;
+            if (start == 0 || System.nanoTime() - start < thresholdNanos || (last != null && last.segment == count)) {
+                continue;
+            }
+            StackTraceElement[] stack = dispatchThread.getStackTrace();
+            // Only keep the sample if the same segment is still running
+            if (segmentStart == start && segmentCount == count) {
+                sample = new StackSample(count, stack);
+            }
+        }
+    }
+
+    private void recordStall(AWTEvent event, long nanos, StackTraceElement[] stack) {
+        String operation = stack != null ? findOperation(stack) : null;
+        if (operation == null) {
+            operation = describe(event);
+        }
+        MetricsRegistry.getInstance().timer("edt.stall." + operation).recordNanos(nanos);
+
+        Stall stall = new Stall(LocalDateTime.now(), operation, event.getClass().getSimpleName(), nanos, stack);
+        synchronized (recentStalls) {
+            if (recentStalls.size() >= MAX_RECENT_STALLS) {
+                recentStalls.removeFirst();
+            }
+            recentStalls.addLast(stall);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("EDT stall: %d ms in %s (%s)%n", nanos / 1_000_000, operation,
+                event.getClass().getSimpleName()));
+        if (stack != null) {
+            for (int i = 0; i < Math.min(stack.length, MAX_PRINTED_FRAMES); i++) {
+                sb.append("    at ").append(stack[i]).append(System.lineSeparator());
+            }
+        }
+        System.err.print(sb);
+    }
+
+    /**
+     * Names the stalled operation after the innermost view frame of the stack
+     * (the UI code that did the work), or else the innermost application frame.
+     */
+    private static String findOperation(StackTraceElement[] stack) {
+        StackTraceElement applicationFrame = null;
+        for (StackTraceElement frame : stack) {
+            if (isPlatformFrame(frame)) {
+                continue;
+            }
+            if (frame.getClassName().startsWith("view.")) {
+                return frameName(frame);
+            }
+            if (applicationFrame == null) {
+                applicationFrame = frame;
+            }
+        }
+        return applicationFrame != null ? frameName(applicationFrame) : null;
+    }
+
+    private static boolean isPlatformFrame(StackTraceElement frame) {
+        for (String prefix : PLATFORM_PACKAGES) {
+            if (frame.getClassName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Class.method, with lambdas named after the method that declared them.
+     */
+    private static String frameName(StackTraceElement frame) {
+        String method = frame.getMethodName();
+        if (method.startsWith("lambda$")) {
+            String[] parts = method.split("\\$");
+            method = parts.length > 1 ? parts[1] : method;
+        }
+        return frame.getClassName().replaceAll("\\$\\$Lambda.*", "") + "." + method;
+    }
+
+    /**
+     * Names an event when no stack sample is available (it finished before the watchdog looked).
+     */
+    private static String describe(AWTEvent event) {
+        if (event instanceof InvocationEvent) {
+            String params = event.paramString();
+            int runnable = params.indexOf("runnable=");
+            if (runnable >= 0) {
+                String name = params.substring(runnable + "runnable=".length()).split("[@,]", 2)[0];
+                return name.replaceAll("\\$\\$Lambda.*", "");
+            }
+        }
+        Object source = event.getSource();
+        return event.getClass().getSimpleName() + (source != null ? "@" + source.getClass().getName() : "");
+    }
+
+    /**
+     * @return Up to the last 50 stalls, oldest first
+     */
+    public List<Stall> getRecentStalls() {
+        synchronized (recentStalls) {
+            return new ArrayList<>(recentStalls);
+        }
+    }
+
+    /**
+     * An event being dispatched; only the EDT touches it.
+     */
+    private static class Dispatch {
+        long segment;
+        long start;
+    }
+
+    private static class StackSample {
+        final long segment;
+        final StackTraceElement[] stack;
+
+        StackSample(long segment, StackTraceElement[] stack) {
+            this.segment = segment;
+            this.stack = stack;
+        }
+    }
+
+    /**
+     * One event that kept the EDT busy past the threshold.
+     */
+    public static class Stall {
+        private final LocalDateTime time;
+        private final String operation;
+        private final String eventType;
+        private final long nanos;
+        private final StackTraceElement[] stack;
+
+        Stall(LocalDateTime time, String operation, String eventType, long nanos, StackTraceElement[] stack) {
+            this.time = time;
+            this.operation = operation;
+            this.eventType = eventType;
+            this.nanos = nanos;
+            this.stack = stack;
+        }
+
+        /**
+         * @return When the stalled event finished
+         */
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getEventType() {
+            return eventType;
+        }
+
+        public long getDurationMillis() {
+            return nanos / 1_000_000;
+        }
+
+        /**
+         * @return EDT stack sampled during the stall, or an empty array if none was taken
+         */
+        public StackTraceElement[] getStack() {
+            return stack != null ? stack.clone() : new StackTraceElement[0];
+        }
+    }
+}
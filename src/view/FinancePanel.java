@@ -1,25 +1,30 @@
 package view;
 
+import facade.AsyncStudentManagementFacade;
 import facade.StudentManagementFacade;
 import observer.StudentDataObserver;
 import observer.StudentDataManager;
 import chain.ValidationChainBuilder;
 import chain.ValidationHandler;
-import model.Payment;
-import model.Student;
+import dao.ListingOrder;
+import metrics.HeapFootprint;
+import model.PaymentListing;
+import util.StudentDirectory;
 import exceptions.*;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Unified Finance Panel consolidating Add, View, and Balance operations.
@@ -29,14 +34,19 @@ import java.util.Map;
  */
 public class FinancePanel extends BasePanel implements StudentDataObserver {
 
+    // Model order of the listing, as ListingOrder.NEWEST_FIRST returns it
+    private static final Comparator<PaymentListing> NEWEST_FIRST =
+            Comparator.comparing(PaymentListing::getDate).thenComparingInt(PaymentListing::getId).reversed();
+
     private StudentManagementFacade facade;
-    private DefaultTableModel tableModel;
+    private PaymentTableModel tableModel;
     private JTable paymentTable;
 
-    // Cache for student names: StudentID -> Name
-    private Map<String, String> studentNameMap;
     // Store all records for filtering
-    private List<Payment> allRecords;
+    private List<PaymentListing> allRecords;
+    // Incremented by each reload; only the latest one's result is shown
+    private int loadSequence;
+    private SearchFilter<PaymentListing> searchFilter;
 
     // Toolbar buttons
     private JButton addButton;
@@ -53,11 +63,18 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
 
     public FinancePanel() {
         this.facade = StudentManagementFacade.getInstance();
-        this.studentNameMap = new HashMap<>();
+        this.searchFilter = new SearchFilter<>(r -> new String[] {
+            r.getStudentId(), r.getStudentName(), r.getDescription()
+        });
         setupUI();
 
         // Observer Pattern: Register this panel as an observer
         StudentDataManager.getInstance().addObserver(this);
+
+        // Heap diagnostics: the payment listings and everything derived from them
+        HeapFootprint.getInstance().register("FinancePanel", this, panel -> new Object[] {
+            panel.allRecords, panel.tableModel, panel.paymentTable.getRowSorter(), panel.searchFilter
+        });
     }
 
     /**
@@ -66,17 +83,87 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
     @Override
     public void onStudentDataChanged(String eventType) {
         // Refresh on any relevant change
-        if ("PAYMENT".equals(eventType) || "STUDENT_UPDATE".equals(eventType)) {
+        // Payments changed, or student names (joined in SQL) may have
+        if ("PAYMENT".equals(eventType) || "ADD".equals(eventType)
+                || "UPDATE".equals(eventType) || "DELETE".equals(eventType)) {
+            SwingUtilities.invokeLater(this::refreshData);
+        }
+    }
+
+    /**
+     * Observer Pattern: Called when specific payments or students change, e.g.
+     * in another application instance. Changed payments are re-read by ID;
+     * changed students only need their names, taken from StudentDirectory.
+     */
+    @Override
+    public void onStudentDataChanged(String eventType, Set<String> keys) {
+        if ("PAYMENT".equals(eventType)) {
+            Set<Integer> ids = new HashSet<>();
+            for (String key : keys) {
+                ids.add(Integer.valueOf(key));
+            }
+            AsyncStudentManagementFacade.getInstance().getPaymentListingsByIds(ids).whenComplete((current, ex) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (ex != null) {
+                        System.err.println("Failed to load changed payments: " + ex.getCause().getMessage());
+                    } else if (allRecords != null) {
+                        showRecords(mergePayments(ids, current));
+                    }
+                }));
+        } else if ("ADD".equals(eventType) || "UPDATE".equals(eventType) || "DELETE".equals(eventType)) {
             SwingUtilities.invokeLater(() -> {
-                try {
-                    refreshData();
-                } catch (SQLException e) {
-                    // Silently handle
+                if (allRecords != null) {
+                    showRecords(renameStudents(keys));
                 }
             });
         }
     }
 
+    /**
+     * Returns the loaded records with the given payments replaced by their
+     * current rows: deleted payments are dropped and new ones added in order.
+     */
+    private List<PaymentListing> mergePayments(Set<Integer> ids, List<PaymentListing> current) {
+        Map<Integer, PaymentListing> changed = new HashMap<>();
+        for (PaymentListing record : current) {
+            changed.put(record.getId(), record);
+        }
+        List<PaymentListing> merged = new ArrayList<>(allRecords.size() + changed.size());
+        for (PaymentListing record : allRecords) {
+            if (!ids.contains(record.getId())) {
+                merged.add(record);
+            } else {
+                PaymentListing updated = changed.remove(record.getId());
+                if (updated != null) {
+                    merged.add(updated);
+                }
+            }
+        }
+        merged.addAll(changed.values());
+        // Nearly sorted already, so this is close to a single pass
+        merged.sort(NEWEST_FIRST);
+        return merged;
+    }
+
+    /**
+     * Returns the loaded records with the given students' current names.
+     */
+    private List<PaymentListing> renameStudents(Set<String> studentIds) {
+        StudentDirectory directory = StudentDirectory.getInstance();
+        List<PaymentListing> renamed = new ArrayList<>(allRecords.size());
+        for (PaymentListing record : allRecords) {
+            String name = studentIds.contains(record.getStudentId())
+                    ? directory.getName(record.getStudentId(), "Unknown") : null;
+            if (name == null || name.equals(record.getStudentName())) {
+                renamed.add(record);
+            } else {
+                renamed.add(new PaymentListing(record.getId(), record.getStudentId(), name, record.getAmount(),
+                        record.getDate(), record.getDescription(), record.getVersion()));
+            }
+        }
+        return renamed;
+    }
+
     private void setupUI() {
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -105,35 +192,16 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
         topPanel.add(refreshButton);
 
         // Table
-        String[] columns = { "ID", "Student ID", "Student Name", "Amount", "Date", "Description" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PaymentTableModel();
         paymentTable = new JTable(tableModel);
         paymentTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         paymentTable.setRowHeight(25);
 
-        // Color coding for Amount
-        paymentTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (!isSelected && column == 3) { // Amount column
-                    c.setForeground(new Color(0, 128, 0)); // Dark green text
-                    c.setFont(c.getFont().deriveFont(Font.BOLD));
-                } else {
-                    c.setForeground(Color.BLACK);
-                    c.setFont(c.getFont().deriveFont(Font.PLAIN));
-                }
+        // Row colours resolved once per row from the record, using shared constants
+        paymentTable.setDefaultRenderer(Object.class, new PaymentRowRenderer(tableModel));
 
-                return c;
-            }
-        });
+        // Column header sorting permutes a view index over the loaded listings
+        paymentTable.setRowSorter(KeyedRowSorter.forRecords(tableModel));
 
         JScrollPane scrollPane = new JScrollPane(paymentTable);
         scrollPane.setPreferredSize(new Dimension(800, 400));
@@ -169,23 +237,13 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
         editButton.addActionListener(e -> handleEdit());
         deleteButton.addActionListener(e -> handleDelete());
 
-        refreshButton.addActionListener(e -> {
-            try {
-                refreshData();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
-        });
+        refreshButton.addActionListener(e -> refreshData());
 
         clearButton.addActionListener(e -> {
             searchField.setText("");
             dateFromField.setText("");
             dateToField.setText("");
-            try {
-                refreshData();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
+            refreshData();
         });
 
         // Real-time search/filter
@@ -206,17 +264,13 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
         dateFromField.getDocument().addDocumentListener(filterListener);
         dateToField.getDocument().addDocumentListener(filterListener);
 
-        // Initial Load
-        try {
-            refreshData();
-        } catch (SQLException ex) {
-            showErrorDialog("Database Error", "Failed to load data: " + ex.getMessage());
-        }
+        // Initial load runs in the background so building this tab never waits for the database
+        refreshData();
     }
 
     private void handleAddPayment() {
         try {
-            List<Student> students = facade.getAllStudents();
+            List<StudentDirectory.Entry> students = StudentDirectory.getInstance().getEntries();
             PaymentFormDialog dialog = new PaymentFormDialog(
                     (Frame) SwingUtilities.getWindowAncestor(this),
                     students);
@@ -255,9 +309,10 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
             return;
         }
 
-        int id = (Integer) tableModel.getValueAt(selectedRow, 0);
-        String currentAmount = ((String) tableModel.getValueAt(selectedRow, 3)).replace("$", "").trim();
-        String currentDesc = (String) tableModel.getValueAt(selectedRow, 5);
+        PaymentListing record = tableModel.getRecordAt(paymentTable.convertRowIndexToModel(selectedRow));
+        int id = record.getId();
+        String currentAmount = String.format("%.2f", record.getAmount());
+        String currentDesc = record.getDescription();
 
         // Simple dialog for editing amount and description
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Edit Payment", true);
@@ -300,7 +355,8 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
 
                 double amount = Double.parseDouble(amtStr);
 
-                facade.updatePayment(id, amount, desc);
+                // Optimistic locking: fails if the record changed since it was loaded
+                facade.updatePayment(id, amount, desc, record.getVersion());
                 showMessageDialog("Success", "Payment updated!");
                 dialog.dispose();
                 refreshData();
@@ -327,9 +383,11 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
             return;
         }
 
-        int id = (Integer) tableModel.getValueAt(selectedRow, 0);
-        String name = (String) tableModel.getValueAt(selectedRow, 2);
-        String amount = (String) tableModel.getValueAt(selectedRow, 3);
+        int modelRow = paymentTable.convertRowIndexToModel(selectedRow);
+        PaymentListing record = tableModel.getRecordAt(modelRow);
+        int id = record.getId();
+        String name = record.getStudentName();
+        String amount = PaymentTableModel.formatAmount(record.getAmount());
 
         int confirm = JOptionPane.showConfirmDialog(
                 this,
@@ -350,63 +408,60 @@ public class FinancePanel extends BasePanel implements StudentDataObserver {
     }
 
     /**
-     * Refreshes all data: Student Map and Payment Records.
+     * Reloads the payment records, with student names joined in SQL. The
+     * query runs in the background; the table updates on the EDT when it
+     * returns, unless a later reload was started meanwhile.
      */
-    private void refreshData() throws SQLException {
-        // 1. Refresh Student Map (ID -> Name)
-        studentNameMap.clear();
-        List<Student> students = facade.getAllStudents();
-        for (Student s : students) {
-            studentNameMap.put(s.getStudentId(), s.getName());
-        }
+    private void refreshData() {
+        int load = ++loadSequence;
+        AsyncStudentManagementFacade.getInstance()
+            .getPaymentListings("", "", "", ListingOrder.NEWEST_FIRST)
+            .whenComplete((records, ex) -> SwingUtilities.invokeLater(() -> {
+                if (load != loadSequence) {
+                    return;
+                }
+                if (ex != null) {
+                    showErrorDialog("Database Error", "Failed to load data: " + ex.getCause().getMessage());
+                } else {
+                    showRecords(records);
+                }
+            }));
+    }
 
-        // 2. Load Payment Records
-        allRecords = facade.getAllPayments();
+    private void showRecords(List<PaymentListing> records) {
+        allRecords = records;
 
-        // 3. Apply Filters
-        filterRecords();
+        // Re-index for searching, then show the rows matching the current search and date range
+        searchFilter.setRecords(allRecords);
+        searchFilter.filterNow(searchField.getText(), dateRangeFilter(), this::showPayments);
     }
 
+
     private void filterRecords() {
-        String search = searchField.getText().trim().toLowerCase();
+        searchFilter.filter(searchField.getText(), dateRangeFilter(), this::showPayments);
+    }
+
+    /**
+     * Builds the From/To date condition from the current field values (null if both are empty).
+     */
+    private Predicate<PaymentListing> dateRangeFilter() {
         String from = dateFromField.getText().trim();
         String to = dateToField.getText().trim();
+        if (from.isEmpty() && to.isEmpty()) {
+            return null;
+        }
+        return r -> (from.isEmpty() || r.getDate().compareTo(from) >= 0) &&
+                (to.isEmpty() || r.getDate().compareTo(to) <= 0);
+    }
 
-        if (allRecords == null)
-            return;
-
-        List<Payment> filtered = new ArrayList<>();
+    private void showPayments(List<PaymentListing> filtered) {
         double totalAmount = 0.0;
-
-        for (Payment r : allRecords) {
-            String sName = studentNameMap.getOrDefault(r.getStudentId(), "Unknown");
-
-            boolean matchesSearch = search.isEmpty() ||
-                    r.getStudentId().toLowerCase().contains(search) ||
-                    sName.toLowerCase().contains(search) ||
-                    r.getDescription().toLowerCase().contains(search);
-
-            boolean matchesDate = (from.isEmpty() || r.getDate().compareTo(from) >= 0) &&
-                    (to.isEmpty() || r.getDate().compareTo(to) <= 0);
-
-            if (matchesSearch && matchesDate) {
-                filtered.add(r);
-                totalAmount += r.getAmount();
-            }
+        for (PaymentListing r : filtered) {
+            totalAmount += r.getAmount();
         }
 
-        // Update Table
-        tableModel.setRowCount(0);
-        for (Payment r : filtered) {
-            tableModel.addRow(new Object[] {
-                    r.getId(),
-                    r.getStudentId(),
-                    studentNameMap.getOrDefault(r.getStudentId(), "Unknown"),
-                    String.format("$%.2f", r.getAmount()),
-                    r.getDate(),
-                    r.getDescription()
-            });
-        }
+        // Update Table - only rows that changed since the last update fire events
+        tableModel.updateRecords(filtered);
 
         // Update Total
         totalLabel.setText(String.format("Total: $%.2f", totalAmount));
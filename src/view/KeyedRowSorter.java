@@ -0,0 +1,461 @@
+package view;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row sorter that sorts an index of view rows over the model using sort keys
+ * computed once per row.
+ * Part of MVC architecture - View layer.
+ *
+ * The model is never reordered or rebuilt: sorting only permutes an int[]
+ * of model row numbers. Keys for a sorted column are read once from the
+ * KeySource into an array, so comparisons never go back to the model and
+ * never format or parse a cell value. Rows that compare equal keep model
+ * order.
+ *
+ * Model events are applied incrementally. Inserted, deleted and updated rows
+ * are placed into (or removed from) the sorted index without re-sorting the
+ * rest, so the small diffs fired by RecordTableModel.updateRecords() stay
+ * cheap on large tables. JTable forwards model events to the sorter; the
+ * sorter does not listen to the model itself.
+ *
+ * @param <M> Type of the table model
+ */
+public class KeyedRowSorter<M extends TableModel> extends RowSorter<M> {
+
+    private static final int MAX_SORT_KEYS = 3;
+
+    /**
+     * Supplies the sort key of one cell.
+     */
+    @FunctionalInterface
+    public interface KeySource {
+        /**
+         * Returns the key a model cell sorts by (null sorts first).
+         */
+        Comparable<?> getSortKey(int modelRow, int column);
+    }
+
+    private final M model;
+    private final KeySource keySource;
+    private List<SortKey> sortKeys = Collections.emptyList();
+
+    // Sorted column -> key of each model row. Keys are Comparable, but held as
+    // Object so the arrays need no raw or unchecked generic array creation.
+    private final Map<Integer, Object[]> keys = new HashMap<>();
+    // Active sort as parallel arrays, rebuilt with the sort keys
+    private Object[][] activeKeys;
+    private boolean[] descending;
+
+    // Both null while unsorted (view order is model order)
+    private int[] viewToModel;
+    private int[] modelToView;
+
+    public KeyedRowSorter(M model, KeySource keySource) {
+        this.model = model;
+        this.keySource = keySource;
+    }
+
+    /**
+     * Creates a sorter for a record table model, using its column sort keys.
+     */
+    public static <T> KeyedRowSorter<RecordTableModel<T>> forRecords(RecordTableModel<T> model) {
+        return new KeyedRowSorter<>(model, model::getSortKey);
+    }
+
+    @Override
+    public M getModel() {
+        return model;
+    }
+
+    /**
+     * Makes the column the primary sort key, ascending, or reverses it if it
+     * already is. Earlier keys are kept as tie-breakers.
+     */
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        List<SortKey> newKeys = new ArrayList<>(sortKeys);
+        SortOrder order = SortOrder.ASCENDING;
+        if (!newKeys.isEmpty() && newKeys.get(0).getColumn() == column) {
+            order = newKeys.get(0).getSortOrder() == SortOrder.ASCENDING
+                    ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+        }
+        newKeys.removeIf(key -> key.getColumn() == column);
+        newKeys.add(0, new SortKey(column, order));
+        if (newKeys.size() > MAX_SORT_KEYS) {
+            newKeys = newKeys.subList(0, MAX_SORT_KEYS);
+        }
+        setSortKeys(newKeys);
+    }
+
+    /**
+     * Sorts by a single column.
+     */
+    public void sortBy(int column, SortOrder order) {
+        checkColumn(column);
+        setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> newKeys) {
+        List<SortKey> copy = new ArrayList<>();
+        if (newKeys != null) {
+            for (SortKey key : newKeys) {
+                checkColumn(key.getColumn());
+                if (key.getSortOrder() != SortOrder.UNSORTED) {
+                    copy.add(key);
+                }
+            }
+        }
+        if (copy.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = Collections.unmodifiableList(copy);
+        keys.keySet().removeIf(column -> !isSortedColumn(column));
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= getViewRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid view index: " + index);
+        }
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= getModelRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid model index: " + index);
+        }
+        return modelToView == null ? index : modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? model.getRowCount() : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        int columnCount = model.getColumnCount();
+        List<SortKey> valid = new ArrayList<>();
+        for (SortKey key : sortKeys) {
+            if (key.getColumn() < columnCount) {
+                valid.add(key);
+            }
+        }
+        if (valid.size() != sortKeys.size()) {
+            sortKeys = Collections.unmodifiableList(valid);
+            fireSortOrderChanged();
+        }
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        keys.clear();
+        sort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (!isSorted()) {
+            return;
+        }
+        int count = endRow - firstRow + 1;
+        int oldRowCount = viewToModel.length;
+        if (firstRow < 0 || firstRow > oldRowCount || count <= 0 || model.getRowCount() != oldRowCount + count) {
+            allRowsChanged();
+            return;
+        }
+        int[] lastViewToModel = viewToModel;
+
+        // Shift the cached keys up and read the keys of the new rows
+        for (Map.Entry<Integer, Object[]> entry : keys.entrySet()) {
+            Object[] old = entry.getValue();
+            Object[] shifted = newKeyArray(old.length + count);
+            System.arraycopy(old, 0, shifted, 0, firstRow);
+            System.arraycopy(old, firstRow, shifted, endRow + 1, old.length - firstRow);
+            for (int row = firstRow; row <= endRow; row++) {
+                shifted[row] = readKey(row, entry.getKey());
+            }
+            entry.setValue(shifted);
+        }
+        refreshActiveKeys();
+
+        // Renumber the existing rows, then place each new row by binary search
+        int[] index = new int[oldRowCount + count];
+        int size = 0;
+        for (int modelRow : viewToModel) {
+            index[size++] = modelRow >= firstRow ? modelRow + count : modelRow;
+        }
+        for (int row = firstRow; row <= endRow; row++) {
+            size = insertSorted(index, size, row);
+        }
+        setViewToModel(index, lastViewToModel);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        if (!isSorted()) {
+            return;
+        }
+        int count = endRow - firstRow + 1;
+        int oldRowCount = viewToModel.length;
+        if (firstRow < 0 || endRow >= oldRowCount || count <= 0 || model.getRowCount() != oldRowCount - count) {
+            allRowsChanged();
+            return;
+        }
+        int[] lastViewToModel = viewToModel;
+
+        for (Map.Entry<Integer, Object[]> entry : keys.entrySet()) {
+            Object[] old = entry.getValue();
+            Object[] shifted = newKeyArray(old.length - count);
+            System.arraycopy(old, 0, shifted, 0, firstRow);
+            System.arraycopy(old, endRow + 1, shifted, firstRow, old.length - endRow - 1);
+            entry.setValue(shifted);
+        }
+        refreshActiveKeys();
+
+        // Drop the deleted rows and renumber the rest; relative order is unchanged
+        int[] index = new int[oldRowCount - count];
+        int size = 0;
+        for (int modelRow : viewToModel) {
+            if (modelRow < firstRow) {
+                index[size++] = modelRow;
+            } else if (modelRow > endRow) {
+                index[size++] = modelRow - count;
+            }
+        }
+        setViewToModel(index, lastViewToModel);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (!isSorted()) {
+            return;
+        }
+        if (firstRow < 0 || endRow >= viewToModel.length || model.getRowCount() != viewToModel.length) {
+            allRowsChanged();
+            return;
+        }
+        int[] lastViewToModel = viewToModel;
+
+        boolean keyChanged = false;
+        for (Map.Entry<Integer, Object[]> entry : keys.entrySet()) {
+            Object[] columnKeys = entry.getValue();
+            for (int row = firstRow; row <= endRow; row++) {
+                Object key = readKey(row, entry.getKey());
+                if (compareKeys(columnKeys[row], key) != 0) {
+                    columnKeys[row] = key;
+                    keyChanged = true;
+                }
+            }
+        }
+        if (!keyChanged) {
+            return;
+        }
+
+        // Take the updated rows out and put them back where their new keys belong
+        int[] index = new int[viewToModel.length];
+        int size = 0;
+        for (int modelRow : viewToModel) {
+            if (modelRow < firstRow || modelRow > endRow) {
+                index[size++] = modelRow;
+            }
+        }
+        for (int row = firstRow; row <= endRow; row++) {
+            size = insertSorted(index, size, row);
+        }
+        setViewToModel(index, lastViewToModel);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        if (isSortedColumn(column)) {
+            rowsUpdated(firstRow, endRow);
+        }
+    }
+
+    private boolean isSorted() {
+        return viewToModel != null;
+    }
+
+    private boolean isSortedColumn(int column) {
+        for (SortKey key : sortKeys) {
+            if (key.getColumn() == column) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the whole sorted index from the current sort keys.
+     */
+    private void sort() {
+        int[] lastViewToModel = viewToModel;
+        if (sortKeys.isEmpty()) {
+            keys.clear();
+            activeKeys = null;
+            viewToModel = null;
+            modelToView = null;
+            fireRowSorterChanged(lastViewToModel);
+            return;
+        }
+
+        int rowCount = model.getRowCount();
+        for (SortKey key : sortKeys) {
+            Object[] columnKeys = keys.get(key.getColumn());
+            if (columnKeys == null || columnKeys.length != rowCount) {
+                columnKeys = newKeyArray(rowCount);
+                for (int row = 0; row < rowCount; row++) {
+                    columnKeys[row] = readKey(row, key.getColumn());
+                }
+                keys.put(key.getColumn(), columnKeys);
+            }
+        }
+        refreshActiveKeys();
+
+        int[] index = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            index[i] = i;
+        }
+        mergeSort(index, new int[rowCount], 0, rowCount);
+        setViewToModel(index, lastViewToModel);
+    }
+
+    private void refreshActiveKeys() {
+        activeKeys = new Object[sortKeys.size()][];
+        descending = new boolean[sortKeys.size()];
+        for (int i = 0; i < sortKeys.size(); i++) {
+            activeKeys[i] = keys.get(sortKeys.get(i).getColumn());
+            descending[i] = sortKeys.get(i).getSortOrder() == SortOrder.DESCENDING;
+        }
+    }
+
+    private void setViewToModel(int[] index, int[] lastViewToModel) {
+        viewToModel = index;
+        modelToView = new int[index.length];
+        for (int view = 0; view < index.length; view++) {
+            modelToView[index[view]] = view;
+        }
+        fireRowSorterChanged(lastViewToModel);
+    }
+
+    /**
+     * Sorts index[from, to) by the active keys; small ranges use insertion sort.
+     */
+    private void mergeSort(int[] index, int[] buffer, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = index[i];
+                int j = i - 1;
+                while (j >= from && compareRows(index[j], row) > 0) {
+                    index[j + 1] = index[j];
+                    j--;
+                }
+                index[j + 1] = row;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(index, buffer, from, middle);
+        mergeSort(index, buffer, middle, to);
+        if (compareRows(index[middle - 1], index[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(index, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compareRows(buffer[left], buffer[right]) <= 0)) {
+                index[i] = buffer[left++];
+            } else {
+                index[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Inserts a model row into the sorted prefix index[0, size).
+     *
+     * @return The new size
+     */
+    private int insertSorted(int[] index, int size, int modelRow) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareRows(index[middle], modelRow) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        System.arraycopy(index, low, index, low + 1, size - low);
+        index[low] = modelRow;
+        return size + 1;
+    }
+
+    /**
+     * Compares two model rows by the active keys, then by model order.
+     */
+    private int compareRows(int rowA, int rowB) {
+        for (int i = 0; i < activeKeys.length; i++) {
+            int result = compareKeys(activeKeys[i][rowA], activeKeys[i][rowB]);
+            if (result != 0) {
+                return descending[i] ? -result : result;
+            }
+        }
+        return Integer.compare(rowA, rowB);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareKeys(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private Object readKey(int modelRow, int column) {
+        return keySource.getSortKey(modelRow, column);
+    }
+
+    private static Object[] newKeyArray(int length) {
+        return new Object[length];
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= model.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+    }
+}
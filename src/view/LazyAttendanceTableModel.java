@@ -0,0 +1,751 @@
+package view;
+
+import dao.AttendanceDAO.AttendanceCounts;
+import dao.ListingKey;
+import dao.ListingOrder;
+import facade.StudentManagementFacade;
+import model.AttendanceListing;
+import util.StudentDirectory;
+import util.VirtualThreads;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual table model for attendance records.
+ * Part of MVC architecture - View layer.
+ *
+ * Only the row count comes from the database up front. Rows are fetched in
+ * pages of PAGE_SIZE when the table first paints them. A small LRU of pages is
+ * kept, and the page after (or before) the one being viewed is prefetched in
+ * the direction the user is scrolling. Memory stays bounded however long the
+ * attendance history grows.
+ *
+ * Pages load on a single background thread, because all queries share one
+ * connection. Rows that are not loaded yet paint as blank and fill in when
+ * their page arrives. Filtering and the join with student names run in SQL
+ * (see AttendanceDAO).
+ *
+ * In the date orders a page is read after the key of the row before it
+ * (keyset paging), so a deep page costs the same as the first. The key that
+ * ends each loaded page is kept. A page with no known key before it (e.g.
+ * after dragging the scrollbar) first seeks one from the nearest known key,
+ * or the start or end of the listing, reading only the (date, id) index.
+ * No index serves the name orders, so their row IDs are read in order once
+ * per filter, order and reload, and each page is read by ID.
+ *
+ * A reload that leaves the row count unchanged (e.g. after an edit) keeps the
+ * cached pages on screen, fetches them again and repaints only the rows whose
+ * content differs. When the count changes, rows may have shifted, so the
+ * cache is dropped and the whole table refreshes. Changes to known records
+ * (updateRecords, updateStudentNames) patch the cached rows in place when
+ * they cannot move a row or change which rows match the filter.
+ *
+ * A page or row count that fails to load (e.g. while another instance holds
+ * the database's write lock) is retried after a delay that doubles with each
+ * failure, up to MAX_RETRY_DELAY_MS. Until then a failed page paints as
+ * blank without being queried again.
+ * All public methods must be called on the Event Dispatch Thread.
+ */
+public class LazyAttendanceTableModel extends AbstractTableModel implements RecordProvider<AttendanceListing> {
+
+    public static final int COL_ID = 0;
+    public static final int COL_STUDENT_ID = 1;
+    public static final int COL_STUDENT_NAME = 2;
+    public static final int COL_DATE = 3;
+    public static final int COL_STATUS = 4;
+
+    private static final String[] COLUMN_NAMES = { "ID", "Student ID", "Student Name", "Date", "Status" };
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 16;
+    private static final int RETRY_DELAY_MS = 500;
+    private static final int MAX_RETRY_DELAY_MS = 30_000;
+
+    private final StudentManagementFacade facade;
+    private final ExecutorService loader;
+
+    // Page number -> records, least recently used first
+    private final LinkedHashMap<Integer, List<AttendanceListing>> pages =
+            new LinkedHashMap<Integer, List<AttendanceListing>>(MAX_CACHED_PAGES * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<AttendanceListing>> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            };
+    // Page number -> generation of the load in progress (or waiting to retry)
+    private final Map<Integer, Integer> pendingPages = new HashMap<>();
+    // Page number -> consecutive failed loads
+    private final Map<Integer, Integer> failedPages = new HashMap<>();
+
+    // Only used on the loader thread, and only valid for loaderGeneration:
+    // page number -> key of the page's last row (date orders)
+    private final TreeMap<Integer, ListingKey> pageEndKeys = new TreeMap<>();
+    // every row's record ID, in order (name orders; null until read)
+    private int[] orderedIds;
+    private int loaderGeneration;
+
+    private String search = "";
+    private String dateFilter = "";
+    private ListingOrder order = ListingOrder.NEWEST_FIRST;
+    private AttendanceCounts counts = new AttendanceCounts(0, 0, 0);
+    // Incremented on every reload, filter and order; results of older loads are discarded
+    private int generation;
+    // Incremented on every reload; older row counts are discarded
+    private int countGeneration;
+    private int countFailures;
+    private int lastPage;
+    private Runnable reloadListener;
+
+    public LazyAttendanceTableModel(StudentManagementFacade facade) {
+        this.facade = facade;
+        this.loader = Executors.newSingleThreadExecutor(VirtualThreads.daemonThreadFactory("attendance-pages"));
+    }
+
+    /**
+     * Sets a callback run on the EDT after each reload, once the new counts are known.
+     */
+    public void setReloadListener(Runnable reloadListener) {
+        this.reloadListener = reloadListener;
+    }
+
+    /**
+     * Applies a new filter and reloads the row count. Cached pages are dropped.
+     *
+     * @param search Text contained in the student ID, name or status (empty for all)
+     * @param dateFilter Text contained in the date (empty for all)
+     */
+    public void setFilter(String search, String dateFilter) {
+        this.search = search;
+        this.dateFilter = dateFilter;
+        reload();
+    }
+
+    /**
+     * Reloads the row count with the current filter, e.g. after records changed.
+     * Rows keep showing until the new count arrives.
+     */
+    public void reload() {
+        generation++;
+        loadCounts(++countGeneration);
+    }
+
+    private void loadCounts(int countGen) {
+        String s = search;
+        String d = dateFilter;
+        loader.execute(() -> {
+            try {
+                AttendanceCounts newCounts = facade.countAttendance(s, d);
+                SwingUtilities.invokeLater(() -> applyCounts(countGen, newCounts));
+            } catch (Exception e) {
+                System.err.println("Failed to count attendance records: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> countFailed(countGen));
+            }
+        });
+    }
+
+    /**
+     * Counts again after a delay, unless a newer reload has started since.
+     */
+    private void countFailed(int countGen) {
+        if (countGen != countGeneration) {
+            return;
+        }
+        countFailures++;
+        schedule(retryDelay(countFailures), () -> {
+            if (countGen == countGeneration && !loader.isShutdown()) {
+                loadCounts(countGen);
+            }
+        });
+    }
+
+    private void applyCounts(int countGen, AttendanceCounts newCounts) {
+        if (countGen != countGeneration) {
+            return;
+        }
+        countFailures = 0;
+        boolean sameRowCount = newCounts.getTotal() == counts.getTotal();
+        counts = newCounts;
+        pendingPages.clear();
+        failedPages.clear();
+        if (sameRowCount) {
+            // Keep showing the cached pages and re-fetch them; applyPage repaints only rows that changed.
+            // In page order, so each page continues from the key its predecessor just found.
+            for (Integer page : new TreeMap<>(pages).keySet()) {
+                requestPage(page);
+            }
+        } else {
+            pages.clear();
+            fireTableDataChanged();
+        }
+        if (reloadListener != null) {
+            reloadListener.run();
+        }
+    }
+
+    /**
+     * Re-reads the given attendance records and updates their cached rows, e.g.
+     * after another application instance changed them. Falls back to reload()
+     * when a record may have been added, removed or moved: it is not cached,
+     * no longer exists, changed date or student, or a filter is active.
+     */
+    public void updateRecords(Set<Integer> ids) {
+        if (!search.isEmpty() || !dateFilter.isEmpty() || !allCached(ids)) {
+            reload();
+            return;
+        }
+        int gen = generation;
+        loader.execute(() -> {
+            try {
+                List<AttendanceListing> records = facade.getAttendanceListingsByIds(ids);
+                SwingUtilities.invokeLater(() -> applyRecords(gen, ids, records));
+            } catch (Exception e) {
+                System.err.println("Failed to load changed attendance records: " + e.getMessage());
+            }
+        });
+    }
+
+    private boolean allCached(Set<Integer> ids) {
+        Set<Integer> missing = new HashSet<>(ids);
+        for (List<AttendanceListing> records : pages.values()) {
+            for (AttendanceListing record : records) {
+                missing.remove(record.getId());
+            }
+        }
+        return missing.isEmpty();
+    }
+
+    private void applyRecords(int gen, Set<Integer> ids, List<AttendanceListing> records) {
+        if (gen != generation) {
+            // Reloaded since the request; the re-fetched pages already have these rows
+            return;
+        }
+        Map<Integer, AttendanceListing> changed = new HashMap<>();
+        for (AttendanceListing record : records) {
+            changed.put(record.getId(), record);
+        }
+        if (changed.size() < ids.size()) {
+            reload();
+            return;
+        }
+        for (List<AttendanceListing> page : pages.values()) {
+            for (AttendanceListing before : page) {
+                AttendanceListing after = changed.get(before.getId());
+                if (after != null && (!Objects.equals(before.getDate(), after.getDate())
+                        || !Objects.equals(before.getStudentId(), after.getStudentId()))) {
+                    reload();
+                    return;
+                }
+            }
+        }
+
+        int present = counts.getPresent();
+        int absent = counts.getAbsent();
+        for (Map.Entry<Integer, List<AttendanceListing>> page : pages.entrySet()) {
+            List<AttendanceListing> rows = page.getValue();
+            for (int index = 0; index < rows.size(); index++) {
+                AttendanceListing before = rows.get(index);
+                AttendanceListing after = changed.get(before.getId());
+                if (after == null || isSameRow(before, after)) {
+                    continue;
+                }
+                present += statusCount(after, "PRESENT") - statusCount(before, "PRESENT");
+                absent += statusCount(after, "ABSENT") - statusCount(before, "ABSENT");
+                rows.set(index, after);
+                int row = page.getKey() * PAGE_SIZE + index;
+                fireTableRowsUpdated(row, row);
+            }
+        }
+        if (present != counts.getPresent() || absent != counts.getAbsent()) {
+            counts = new AttendanceCounts(counts.getTotal(), present, absent);
+            if (reloadListener != null) {
+                reloadListener.run();
+            }
+        }
+    }
+
+    private static int statusCount(AttendanceListing record, String status) {
+        return status.equals(record.getStatus()) ? 1 : 0;
+    }
+
+    /**
+     * Shows the current names of the given students in the cached rows, taken
+     * from StudentDirectory, so renaming a student needs no query. Falls back
+     * to reload() when rows are ordered or filtered by name, since a new name
+     * can move rows or change which rows match.
+     */
+    public void updateStudentNames(Set<String> studentIds) {
+        boolean nameOrder = order == ListingOrder.STUDENT_NAME || order == ListingOrder.STUDENT_NAME_DESC;
+        if (nameOrder || !search.isEmpty()) {
+            reload();
+            return;
+        }
+        StudentDirectory directory = StudentDirectory.getInstance();
+        for (Map.Entry<Integer, List<AttendanceListing>> page : pages.entrySet()) {
+            List<AttendanceListing> rows = page.getValue();
+            for (int index = 0; index < rows.size(); index++) {
+                AttendanceListing record = rows.get(index);
+                if (!studentIds.contains(record.getStudentId())) {
+                    continue;
+                }
+                String name = directory.getName(record.getStudentId(), "Unknown");
+                if (!name.equals(record.getStudentName())) {
+                    rows.set(index, new AttendanceListing(record.getId(), record.getStudentId(), name,
+                            record.getDate(), record.getStatus(), record.getVersion()));
+                    int row = page.getKey() * PAGE_SIZE + index;
+                    fireTableRowsUpdated(row, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes the order rows are listed in. The row count does not change, so
+     * the cached pages are dropped and rows page in again in the new order.
+     */
+    public void setOrder(ListingOrder newOrder) {
+        if (newOrder == order) {
+            return;
+        }
+        order = newOrder;
+        generation++;
+        pages.clear();
+        pendingPages.clear();
+        failedPages.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Gets the order rows are listed in.
+     */
+    public ListingOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Creates a row sorter for this model. Rows are paged, so they cannot be
+     * sorted in memory; the sorter keeps view order equal to model order and
+     * turns header clicks on the Date and Student Name columns into a
+     * ListingOrder, so the database returns the rows already sorted.
+     */
+    public RowSorter<LazyAttendanceTableModel> createRowSorter() {
+        return new ListingOrderSorter(this);
+    }
+
+    /**
+     * Gets the counts for the current filter, as of the last reload.
+     */
+    public AttendanceCounts getCounts() {
+        return counts;
+    }
+
+    /**
+     * Stops the background loader.
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    @Override
+    public AttendanceListing getRecordAt(int row) {
+        int page = row / PAGE_SIZE;
+        List<AttendanceListing> records = pages.get(page);
+        if (records == null) {
+            requestPage(page);
+            return null;
+        }
+        if (page != lastPage) {
+            prefetch(page);
+        }
+        int index = row % PAGE_SIZE;
+        return index < records.size() ? records.get(index) : null;
+    }
+
+    /**
+     * Loads the neighbouring page in the direction of scrolling.
+     */
+    private void prefetch(int page) {
+        int next = page > lastPage ? page + 1 : page - 1;
+        lastPage = page;
+        if (next >= 0 && next * PAGE_SIZE < getRowCount() && !pages.containsKey(next)) {
+            requestPage(next);
+        }
+    }
+
+    private void requestPage(int page) {
+        if (pendingPages.putIfAbsent(page, generation) != null) {
+            return;
+        }
+        int gen = generation;
+        String s = search;
+        String d = dateFilter;
+        ListingOrder o = order;
+        int rowCount = getRowCount();
+        loader.execute(() -> {
+            try {
+                if (!startLoad(gen)) {
+                    // Superseded by a newer reload, filter or order
+                    SwingUtilities.invokeLater(() -> abandonPage(gen, page));
+                    return;
+                }
+                List<AttendanceListing> records = o.isKeyed()
+                        ? loadPageByKey(page, s, d, o, rowCount)
+                        : loadPageByIds(page, s, d, o);
+                SwingUtilities.invokeLater(() -> applyPage(gen, page, records));
+            } catch (Exception e) {
+                System.err.println("Failed to load attendance page " + page + ": " + e.getMessage());
+                SwingUtilities.invokeLater(() -> pageFailed(gen, page));
+            }
+        });
+    }
+
+    /**
+     * Forgets a load whose page will not be shown. If the page is still
+     * missing, its rows are repainted, which requests it again for the
+     * current generation.
+     */
+    private void abandonPage(int gen, int page) {
+        if (pendingPages.remove(page, gen) && !pages.containsKey(page)) {
+            firePageUpdated(page);
+        }
+    }
+
+    /**
+     * Keeps a failed page pending until its retry delay has passed, so
+     * painting its rows does not query it again in the meantime.
+     */
+    private void pageFailed(int gen, int page) {
+        if (gen != generation) {
+            abandonPage(gen, page);
+            return;
+        }
+        int failures = failedPages.merge(page, 1, Integer::sum);
+        schedule(retryDelay(failures), () -> abandonPage(gen, page));
+    }
+
+    private static int retryDelay(int failures) {
+        return (int) Math.min(MAX_RETRY_DELAY_MS, (long) RETRY_DELAY_MS << Math.min(failures - 1, 16));
+    }
+
+    private static void schedule(int delayMillis, Runnable action) {
+        Timer timer = new Timer(delayMillis, e -> action.run());
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    /**
+     * Checks that a load on the loader thread is not stale, and forgets the
+     * page keys and row IDs of older generations: rows may have moved since.
+     */
+    private boolean startLoad(int gen) {
+        if (gen < loaderGeneration) {
+            return false;
+        }
+        if (gen > loaderGeneration) {
+            pageEndKeys.clear();
+            orderedIds = null;
+            loaderGeneration = gen;
+        }
+        return true;
+    }
+
+    /**
+     * Loads a page in a name order: reads the ordered row IDs if this
+     * generation has not yet, then the page's records by ID. Runs on the
+     * loader thread.
+     */
+    private List<AttendanceListing> loadPageByIds(int page, String s, String d, ListingOrder o) throws Exception {
+        if (orderedIds == null) {
+            orderedIds = facade.getAttendanceListingIds(s, d, o);
+        }
+        int from = Math.min(page * PAGE_SIZE, orderedIds.length);
+        int to = Math.min(from + PAGE_SIZE, orderedIds.length);
+        List<Integer> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(orderedIds[i]);
+        }
+        Map<Integer, AttendanceListing> byId = new HashMap<>();
+        for (AttendanceListing record : facade.getAttendanceListingsByIds(ids)) {
+            byId.put(record.getId(), record);
+        }
+        // Records deleted since the IDs were read are left out until the next reload
+        List<AttendanceListing> records = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            AttendanceListing record = byId.get(id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Loads a page in a date order, continuing from the key of the row before
+     * it. Runs on the loader thread.
+     */
+    private List<AttendanceListing> loadPageByKey(int page, String s, String d, ListingOrder o, int rowCount)
+            throws Exception {
+        ListingKey after = null;
+        if (page > 0) {
+            after = pageEndKeys.get(page - 1);
+            if (after == null) {
+                after = seekRowKey(page * PAGE_SIZE - 1, s, d, o, rowCount);
+                if (after == null) {
+                    return new ArrayList<>();
+                }
+                pageEndKeys.put(page - 1, after);
+            }
+        }
+        List<AttendanceListing> records = facade.getAttendanceListingsAfter(s, d, o, after, PAGE_SIZE);
+        if (records.size() == PAGE_SIZE) {
+            AttendanceListing last = records.get(PAGE_SIZE - 1);
+            pageEndKeys.put(page, new ListingKey(last.getDate(), last.getId()));
+        }
+        return records;
+    }
+
+    /**
+     * Finds the key of the row at a position, counting from whichever is
+     * nearest: a known page-end key before or after it, or either end.
+     */
+    private ListingKey seekRowKey(int row, String s, String d, ListingOrder o, int rowCount) throws Exception {
+        if (row >= rowCount) {
+            return null;
+        }
+        Map.Entry<Integer, ListingKey> before = pageEndKeys.lowerEntry(row / PAGE_SIZE);
+        Map.Entry<Integer, ListingKey> after = pageEndKeys.higherEntry(row / PAGE_SIZE - 1);
+        int beforeRow = before != null ? lastRowOf(before.getKey()) : -1;
+        int afterRow = after != null ? lastRowOf(after.getKey()) : rowCount;
+
+        if (row - beforeRow <= afterRow - row) {
+            return facade.getAttendanceListingKey(s, d, o, before != null ? before.getValue() : null,
+                    row - beforeRow - 1);
+        }
+        return facade.getAttendanceListingKey(s, d, o.reversed(), after != null ? after.getValue() : null,
+                afterRow - row - 1);
+    }
+
+    private static int lastRowOf(int page) {
+        return (page + 1) * PAGE_SIZE - 1;
+    }
+
+    private void applyPage(int gen, int page, List<AttendanceListing> records) {
+        if (gen != generation) {
+            abandonPage(gen, page);
+            return;
+        }
+        pendingPages.remove(page);
+        failedPages.remove(page);
+        List<AttendanceListing> stale = pages.put(page, records);
+
+        if (stale == null) {
+            firePageUpdated(page);
+            return;
+        }
+
+        int first = page * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, getRowCount()) - 1;
+
+        // Reloaded page: repaint only runs of rows that differ from what was shown
+        int runStart = -1;
+        for (int row = first; row <= last; row++) {
+            int index = row - first;
+            AttendanceListing before = index < stale.size() ? stale.get(index) : null;
+            AttendanceListing after = index < records.size() ? records.get(index) : null;
+            if (isSameRow(before, after)) {
+                if (runStart >= 0) {
+                    fireTableRowsUpdated(runStart, row - 1);
+                    runStart = -1;
+                }
+            } else if (runStart < 0) {
+                runStart = row;
+            }
+        }
+        if (runStart >= 0) {
+            fireTableRowsUpdated(runStart, last);
+        }
+    }
+
+    private void firePageUpdated(int page) {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, getRowCount()) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * Checks if two listings (either may be missing) would paint the same row.
+     */
+    private static boolean isSameRow(AttendanceListing a, AttendanceListing b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getId() == b.getId()
+                && Objects.equals(a.getStudentId(), b.getStudentId())
+                && Objects.equals(a.getStudentName(), b.getStudentName())
+                && Objects.equals(a.getDate(), b.getDate())
+                && Objects.equals(a.getStatus(), b.getStatus());
+    }
+
+    @Override
+    public int getRowCount() {
+        return counts.getTotal();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        AttendanceListing record = getRecordAt(row);
+        if (record == null) {
+            return column == COL_STUDENT_NAME ? "Loading..." : null;
+        }
+        switch (column) {
+            case COL_ID:
+                return record.getId();
+            case COL_STUDENT_ID:
+                return record.getStudentId();
+            case COL_STUDENT_NAME:
+                return record.getStudentName();
+            case COL_DATE:
+                return record.getDate();
+            case COL_STATUS:
+                return record.getStatus();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    /**
+     * Identity row sorter that maps column sorts to SQL listing orders.
+     */
+    private static class ListingOrderSorter extends RowSorter<LazyAttendanceTableModel> {
+        private final LazyAttendanceTableModel model;
+
+        ListingOrderSorter(LazyAttendanceTableModel model) {
+            this.model = model;
+        }
+
+        @Override
+        public LazyAttendanceTableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public void toggleSortOrder(int column) {
+            ListingOrder current = model.getOrder();
+            if (column == COL_DATE) {
+                model.setOrder(current == ListingOrder.OLDEST_FIRST
+                        ? ListingOrder.NEWEST_FIRST : ListingOrder.OLDEST_FIRST);
+            } else if (column == COL_STUDENT_NAME) {
+                model.setOrder(current == ListingOrder.STUDENT_NAME
+                        ? ListingOrder.STUDENT_NAME_DESC : ListingOrder.STUDENT_NAME);
+            } else {
+                return;
+            }
+            fireSortOrderChanged();
+        }
+
+        @Override
+        public List<? extends SortKey> getSortKeys() {
+            switch (model.getOrder()) {
+                case OLDEST_FIRST:
+                    return List.of(new SortKey(COL_DATE, SortOrder.ASCENDING));
+                case STUDENT_NAME:
+                    return List.of(new SortKey(COL_STUDENT_NAME, SortOrder.ASCENDING));
+                case STUDENT_NAME_DESC:
+                    return List.of(new SortKey(COL_STUDENT_NAME, SortOrder.DESCENDING));
+                default:
+                    return List.of(new SortKey(COL_DATE, SortOrder.DESCENDING));
+            }
+        }
+
+        @Override
+        public void setSortKeys(List<? extends SortKey> keys) {
+            if (keys == null || keys.isEmpty()) {
+                return;
+            }
+            SortKey key = keys.get(0);
+            boolean ascending = key.getSortOrder() == SortOrder.ASCENDING;
+            if (key.getColumn() == COL_DATE) {
+                model.setOrder(ascending ? ListingOrder.OLDEST_FIRST : ListingOrder.NEWEST_FIRST);
+            } else if (key.getColumn() == COL_STUDENT_NAME) {
+                model.setOrder(ascending ? ListingOrder.STUDENT_NAME : ListingOrder.STUDENT_NAME_DESC);
+            } else {
+                return;
+            }
+            fireSortOrderChanged();
+        }
+
+        @Override
+        public int convertRowIndexToModel(int index) {
+            return index;
+        }
+
+        @Override
+        public int convertRowIndexToView(int index) {
+            return index;
+        }
+
+        @Override
+        public int getViewRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public int getModelRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public void modelStructureChanged() {
+        }
+
+        @Override
+        public void allRowsChanged() {
+        }
+
+        @Override
+        public void rowsInserted(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsDeleted(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow) {
+        }
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow, int column) {
+        }
+    }
+}
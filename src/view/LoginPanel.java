@@ -1,6 +1,7 @@
 package view;
 
 import util.SessionManager;
+import util.StartupTimer;
 import state.ApplicationStateContext;
 import state.LoggedInState;
 
@@ -93,6 +94,7 @@ public class LoginPanel extends BasePanel {
             if (storedUsername.equals(username) && storedPassword.equals(password)) {
                 // Use Singleton to track session
                 SessionManager.getInstance().login(username);
+                StartupTimer.mark("logged in");
 
                 // State Pattern: Transition to LoggedInState
                 ApplicationStateContext stateContext = ApplicationStateContext.getInstance();
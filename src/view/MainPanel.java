@@ -1,15 +1,35 @@
 package view;
 
+import util.StartupTimer;
+import util.StudentDirectory;
+import util.VirtualThreads;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Main panel containing all student management functionality.
  * Part of MVC architecture - View layer.
  * Uses Facade pattern to interact with controllers.
+ *
+ * Tabs are built lazily: creating the MainPanel only creates empty
+ * placeholders, so the login screen does not wait for any tab or its data.
+ * When the panel is first shown (after login), the selected tab is built and
+ * the remaining tabs are warmed up one per EDT turn. Their data loads in the
+ * background.
  */
 public class MainPanel extends BasePanel {
 
+    private JTabbedPane tabbedPane;
+    private final List<LazyTab> tabs = new ArrayList<>();
+    private boolean warmedUp;
+
     public MainPanel() {
         setupUI();
     }
@@ -18,19 +38,106 @@ public class MainPanel extends BasePanel {
         setLayout(new BorderLayout());
 
         // Creating a tabbed pane to hold different panels
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
         
         // Student Management tabs
-        tabbedPane.addTab("Dashboard", new StudentDashboardPanel());
-        tabbedPane.addTab("Manage Students", new StudentManagementPanel());
+        addLazyTab("Dashboard", StudentDashboardPanel::new);
+        addLazyTab("Manage Students", StudentManagementPanel::new);
         
         // Attendance tab (embedded panel)
-        tabbedPane.addTab("Attendance", new AttendancePanel());
+        addLazyTab("Attendance", AttendancePanel::new);
         
         // Finance tab (embedded panel)
-        tabbedPane.addTab("Finance", new FinancePanel());
+        addLazyTab("Finance", FinancePanel::new);
+
+        // Diagnostics tab (heap footprint per subsystem)
+        addLazyTab("Diagnostics", DiagnosticsPanel::new);
+
+        // Build a tab the first time it is selected
+        tabbedPane.addChangeListener(e -> buildTab(tabbedPane.getSelectedIndex()));
+
+        // CardLayout shows this panel after a successful login
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                onFirstShown();
+            }
+        });
 
         add(tabbedPane, BorderLayout.CENTER);
     }
-    
+
+    private void addLazyTab(String title, Supplier<JComponent> factory) {
+        LazyTab tab = new LazyTab(title, factory);
+        tabs.add(tab);
+        tabbedPane.addTab(title, tab.holder);
+    }
+
+    /**
+     * Builds the tab at the given index unless it is already built.
+     */
+    private void buildTab(int index) {
+        if (index < 0 || index >= tabs.size()) {
+            return;
+        }
+        LazyTab tab = tabs.get(index);
+        if (tab.built) {
+            return;
+        }
+        tab.built = true;
+        tab.holder.add(tab.factory.get(), BorderLayout.CENTER);
+        tab.holder.revalidate();
+        StartupTimer.mark("tab built: " + tab.title);
+    }
+
+    private void onFirstShown() {
+        if (warmedUp) {
+            return;
+        }
+        warmedUp = true;
+        StartupTimer.mark("main panel shown");
+        buildTab(tabbedPane.getSelectedIndex());
+        warmUp();
+    }
+
+    /**
+     * Loads the shared student directory off the EDT, then builds the
+     * remaining tabs one per EDT turn so the UI stays responsive in between.
+     */
+    private void warmUp() {
+        VirtualThreads.daemonThreadFactory("warm-up").newThread(() -> {
+            try {
+                StudentDirectory.getInstance().ensureLoaded();
+                StartupTimer.mark("student directory loaded");
+            } catch (SQLException e) {
+                System.err.println("Warm-up failed to load students: " + e.getMessage());
+            }
+            SwingUtilities.invokeLater(() -> buildNextTab(0));
+        }).start();
+    }
+
+    private void buildNextTab(int index) {
+        if (index >= tabs.size()) {
+            StartupTimer.mark("warm-up complete");
+            StartupTimer.printReport();
+            return;
+        }
+        buildTab(index);
+        SwingUtilities.invokeLater(() -> buildNextTab(index + 1));
+    }
+
+    /**
+     * A tab whose content is created on first use.
+     */
+    private static class LazyTab {
+        final String title;
+        final Supplier<JComponent> factory;
+        final JPanel holder = new JPanel(new BorderLayout());
+        boolean built;
+
+        LazyTab(String title, Supplier<JComponent> factory) {
+            this.title = title;
+            this.factory = factory;
+        }
+    }
 }
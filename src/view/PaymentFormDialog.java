@@ -1,6 +1,6 @@
 package view;
 
-import model.Student;
+import util.StudentDirectory;
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
@@ -12,9 +12,9 @@ public class PaymentFormDialog extends JDialog {
     private JTextField dateField;
     private JTextField descField;
     private boolean submitted = false;
-    private List<Student> students;
+    private List<StudentDirectory.Entry> students;
 
-    public PaymentFormDialog(Frame owner, List<Student> students) {
+    public PaymentFormDialog(Frame owner, List<StudentDirectory.Entry> students) {
         super(owner, "Add Payment", true);
         this.students = students;
         setupUI();
@@ -33,7 +33,7 @@ public class PaymentFormDialog extends JDialog {
 
         gbc.gridx = 1;
         studentCombo = new JComboBox<>();
-        for (Student s : students) {
+        for (StudentDirectory.Entry s : students) {
             studentCombo.addItem(s.getStudentId() + " - " + s.getName());
         }
         add(studentCombo, gbc);
@@ -0,0 +1,23 @@
+package view;
+
+import model.PaymentListing;
+
+/**
+ * Highlights the Amount column of payment rows in bold dark green.
+ */
+public class PaymentRowRenderer extends RecordRowRenderer<PaymentListing> {
+
+    public PaymentRowRenderer(PaymentTableModel model) {
+        super(model);
+    }
+
+    @Override
+    protected RowStyle getRowStyle(PaymentListing record) {
+        return RowStyle.DEFAULT;
+    }
+
+    @Override
+    protected RowStyle getCellStyle(RowStyle rowStyle, int modelColumn) {
+        return modelColumn == PaymentTableModel.COL_AMOUNT ? RowStyle.AMOUNT : rowStyle;
+    }
+}
@@ -0,0 +1,77 @@
+package view;
+
+import model.PaymentListing;
+
+import java.util.Objects;
+
+/**
+ * Table model for payment records.
+ * Columns: ID, Student ID, Student Name, Amount, Date, Description.
+ * Rows are payment listings, so student names come from the SQL join.
+ */
+public class PaymentTableModel extends RecordTableModel<PaymentListing> {
+
+    public static final int COL_ID = 0;
+    public static final int COL_STUDENT_ID = 1;
+    public static final int COL_STUDENT_NAME = 2;
+    public static final int COL_AMOUNT = 3;
+    public static final int COL_DATE = 4;
+    public static final int COL_DESCRIPTION = 5;
+
+    public PaymentTableModel() {
+        super("ID", "Student ID", "Student Name", "Amount", "Date", "Description");
+    }
+
+    /**
+     * Formats an amount the way the Amount column shows it.
+     */
+    public static String formatAmount(double amount) {
+        return String.format("$%.2f", amount);
+    }
+
+    @Override
+    protected Object getRecordKey(PaymentListing record) {
+        return record.getId();
+    }
+
+    /**
+     * Compares fields directly so a diff does not format every amount.
+     */
+    @Override
+    protected boolean isSameContent(PaymentListing oldRecord, PaymentListing newRecord) {
+        return Double.compare(oldRecord.getAmount(), newRecord.getAmount()) == 0
+                && Objects.equals(oldRecord.getStudentId(), newRecord.getStudentId())
+                && Objects.equals(oldRecord.getStudentName(), newRecord.getStudentName())
+                && Objects.equals(oldRecord.getDate(), newRecord.getDate())
+                && Objects.equals(oldRecord.getDescription(), newRecord.getDescription());
+    }
+
+    /**
+     * Sorts the Amount column by value rather than by its formatted text.
+     */
+    @Override
+    protected Comparable<?> getColumnSortKey(PaymentListing record, int column) {
+        return column == COL_AMOUNT ? record.getAmount() : super.getColumnSortKey(record, column);
+    }
+
+    @Override
+    protected Object getColumnValue(PaymentListing record, int column) {
+        switch (column) {
+            case COL_ID:
+                return record.getId();
+            case COL_STUDENT_ID:
+                return record.getStudentId();
+            case COL_STUDENT_NAME:
+                return record.getStudentName();
+            case COL_AMOUNT:
+                // Formatted only for the rows actually painted
+                return formatAmount(record.getAmount());
+            case COL_DATE:
+                return record.getDate();
+            case COL_DESCRIPTION:
+                return record.getDescription();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package view;
+
+import javax.swing.event.TableModelListener;
+
+/**
+ * A table model whose rows are backed by records.
+ * Lets renderers and handlers work with the record behind a row instead of
+ * reading cell values back.
+ *
+ * @param <T> Record type shown in each row
+ */
+public interface RecordProvider<T> {
+
+    /**
+     * Gets the record shown in a model row, or null if it is not loaded yet.
+     */
+    T getRecordAt(int row);
+
+    void addTableModelListener(TableModelListener listener);
+}
@@ -0,0 +1,91 @@
+package view;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Component;
+import java.awt.Font;
+
+/**
+ * Shared cell renderer for tables whose model is a RecordProvider.
+ * Part of MVC architecture - View layer.
+ *
+ * The row's style is resolved from the record itself, not by reading another
+ * cell through table.getValueAt(). JTable paints a row's cells one after the
+ * other, so the style of the last record is cached and the lookup runs once
+ * per row. Colours come from RowStyle constants and the bold font is derived
+ * once per table font. Painting therefore creates no Color or Font objects.
+ *
+ * @param <T> Record type of the model
+ */
+public abstract class RecordRowRenderer<T> extends DefaultTableCellRenderer {
+
+    private final RecordProvider<T> model;
+
+    // Per-row style cache
+    private T lastRecord;
+    private RowStyle lastStyle = RowStyle.DEFAULT;
+
+    // Bold variant of the table font, rebuilt only if the table font changes
+    private Font baseFont;
+    private Font boldFont;
+
+    protected RecordRowRenderer(RecordProvider<T> model) {
+        this.model = model;
+        // Records may be replaced or edited in place; drop the cached style on any change
+        model.addTableModelListener(e -> lastRecord = null);
+    }
+
+    /**
+     * Resolves the style for a whole row.
+     */
+    protected abstract RowStyle getRowStyle(T record);
+
+    /**
+     * Resolves the style for one cell of a row. Defaults to the row style.
+     *
+     * @param modelColumn Column index in the model
+     */
+    protected RowStyle getCellStyle(RowStyle rowStyle, int modelColumn) {
+        return rowStyle;
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+            boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+        if (isSelected) {
+            return this;
+        }
+
+        T record = model.getRecordAt(table.convertRowIndexToModel(row));
+        RowStyle rowStyle;
+        if (record == null) {
+            // Row not loaded yet
+            rowStyle = RowStyle.DEFAULT;
+        } else {
+            if (record != lastRecord) {
+                lastRecord = record;
+                lastStyle = getRowStyle(record);
+            }
+            rowStyle = lastStyle;
+        }
+        RowStyle style = getCellStyle(rowStyle, table.convertColumnIndexToModel(column));
+
+        // Always set both colours: DefaultTableCellRenderer remembers them for the next cell
+        setBackground(style.getBackground());
+        setForeground(style.getForeground());
+        if (style.isBold()) {
+            setFont(getBoldFont(table.getFont()));
+        }
+        return this;
+    }
+
+    private Font getBoldFont(Font tableFont) {
+        if (tableFont != baseFont) {
+            baseFont = tableFont;
+            boldFont = tableFont.deriveFont(Font.BOLD);
+        }
+        return boldFont;
+    }
+}
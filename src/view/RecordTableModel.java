@@ -0,0 +1,299 @@
+package view;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-only table model that views a list of records directly.
+ * Part of MVC architecture - View layer.
+ *
+ * Unlike DefaultTableModel, no per-row Vector or per-cell object is created
+ * when the list is replaced; cell values are read from the record when the
+ * table paints them. Subclasses only map a record to its column values and
+ * name the record's primary key.
+ *
+ * updateRecords() replaces the rows by diffing old and new records by key, so
+ * a reload fires only the insert, delete and update events for rows that
+ * actually changed. Selection, scroll position and sort are kept, and only
+ * those rows repaint.
+ *
+ * @param <T> Record type shown in each row
+ */
+public abstract class RecordTableModel<T> extends AbstractTableModel implements RecordProvider<T> {
+
+    // Above this many inserted plus deleted rows, a diff is slower than a full refresh
+    private static final int MAX_DIFF_STRUCTURAL_CHANGES = 1000;
+
+    private final String[] columnNames;
+    private List<T> records = Collections.emptyList();
+
+    protected RecordTableModel(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * Returns the value of one column for a record.
+     */
+    protected abstract Object getColumnValue(T record, int column);
+
+    /**
+     * Returns the primary key of a record (student ID, attendance or payment ID).
+     */
+    protected abstract Object getRecordKey(T record);
+
+    /**
+     * Returns the value a column sorts by for a record.
+     * Defaults to the column value, or its text if the value is not Comparable;
+     * subclasses override columns whose shown text does not sort correctly.
+     */
+    protected Comparable<?> getColumnSortKey(T record, int column) {
+        Object value = getColumnValue(record, column);
+        if (value == null || value instanceof Comparable) {
+            return (Comparable<?>) value;
+        }
+        return value.toString();
+    }
+
+    /**
+     * Checks if two records with the same key would show the same row.
+     * Compares every column value; subclasses may compare fields directly.
+     */
+    protected boolean isSameContent(T oldRecord, T newRecord) {
+        for (int column = 0; column < columnNames.length; column++) {
+            if (!Objects.equals(getColumnValue(oldRecord, column), getColumnValue(newRecord, column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces all rows with the given records.
+     * The list is used as-is and must not be modified afterwards by the caller.
+     * Fires a single data-changed event.
+     */
+    public void setRecords(List<T> records) {
+        this.records = records != null ? records : Collections.emptyList();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Replaces all rows with the given records, firing only the events needed.
+     * The list is used as-is and must not be modified afterwards by the caller.
+     *
+     * Old and new records are matched by key in linear time. Consecutive
+     * deleted or inserted rows fire one event per run and changed rows fire
+     * update events, so a refresh that changes 3 rows out of 50,000 repaints 3
+     * rows. Falls back to a single data-changed event when the rows that stay
+     * were reordered (e.g. a different sort), when keys are not unique, or when
+     * more than MAX_DIFF_STRUCTURAL_CHANGES rows were added or removed.
+     */
+    public void updateRecords(List<T> newRecords) {
+        if (newRecords == null || records.isEmpty() || newRecords.isEmpty()) {
+            setRecords(newRecords);
+            return;
+        }
+
+        Map<Object, T> newByKey = new HashMap<>(newRecords.size() * 4 / 3 + 1);
+        for (T record : newRecords) {
+            if (newByKey.put(getRecordKey(record), record) != null) {
+                setRecords(newRecords);
+                return;
+            }
+        }
+
+        // Kept rows must appear in the same relative order in both lists
+        Set<Object> oldKeys = new HashSet<>(records.size() * 4 / 3 + 1);
+        int kept = 0;
+        for (T record : records) {
+            Object key = getRecordKey(record);
+            if (!oldKeys.add(key)) {
+                setRecords(newRecords);
+                return;
+            }
+            if (newByKey.containsKey(key)) {
+                kept++;
+            }
+        }
+        int structuralChanges = (records.size() - kept) + (newRecords.size() - kept);
+        if (structuralChanges > MAX_DIFF_STRUCTURAL_CHANGES) {
+            setRecords(newRecords);
+            return;
+        }
+        int newIndex = 0;
+        for (T record : records) {
+            Object key = getRecordKey(record);
+            if (!newByKey.containsKey(key)) {
+                continue;
+            }
+            while (!getRecordKey(newRecords.get(newIndex)).equals(key)) {
+                if (oldKeys.contains(getRecordKey(newRecords.get(newIndex)))) {
+                    // A kept row moved ahead of this one
+                    setRecords(newRecords);
+                    return;
+                }
+                newIndex++;
+            }
+            newIndex++;
+        }
+
+        applyDiff(newRecords, newByKey, oldKeys);
+    }
+
+    /**
+     * Walks both lists once, editing the shown rows in place so every event
+     * matches the list state at the moment it is fired.
+     */
+    private void applyDiff(List<T> newRecords, Map<Object, T> newByKey, Set<Object> oldKeys) {
+        List<T> oldRecords = records;
+        records = new ArrayList<>(oldRecords);
+
+        int row = 0;
+        int oldIndex = 0;
+        int newIndex = 0;
+        int updateStart = -1;
+        while (oldIndex < oldRecords.size() || newIndex < newRecords.size()) {
+            // Run of deleted rows
+            int deleted = 0;
+            while (oldIndex + deleted < oldRecords.size()
+                    && !newByKey.containsKey(getRecordKey(oldRecords.get(oldIndex + deleted)))) {
+                deleted++;
+            }
+            if (deleted > 0) {
+                updateStart = flushUpdates(updateStart, row);
+                records.subList(row, row + deleted).clear();
+                fireTableRowsDeleted(row, row + deleted - 1);
+                oldIndex += deleted;
+                continue;
+            }
+
+            // Run of inserted rows
+            int inserted = 0;
+            while (newIndex + inserted < newRecords.size()
+                    && !oldKeys.contains(getRecordKey(newRecords.get(newIndex + inserted)))) {
+                inserted++;
+            }
+            if (inserted > 0) {
+                updateStart = flushUpdates(updateStart, row);
+                records.addAll(row, newRecords.subList(newIndex, newIndex + inserted));
+                fireTableRowsInserted(row, row + inserted - 1);
+                row += inserted;
+                newIndex += inserted;
+                continue;
+            }
+
+            // Kept row: same key at the same position in both lists
+            T newRecord = newRecords.get(newIndex);
+            if (isSameContent(oldRecords.get(oldIndex), newRecord)) {
+                updateStart = flushUpdates(updateStart, row);
+            } else if (updateStart < 0) {
+                updateStart = row;
+            }
+            records.set(row, newRecord);
+            row++;
+            oldIndex++;
+            newIndex++;
+        }
+        flushUpdates(updateStart, row);
+    }
+
+    /**
+     * Fires an update event for rows [start, end) if a run of changed rows is open.
+     *
+     * @return -1, closing the run
+     */
+    private int flushUpdates(int start, int end) {
+        if (start >= 0 && start < end) {
+            fireTableRowsUpdated(start, end - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the records currently shown, in model order.
+     */
+    public List<T> getRecords() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Gets the record shown in a model row.
+     */
+    @Override
+    public T getRecordAt(int row) {
+        return records.get(row);
+    }
+
+    /**
+     * Gets the sort key of a model cell, for KeyedRowSorter.
+     */
+    public Comparable<?> getSortKey(int row, int column) {
+        return getColumnSortKey(records.get(row), column);
+    }
+
+    /**
+     * Replaces the record in a model row and repaints only that row.
+     */
+    public void setRecordAt(int row, T record) {
+        ensureMutable();
+        records.set(row, record);
+        fireTableRowsUpdated(row, row);
+    }
+
+    /**
+     * Appends a record and fires an insert event for the new row.
+     */
+    public void addRecord(T record) {
+        ensureMutable();
+        records.add(record);
+        int row = records.size() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Removes the record in a model row and fires a delete event for it.
+     */
+    public void removeRecordAt(int row) {
+        ensureMutable();
+        records.remove(row);
+        fireTableRowsDeleted(row, row);
+    }
+
+    private void ensureMutable() {
+        if (!(records instanceof ArrayList)) {
+            records = new ArrayList<>(records);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return records.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return getColumnValue(records.get(row), column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+}
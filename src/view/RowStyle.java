@@ -0,0 +1,47 @@
+package view;
+
+import java.awt.Color;
+
+/**
+ * Immutable colours and font weight for a table row or cell.
+ * Instances are shared constants, so painting a row never allocates a Color.
+ */
+public final class RowStyle {
+
+    public static final RowStyle DEFAULT = new RowStyle(Color.WHITE, Color.BLACK, false);
+
+    // Student enrollment status
+    public static final RowStyle ENROLLED = new RowStyle(new Color(220, 255, 220), Color.BLACK, false);   // Light green
+    public static final RowStyle SUSPENDED = new RowStyle(new Color(255, 255, 200), Color.BLACK, false);  // Light yellow
+    public static final RowStyle GRADUATED = new RowStyle(new Color(240, 240, 240), Color.BLACK, false);  // Light gray
+
+    // Attendance status
+    public static final RowStyle PRESENT = new RowStyle(new Color(220, 255, 220), Color.BLACK, false);    // Light green
+    public static final RowStyle ABSENT = new RowStyle(new Color(255, 220, 220), Color.BLACK, false);     // Light red
+
+    // Payment amount
+    public static final RowStyle AMOUNT = new RowStyle(Color.WHITE, new Color(0, 128, 0), true);          // Dark green, bold
+
+    private final Color background;
+    private final Color foreground;
+    private final boolean bold;
+
+    public RowStyle(Color background, Color foreground, boolean bold) {
+        this.background = background;
+        this.foreground = foreground;
+        this.bold = bold;
+    }
+
+    // Getters
+    public Color getBackground() {
+        return background;
+    }
+
+    public Color getForeground() {
+        return foreground;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+}
@@ -0,0 +1,175 @@
+package view;
+
+import util.VirtualThreads;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Search-box filter engine shared by the table panels.
+ * A record matches when any of its searchable fields contains the query,
+ * case-insensitively - the same rule the panels used before.
+ *
+ * Each record's fields are lowercased once, when the records are set, not on
+ * every keystroke. When the new query contains the previous one (the user
+ * kept typing), only the previous matches are searched again. Filtering
+ * runs on a background thread after a short debounce, and only the result
+ * of the latest request is delivered on the Event Dispatch Thread.
+ *
+ * Records keep their order, so a list that is sorted before setRecords()
+ * stays sorted in every result.
+ *
+ * @param <T> Record type
+ */
+public class SearchFilter<T> {
+
+    public static final long DEFAULT_DEBOUNCE_MS = 120;
+
+    // Separates fields so a query cannot match across two of them
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Function<T, String[]> searchableFields;
+    private final long debounceMillis;
+    private final ScheduledExecutorService worker;
+    private final AtomicInteger latestRequest = new AtomicInteger();
+    private ScheduledFuture<?> pending;
+
+    // State below is only touched on the worker thread
+    private List<T> records = Collections.emptyList();
+    private String[] lowercased = new String[0];
+    private String lastQuery;
+    private int[] lastMatches;
+    private int lastMatchCount;
+
+    /**
+     * @param searchableFields Returns the fields of a record the query is matched against (nulls allowed)
+     * @param debounceMillis Delay after the last keystroke before filtering
+     */
+    public SearchFilter(Function<T, String[]> searchableFields, long debounceMillis) {
+        this.searchableFields = searchableFields;
+        this.debounceMillis = debounceMillis;
+        this.worker = Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreadFactory("search-filter"));
+    }
+
+    public SearchFilter(Function<T, String[]> searchableFields) {
+        this(searchableFields, DEFAULT_DEBOUNCE_MS);
+    }
+
+    /**
+     * Replaces the records to search and rebuilds the lowercase cache in the background.
+     * The list must not be modified afterwards.
+     */
+    public void setRecords(List<T> newRecords) {
+        worker.execute(() -> index(newRecords));
+    }
+
+    /**
+     * Filters after the debounce delay. Call on every keystroke; earlier
+     * requests that have not run yet are dropped.
+     *
+     * @param query Search text (case-insensitive, empty matches everything)
+     * @param postFilter Extra condition applied to text matches (e.g. a date range), or null
+     * @param onResult Receives the matching records on the EDT
+     */
+    public synchronized void filter(String query, Predicate<T> postFilter, Consumer<List<T>> onResult) {
+        schedule(query, postFilter, onResult, debounceMillis);
+    }
+
+    /**
+     * Filters without waiting, e.g. after the records were reloaded.
+     */
+    public synchronized void filterNow(String query, Predicate<T> postFilter, Consumer<List<T>> onResult) {
+        schedule(query, postFilter, onResult, 0);
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void schedule(String query, Predicate<T> postFilter, Consumer<List<T>> onResult, long delayMillis) {
+        int request = latestRequest.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = worker.schedule(() -> {
+            if (request != latestRequest.get()) {
+                return;
+            }
+            List<T> result = run(query, postFilter);
+            SwingUtilities.invokeLater(() -> {
+                if (request == latestRequest.get()) {
+                    onResult.accept(result);
+                }
+            });
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void index(List<T> newRecords) {
+        List<T> list = newRecords != null ? newRecords : Collections.<T>emptyList();
+        String[] texts = new String[list.size()];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < texts.length; i++) {
+            sb.setLength(0);
+            for (String field : searchableFields.apply(list.get(i))) {
+                if (field != null) {
+                    sb.append(field).append(FIELD_SEPARATOR);
+                }
+            }
+            texts[i] = sb.toString().toLowerCase();
+        }
+        records = list;
+        lowercased = texts;
+        lastQuery = null;
+        lastMatches = null;
+    }
+
+    private List<T> run(String query, Predicate<T> postFilter) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+
+        int[] matches;
+        int count = 0;
+        if (lastQuery != null && q.contains(lastQuery)) {
+            // Narrowing: anything matching q also matched the previous query.
+            // Compacts the previous matches in place, so a keystroke allocates no index.
+            matches = lastMatches;
+            for (int i = 0; i < lastMatchCount; i++) {
+                int index = lastMatches[i];
+                if (lowercased[index].contains(q)) {
+                    matches[count++] = index;
+                }
+            }
+        } else {
+            matches = new int[records.size()];
+            for (int index = 0; index < lowercased.length; index++) {
+                if (q.isEmpty() || lowercased[index].contains(q)) {
+                    matches[count++] = index;
+                }
+            }
+        }
+        lastQuery = q;
+        lastMatches = matches;
+        lastMatchCount = count;
+
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            T record = records.get(matches[i]);
+            if (postFilter == null || postFilter.test(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+}
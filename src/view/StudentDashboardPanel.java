@@ -1,5 +1,6 @@
 package view;
 
+import facade.StudentInfoCache;
 import facade.StudentManagementFacade;
 import facade.StudentManagementFacade.StudentInfo;
 import chain.ValidationChainBuilder;
@@ -11,11 +12,16 @@ import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
 
 /**
  * Dashboard panel showing comprehensive student information.
  * Displays student details, enrollment status, attendance summary, and payment summary.
  * Uses Facade pattern to get complete student information.
+ *
+ * Students load in the background through StudentInfoCache, so the EDT never
+ * waits for the queries, and a student viewed recently (or prefetched from the
+ * management table) shows at once.
  */
 public class StudentDashboardPanel extends BasePanel {
 
@@ -38,6 +44,8 @@ public class StudentDashboardPanel extends BasePanel {
     private JButton loadButton;
     
     private StudentInfo currentStudentInfo;
+    // Student the latest load was started for; results for others are ignored
+    private String requestedStudentId;
 
     public StudentDashboardPanel() {
         this.facade = StudentManagementFacade.getInstance();
@@ -261,76 +269,99 @@ public class StudentDashboardPanel extends BasePanel {
             // Chain of Responsibility: Validate input
             ValidationHandler validator = ValidationChainBuilder.buildGeneralValidationChain();
             validator.validate("studentId", studentId);
-
-            // Get complete student info using Facade pattern
-            currentStudentInfo = facade.getCompleteStudentInfo(studentId);
-            Student student = currentStudentInfo.getStudent();
-
-            // Update student info panel
-            nameLabel.setText(student.getName());
-            ageLabel.setText(String.valueOf(student.getAge()));
-            courseLabel.setText(student.getCourse());
-            emailLabel.setText(student.getEmail() != null ? student.getEmail() : "N/A");
-
-            // Update enrollment status
-            String status = student.getEnrollmentStatus();
-            statusComboBox.setSelectedItem(status);
-            statusComboBox.setEnabled(true);
-            changeStatusButton.setEnabled(true);
-
-            // Update attendance summary
-            double attendanceRate = currentStudentInfo.getAttendanceRate();
-            attendanceRateLabel.setText(String.format("%.1f%%", attendanceRate));
-            attendanceProgressBar.setValue((int) attendanceRate);
-            
-            // Color code attendance
-            if (attendanceRate >= 80) {
-                attendanceProgressBar.setForeground(new Color(0, 128, 0)); // Green
-                attendanceStatusLabel.setText("Good");
-                attendanceStatusLabel.setForeground(new Color(0, 128, 0));
-            } else if (attendanceRate >= 60) {
-                attendanceProgressBar.setForeground(new Color(255, 165, 0)); // Orange
-                attendanceStatusLabel.setText("Fair");
-                attendanceStatusLabel.setForeground(new Color(255, 165, 0));
-            } else {
-                attendanceProgressBar.setForeground(Color.RED);
-                attendanceStatusLabel.setText("Poor");
-                attendanceStatusLabel.setForeground(Color.RED);
-            }
-
-            // Calculate present/absent counts (approximate from rate)
-            // Note: This is an approximation. For exact counts, we'd need to query attendance records
-            int totalRecords = (int) (attendanceRate > 0 ? (100.0 / attendanceRate) : 0);
-            int present = totalRecords > 0 ? (int) (totalRecords * attendanceRate / 100.0) : 0;
-            int absent = totalRecords - present;
-            presentCountLabel.setText("Present: " + present);
-            absentCountLabel.setText("Absent: " + absent);
-
-            // Update payment summary
-            double totalPaid = currentStudentInfo.getTotalPaid();
-            double balance = currentStudentInfo.getBalance();
-            double totalFees = totalPaid + balance;
-
-            totalPaidLabel.setText(String.format("$%.2f", totalPaid));
-            totalFeesLabel.setText(String.format("$%.2f", totalFees));
-            
-            if (balance <= 0) {
-                balanceLabel.setText(String.format("$%.2f (PAID IN FULL)", balance));
-                balanceLabel.setForeground(new Color(0, 128, 0)); // Green
-            } else {
-                balanceLabel.setText(String.format("$%.2f", balance));
-                balanceLabel.setForeground(Color.RED);
-            }
-
         } catch (InvalidInputException ex) {
             showWarningDialog("Validation Error", ex.getMessage());
-        } catch (StudentNotFoundException ex) {
-            showErrorDialog("Error", ex.getMessage());
-            clearDashboard();
-        } catch (SQLException ex) {
-            showErrorDialog("Database Error", "Failed to load student: " + ex.getMessage());
-            clearDashboard();
+            return;
         }
+
+        // Get complete student info using Facade pattern, off the EDT
+        requestedStudentId = studentId;
+        StudentInfoCache.getInstance().get(studentId).whenComplete((info, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (!studentId.equals(requestedStudentId)) {
+                    return;
+                }
+                if (error != null) {
+                    showLoadError(error);
+                } else {
+                    showStudentInfo(info);
+                }
+            }));
+    }
+
+    /**
+     * Fills the dashboard with a loaded student.
+     */
+    private void showStudentInfo(StudentInfo info) {
+        currentStudentInfo = info;
+        Student student = currentStudentInfo.getStudent();
+
+        // Update student info panel
+        nameLabel.setText(student.getName());
+        ageLabel.setText(String.valueOf(student.getAge()));
+        courseLabel.setText(student.getCourse());
+        emailLabel.setText(student.getEmail() != null ? student.getEmail() : "N/A");
+
+        // Update enrollment status
+        String status = student.getEnrollmentStatus();
+        statusComboBox.setSelectedItem(status);
+        statusComboBox.setEnabled(true);
+        changeStatusButton.setEnabled(true);
+
+        // Update attendance summary
+        double attendanceRate = currentStudentInfo.getAttendanceRate();
+        attendanceRateLabel.setText(String.format("%.1f%%", attendanceRate));
+        attendanceProgressBar.setValue((int) attendanceRate);
+        
+        // Color code attendance
+        if (attendanceRate >= 80) {
+            attendanceProgressBar.setForeground(new Color(0, 128, 0)); // Green
+            attendanceStatusLabel.setText("Good");
+            attendanceStatusLabel.setForeground(new Color(0, 128, 0));
+        } else if (attendanceRate >= 60) {
+            attendanceProgressBar.setForeground(new Color(255, 165, 0)); // Orange
+            attendanceStatusLabel.setText("Fair");
+            attendanceStatusLabel.setForeground(new Color(255, 165, 0));
+        } else {
+            attendanceProgressBar.setForeground(Color.RED);
+            attendanceStatusLabel.setText("Poor");
+            attendanceStatusLabel.setForeground(Color.RED);
+        }
+
+        // Calculate present/absent counts (approximate from rate)
+        // Note: This is an approximation. For exact counts, we'd need to query attendance records
+        int totalRecords = (int) (attendanceRate > 0 ? (100.0 / attendanceRate) : 0);
+        int present = totalRecords > 0 ? (int) (totalRecords * attendanceRate / 100.0) : 0;
+        int absent = totalRecords - present;
+        presentCountLabel.setText("Present: " + present);
+        absentCountLabel.setText("Absent: " + absent);
+
+        // Update payment summary
+        double totalPaid = currentStudentInfo.getTotalPaid();
+        double balance = currentStudentInfo.getBalance();
+        double totalFees = totalPaid + balance;
+
+        totalPaidLabel.setText(String.format("$%.2f", totalPaid));
+        totalFeesLabel.setText(String.format("$%.2f", totalFees));
+        
+        if (balance <= 0) {
+            balanceLabel.setText(String.format("$%.2f (PAID IN FULL)", balance));
+            balanceLabel.setForeground(new Color(0, 128, 0)); // Green
+        } else {
+            balanceLabel.setText(String.format("$%.2f", balance));
+            balanceLabel.setForeground(Color.RED);
+        }
+
+    }
+
+    private void showLoadError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof StudentNotFoundException) {
+            showErrorDialog("Error", cause.getMessage());
+        } else {
+            showErrorDialog("Database Error", "Failed to load student: " + cause.getMessage());
+        }
+        clearDashboard();
     }
 
     private void changeEnrollmentStatus() {
@@ -339,10 +370,12 @@ public class StudentDashboardPanel extends BasePanel {
         }
 
         String newStatus = (String) statusComboBox.getSelectedItem();
-        String studentId = currentStudentInfo.getStudent().getStudentId();
+        Student student = currentStudentInfo.getStudent();
+        String studentId = student.getStudentId();
 
         try {
-            facade.updateEnrollmentStatus(studentId, newStatus);
+            // Optimistic locking: fails if the student changed since it was loaded
+            facade.updateEnrollmentStatus(studentId, newStatus, student.getVersion());
             showMessageDialog("Success", "Enrollment status updated successfully!");
             
             // Reload student to refresh display
@@ -351,6 +384,9 @@ public class StudentDashboardPanel extends BasePanel {
             showWarningDialog("Validation Error", ex.getMessage());
         } catch (StudentNotFoundException ex) {
             showErrorDialog("Error", ex.getMessage());
+        } catch (ConcurrentUpdateException ex) {
+            showWarningDialog("Edit Conflict", ex.getMessage());
+            loadStudent();
         } catch (SQLException ex) {
             showErrorDialog("Database Error", "Failed to update enrollment status: " + ex.getMessage());
         }
@@ -174,7 +174,8 @@ public class StudentFormDialog extends JDialog {
             } else {
                 // Use existing ID
                 studentId = student.getStudentId();
-                facade.updateStudent(studentId, name, age, course, email);
+                // Optimistic locking: fails if someone else saved this student since the dialog opened
+                facade.updateStudent(studentId, name, age, course, email, student.getVersion());
                 // Create result student object with updated data
                 resultStudent = new Student(name, age, studentId, course, email, student.getEnrollmentStatus());
             }
@@ -194,6 +195,9 @@ public class StudentFormDialog extends JDialog {
         } catch (StudentNotFoundException ex) {
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", 
                     JOptionPane.ERROR_MESSAGE);
+        } catch (ConcurrentUpdateException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Edit Conflict", 
+                    JOptionPane.WARNING_MESSAGE);
         } catch (SQLException ex) {
             JOptionPane.showMessageDialog(this, 
                     "Database Error: " + ex.getMessage(), 
@@ -1,38 +1,55 @@
 package view;
 
+import facade.AsyncStudentManagementFacade;
+import facade.StudentInfoCache;
 import facade.StudentManagementFacade;
 import observer.StudentDataObserver;
 import observer.StudentDataManager;
 import strategy.StudentSortContext;
 import strategy.SortStrategy;
+import metrics.HeapFootprint;
 import model.Student;
 import exceptions.*;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.RowSorterEvent;
 import java.awt.*;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Unified Student Management Panel consolidating Add, Edit, Delete, and View operations.
  * Part of MVC architecture - View layer.
  * Uses Facade pattern to interact with controllers.
  * Implements Observer pattern to auto-refresh when data changes.
- * Uses Strategy pattern for sorting students.
+ * The sort combo box picks a SortStrategy by name; the table's row sorter
+ * sorts by the column showing that strategy's field.
+ * Selecting a row prefetches that student and its neighbours into
+ * StudentInfoCache, so the dashboard can show them without waiting.
  */
 public class StudentManagementPanel extends BasePanel implements StudentDataObserver {
+
+    private static final int PREFETCH_DELAY_MS = 150;
     
     private StudentManagementFacade facade;
-    private StudentSortContext sortContext;
-    private DefaultTableModel tableModel;
+    private SearchFilter<Student> searchFilter;
+    private StudentTableModel tableModel;
     private JTable studentTable;
+    private KeyedRowSorter<RecordTableModel<Student>> rowSorter;
+    private boolean syncingSortComboBox;
+    private Timer prefetchDebounce;
     
     // Store all students in memory for filtering
     private List<Student> allStudents;
+    // Incremented by each reload; only the latest one's result is shown
+    private int loadSequence;
+    private boolean loading;
     
     // Toolbar buttons
     private JButton addButton;
@@ -48,27 +65,91 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
     
     public StudentManagementPanel() {
         this.facade = StudentManagementFacade.getInstance();
-        this.sortContext = new StudentSortContext();
+        this.searchFilter = new SearchFilter<>(student -> new String[] {
+            student.getStudentId(), student.getName(), student.getCourse(),
+            student.getEmail(), student.getEnrollmentStatus()
+        });
         setupUI();
         
         // Observer Pattern: Register this panel as an observer
         StudentDataManager.getInstance().addObserver(this);
+
+        // Heap diagnostics: the student list and everything derived from it
+        HeapFootprint.getInstance().register("StudentManagementPanel", this, panel -> new Object[] {
+            panel.allStudents, panel.tableModel, panel.rowSorter, panel.searchFilter
+        });
     }
     
     /**
      * Observer Pattern: Called when student data changes.
-     * Auto-refreshes the student table.
+     * Reloads the student table in the background; attendance and payment
+     * changes do not affect this table.
      */
     @Override
     public void onStudentDataChanged(String eventType) {
+        if ("ATTENDANCE".equals(eventType) || "PAYMENT".equals(eventType)) {
+            return;
+        }
+        SwingUtilities.invokeLater(this::refreshStudentTable);
+    }
+
+    /**
+     * Observer Pattern: Called when specific students change, e.g. written by
+     * this panel's dialogs or in another application instance. Only those
+     * students are re-read; attendance and payment changes do not affect
+     * this table.
+     */
+    @Override
+    public void onStudentDataChanged(String eventType, Set<String> keys) {
+        if ("ATTENDANCE".equals(eventType) || "PAYMENT".equals(eventType)) {
+            return;
+        }
         SwingUtilities.invokeLater(() -> {
-            try {
+            if (loading) {
+                // The running reload may have read the students before this change
                 refreshStudentTable();
-            } catch (SQLException e) {
-                // Silently handle - table will refresh on next manual refresh
+                return;
             }
+            AsyncStudentManagementFacade.getInstance().getStudentsByIds(keys).whenComplete((students, ex) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (ex != null) {
+                        System.err.println("Failed to load changed students: " + ex.getCause().getMessage());
+                    } else {
+                        mergeStudents(keys, students);
+                    }
+                }));
         });
     }
+
+    /**
+     * Replaces the given students in the in-memory list with their current
+     * state: changed students are swapped in place, deleted ones dropped and
+     * new ones appended (the row sorter orders the view).
+     */
+    private void mergeStudents(Set<String> studentIds, List<Student> current) {
+        if (allStudents == null) {
+            // Initial load still running; it reads the changes itself
+            return;
+        }
+        Map<String, Student> changed = new LinkedHashMap<>();
+        for (Student student : current) {
+            changed.put(student.getStudentId(), student);
+        }
+        List<Student> merged = new ArrayList<>(allStudents.size() + changed.size());
+        for (Student student : allStudents) {
+            if (!studentIds.contains(student.getStudentId())) {
+                merged.add(student);
+            } else {
+                Student updated = changed.remove(student.getStudentId());
+                if (updated != null) {
+                    merged.add(updated);
+                }
+            }
+        }
+        merged.addAll(changed.values());
+        allStudents = merged;
+        showAllStudents();
+    }
     
     private void setupUI() {
         setLayout(new BorderLayout());
@@ -88,6 +169,7 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
         topPanel.add(new JLabel("Sort by:"));
         String[] criteria = {"student_id", "name", "age", "course"};
         sortComboBox = new JComboBox<>(criteria);
+        sortComboBox.addActionListener(e -> applySort());
         topPanel.add(sortComboBox);
         
         refreshButton = new JButton("Refresh");
@@ -95,47 +177,31 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
         topPanel.add(refreshButton);
         
         // Table
-        String[] columns = {"Student ID", "Name", "Age", "Course", "Email", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new StudentTableModel();
         studentTable = new JTable(tableModel);
         studentTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         studentTable.setRowHeight(25);
         
-        // Color-code rows based on enrollment status
-        studentTable.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
-                    boolean hasFocus, int row, int column) {
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-                
-                if (!isSelected) {
-                    // Get status from the last column (index 5)
-                    String status = (String) table.getValueAt(row, 5);
-                    if (status != null) {
-                        switch (status) {
-                            case "ENROLLED":
-                                c.setBackground(new Color(220, 255, 220)); // Light green
-                                break;
-                            case "SUSPENDED":
-                                c.setBackground(new Color(255, 255, 200)); // Light yellow
-                                break;
-                            case "GRADUATED":
-                                c.setBackground(new Color(240, 240, 240)); // Light gray
-                                break;
-                            default:
-                                c.setBackground(Color.WHITE);
-                        }
-                    } else {
-                        c.setBackground(Color.WHITE);
-                    }
-                }
-                
-                return c;
+        // Row colours resolved once per row from the record, using shared constants
+        studentTable.setDefaultRenderer(Object.class, new StudentRowRenderer(tableModel));
+
+        // Sorting (combo box or column header) permutes a view index; the model is never rebuilt
+        rowSorter = KeyedRowSorter.forRecords(tableModel);
+        studentTable.setRowSorter(rowSorter);
+        rowSorter.addRowSorterListener(e -> {
+            if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED) {
+                syncSortComboBox();
+            }
+        });
+        applySort();
+
+        // Warm the dashboard cache for the selected student and its neighbours,
+        // once the selection stops moving
+        prefetchDebounce = new Timer(PREFETCH_DELAY_MS, e -> prefetchAroundSelection());
+        prefetchDebounce.setRepeats(false);
+        studentTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                prefetchDebounce.restart();
             }
         });
         
@@ -174,21 +240,11 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
         addButton.addActionListener(e -> handleAdd());
         editButton.addActionListener(e -> handleEdit());
         deleteButton.addActionListener(e -> handleDelete());
-        refreshButton.addActionListener(e -> {
-            try {
-                refreshStudentTable();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
-        });
+        refreshButton.addActionListener(e -> refreshStudentTable());
         
         clearButton.addActionListener(e -> {
             searchField.setText("");
-            try {
-                refreshStudentTable();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh: " + ex.getMessage());
-            }
+            refreshStudentTable();
         });
         
         // Real-time search functionality with DocumentListener
@@ -209,12 +265,8 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
             }
         });
         
-        // Initial load
-        try {
-            refreshStudentTable();
-        } catch (SQLException ex) {
-            showErrorDialog("Database Error", "Failed to load students: " + ex.getMessage());
-        }
+        // Initial load runs in the background so building this tab never waits for the database
+        refreshStudentTable();
     }
     
     private void handleAdd() {
@@ -224,13 +276,9 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
             null
         );
         
+        // The facade's ADD notification brings the new student into the table
         if (dialog.showDialog()) {
             showMessageDialog("Success", "Student added successfully!");
-            try {
-                refreshStudentTable();
-            } catch (SQLException ex) {
-                showErrorDialog("Database Error", "Failed to refresh table: " + ex.getMessage());
-            }
         }
     }
     
@@ -241,7 +289,7 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
             return;
         }
         
-        String studentId = (String) tableModel.getValueAt(selectedRow, 0);
+        String studentId = tableModel.getRecordAt(studentTable.convertRowIndexToModel(selectedRow)).getStudentId();
         
         try {
             Student student = facade.getStudent(studentId);
@@ -252,13 +300,9 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
                 student
             );
             
+            // The facade's UPDATE notification re-reads the student in the table
             if (dialog.showDialog()) {
                 showMessageDialog("Success", "Student updated successfully!");
-                try {
-                    refreshStudentTable();
-                } catch (SQLException ex) {
-                    showErrorDialog("Database Error", "Failed to refresh table: " + ex.getMessage());
-                }
             }
             
         } catch (InvalidInputException ex) {
@@ -277,8 +321,9 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
             return;
         }
         
-        String studentId = (String) tableModel.getValueAt(selectedRow, 0);
-        String studentName = (String) tableModel.getValueAt(selectedRow, 1);
+        Student selected = tableModel.getRecordAt(studentTable.convertRowIndexToModel(selectedRow));
+        String studentId = selected.getStudentId();
+        String studentName = selected.getName();
         
         // Confirm deletion
         int confirm = JOptionPane.showConfirmDialog(
@@ -293,9 +338,9 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
         
         if (confirm == JOptionPane.YES_OPTION) {
             try {
+                // The facade's DELETE notification removes the row
                 facade.deleteStudent(studentId);
                 showMessageDialog("Success", "Student deleted successfully!");
-                refreshStudentTable();
             } catch (InvalidInputException ex) {
                 showWarningDialog("Validation Error", ex.getMessage());
             } catch (StudentNotFoundException ex) {
@@ -309,57 +354,37 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
     /**
      * Filters students in real-time based on search term.
      * Searches across all fields: Student ID, Name, Course, Email, and Status.
-     * Case-insensitive partial matching.
+     * Case-insensitive partial matching, debounced and run off the EDT.
      */
     private void filterStudents() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        
-        if (allStudents == null) {
+        searchFilter.filter(searchField.getText(), null, this::showStudents);
+    }
+    
+    /**
+     * Prefetches the dashboard information of the selected student and the rows
+     * directly above and below it, in the order the table shows them.
+     */
+    private void prefetchAroundSelection() {
+        int selectedRow = studentTable.getSelectedRow();
+        if (selectedRow < 0) {
             return;
         }
-        
-        List<Student> filteredStudents = new ArrayList<>();
-        
-        if (searchTerm.isEmpty()) {
-            // Show all students
-            filteredStudents.addAll(allStudents);
-        } else {
-            // Filter by search term across all fields
-            for (Student student : allStudents) {
-                boolean matches = 
-                    (student.getStudentId() != null && student.getStudentId().toLowerCase().contains(searchTerm)) ||
-                    (student.getName() != null && student.getName().toLowerCase().contains(searchTerm)) ||
-                    (student.getCourse() != null && student.getCourse().toLowerCase().contains(searchTerm)) ||
-                    (student.getEmail() != null && student.getEmail().toLowerCase().contains(searchTerm)) ||
-                    (student.getEnrollmentStatus() != null && student.getEnrollmentStatus().toLowerCase().contains(searchTerm));
-                
-                if (matches) {
-                    filteredStudents.add(student);
-                }
-            }
-        }
-        
-        // Apply sorting
-        String selectedCriteria = (String) sortComboBox.getSelectedItem();
-        SortStrategy strategy = StudentSortContext.getStrategyByName(selectedCriteria);
-        sortContext.setStrategy(strategy);
-        filteredStudents = sortContext.sortStudents(filteredStudents);
-        
-        // Update table
-        tableModel.setRowCount(0);
-        for (Student student : filteredStudents) {
-            tableModel.addRow(new Object[]{
-                student.getStudentId(),
-                student.getName(),
-                student.getAge(),
-                student.getCourse(),
-                student.getEmail() != null ? student.getEmail() : "",
-                student.getEnrollmentStatus()
-            });
+        StudentInfoCache cache = StudentInfoCache.getInstance();
+        int lastRow = studentTable.getRowCount() - 1;
+        for (int row = Math.max(0, selectedRow - 1); row <= Math.min(lastRow, selectedRow + 1); row++) {
+            cache.prefetch(tableModel.getRecordAt(studentTable.convertRowIndexToModel(row)).getStudentId());
         }
+    }
+
+    /**
+     * Shows the filtered students in the table and updates the count label.
+     */
+    private void showStudents(List<Student> filteredStudents) {
+        // Update table - only rows that changed since the last update fire events
+        tableModel.updateRecords(filteredStudents);
         
         // Update count label
-        if (searchTerm.isEmpty()) {
+        if (searchField.getText().trim().isEmpty()) {
             countLabel.setText("Total Students: " + filteredStudents.size());
         } else {
             countLabel.setText("Found: " + filteredStudents.size() + " student(s)");
@@ -367,15 +392,73 @@ public class StudentManagementPanel extends BasePanel implements StudentDataObse
     }
     
     /**
-     * Refreshes the student table with all students, applying current sort.
-     * Also updates the in-memory list for filtering.
+     * Sorts the table by the field of the selected strategy.
+     * Only the row sorter's view index changes; the loaded students and the
+     * table model are left as they are.
      */
-    private void refreshStudentTable() throws SQLException {
-        // Load all students from database
-        allStudents = facade.getAllStudents();
-        
-        // Apply filtering (which will also apply sorting and update table)
-        filterStudents();
+    private void applySort() {
+        if (syncingSortComboBox) {
+            return;
+        }
+        String selectedCriteria = (String) sortComboBox.getSelectedItem();
+        SortStrategy strategy = StudentSortContext.getStrategyByName(selectedCriteria);
+        int column = StudentTableModel.getColumnForSortField(strategy.getSortField());
+        if (column >= 0) {
+            rowSorter.sortBy(column, SortOrder.ASCENDING);
+        }
+    }
+
+    /**
+     * Shows the strategy matching a column header sort in the combo box, if there is one.
+     */
+    private void syncSortComboBox() {
+        List<? extends RowSorter.SortKey> keys = rowSorter.getSortKeys();
+        if (keys.isEmpty() || keys.get(0).getSortOrder() != SortOrder.ASCENDING) {
+            return;
+        }
+        for (int i = 0; i < sortComboBox.getItemCount(); i++) {
+            String field = sortComboBox.getItemAt(i);
+            if (StudentTableModel.getColumnForSortField(field) == keys.get(0).getColumn()) {
+                syncingSortComboBox = true;
+                try {
+                    sortComboBox.setSelectedIndex(i);
+                } finally {
+                    syncingSortComboBox = false;
+                }
+                return;
+            }
+        }
     }
-}
 
+    /**
+     * Hands the loaded students to the search filter, which updates the table.
+     * Filtering keeps model order; the row sorter orders the view.
+     */
+    private void showAllStudents() {
+        searchFilter.setRecords(allStudents);
+        searchFilter.filterNow(searchField.getText(), null, this::showStudents);
+    }
+    
+    /**
+     * Reloads all students in the background, then updates the in-memory list
+     * for filtering and the table. A newer reload supersedes an older one.
+     */
+    private void refreshStudentTable() {
+        int load = ++loadSequence;
+        loading = true;
+        AsyncStudentManagementFacade.getInstance().getAllStudents().whenComplete((students, ex) ->
+            SwingUtilities.invokeLater(() -> {
+                if (load != loadSequence) {
+                    return;
+                }
+                loading = false;
+                if (ex != null) {
+                    showErrorDialog("Database Error", "Failed to load students: " + ex.getCause().getMessage());
+                } else {
+                    allStudents = students;
+                    // Filter (which will update the table); the row sorter keeps the current sort
+                    showAllStudents();
+                }
+            }));
+    }
+}
@@ -0,0 +1,31 @@
+package view;
+
+import model.Student;
+
+/**
+ * Colour-codes student rows by enrollment status.
+ */
+public class StudentRowRenderer extends RecordRowRenderer<Student> {
+
+    public StudentRowRenderer(StudentTableModel model) {
+        super(model);
+    }
+
+    @Override
+    protected RowStyle getRowStyle(Student student) {
+        String status = student.getEnrollmentStatus();
+        if (status == null) {
+            return RowStyle.DEFAULT;
+        }
+        switch (status) {
+            case "ENROLLED":
+                return RowStyle.ENROLLED;
+            case "SUSPENDED":
+                return RowStyle.SUSPENDED;
+            case "GRADUATED":
+                return RowStyle.GRADUATED;
+            default:
+                return RowStyle.DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package view;
+
+import model.Student;
+
+/**
+ * Table model for the student list.
+ * Columns: Student ID, Name, Age, Course, Email, Status.
+ */
+public class StudentTableModel extends RecordTableModel<Student> {
+
+    public static final int COL_ID = 0;
+    public static final int COL_NAME = 1;
+    public static final int COL_AGE = 2;
+    public static final int COL_COURSE = 3;
+    public static final int COL_EMAIL = 4;
+    public static final int COL_STATUS = 5;
+
+    public StudentTableModel() {
+        super("Student ID", "Name", "Age", "Course", "Email", "Status");
+    }
+
+    /**
+     * Gets the column that shows a sort strategy's field (see SortStrategy.getSortField()).
+     *
+     * @return Column index, or -1 if no column shows the field
+     */
+    public static int getColumnForSortField(String sortField) {
+        switch (sortField) {
+            case "student_id":
+                return COL_ID;
+            case "name":
+                return COL_NAME;
+            case "age":
+                return COL_AGE;
+            case "course":
+                return COL_COURSE;
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    protected Object getRecordKey(Student student) {
+        return student.getStudentId();
+    }
+
+    @Override
+    protected Object getColumnValue(Student student, int column) {
+        switch (column) {
+            case COL_ID:
+                return student.getStudentId();
+            case COL_NAME:
+                return student.getName();
+            case COL_AGE:
+                return student.getAge();
+            case COL_COURSE:
+                return student.getCourse();
+            case COL_EMAIL:
+                return student.getEmail() != null ? student.getEmail() : "";
+            case COL_STATUS:
+                return student.getEnrollmentStatus();
+            default:
+                return null;
+        }
+    }
+}